@@ -0,0 +1,74 @@
+package com.study.ioc.cache;
+
+import com.study.entity.DefaultPriceService;
+import com.study.ioc.entity.Bean;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Cacheable} hit against calling the target directly, for the key shapes of
+ * {@link CacheKey}: one object argument, two arguments and one primitive argument.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheableBenchmark {
+    private DefaultPriceService direct;
+    private DefaultPriceService cached;
+    private String product;
+    private int quantity;
+    private long productId;
+
+    @Setup
+    public void setUp() {
+        direct = new DefaultPriceService();
+        cached = (DefaultPriceService) new CacheableBeanPostProcessor()
+                .postProcessAfterInitialization(new Bean("priceService", new DefaultPriceService()), "priceService");
+        product = "apple";
+        quantity = 3;
+        productId = 7;
+    }
+
+    @Benchmark
+    public long directOneArgument() {
+        return direct.getPrice(product);
+    }
+
+    @Benchmark
+    public long cachedOneArgument() {
+        return cached.getPrice(product);
+    }
+
+    @Benchmark
+    public long directTwoArguments() {
+        return direct.getPrice(product, quantity);
+    }
+
+    @Benchmark
+    public long cachedTwoArguments() {
+        return cached.getPrice(product, quantity);
+    }
+
+    @Benchmark
+    public long directPrimitiveArgument() {
+        return direct.getPrice(productId);
+    }
+
+    @Benchmark
+    public long cachedPrimitiveArgument() {
+        return cached.getPrice(productId);
+    }
+}
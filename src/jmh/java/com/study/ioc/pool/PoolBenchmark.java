@@ -0,0 +1,81 @@
+package com.study.ioc.pool;
+
+import com.study.entity.MailService;
+import com.study.ioc.context.impl.GenericApplicationContext;
+import com.study.ioc.entity.Bean;
+import com.study.ioc.entity.BeanDefinition;
+import com.study.ioc.reader.resource.ByteBufferResource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Borrowing and returning a pooled bean against creating a prototype of the same
+ * definition through {@link GenericApplicationContext#createBeans}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PoolBenchmark {
+    private static final String CONTEXT = """
+            <beans>
+                <bean id="pooledMailService" class="com.study.entity.MailService" scope="pooled" pool-max-size="64">
+                    <property name="port" value="995"/>
+                    <property name="protocol" value="POP3"/>
+                </bean>
+            </beans>
+            """;
+
+    private GenericApplicationContext context;
+    private Map<String, BeanDefinition> prototypeDefinitions;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new GenericApplicationContext(new ByteBufferResource(CONTEXT.getBytes(StandardCharsets.UTF_8)));
+        BeanDefinition definition = new BeanDefinition("prototypeMailService", MailService.class.getName());
+        definition.setValueDependencies(Map.of("port", "995", "protocol", "POP3"));
+        prototypeDefinitions = Map.of(definition.getId(), definition);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object borrowAndReturn() {
+        MailService mailService = context.borrowBean("pooledMailService", MailService.class);
+        context.returnBean("pooledMailService", mailService);
+        return mailService;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object borrowAndReturnFourThreads() {
+        return borrowAndReturn();
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public Object createPrototype() throws Exception {
+        Map<String, Bean> beans = context.createBeans(prototypeDefinitions);
+        context.injectValueDependencies(prototypeDefinitions, beans);
+        return beans.get("prototypeMailService").getValue();
+    }
+}
@@ -0,0 +1,30 @@
+package com.study.ioc.async;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a bean method on an executor instead of the calling thread. The method has to
+ * return {@code void} or {@code CompletableFuture}; the caller gets a future that
+ * completes with the result of the one the method returns. Handled by
+ * {@link AsyncBeanPostProcessor}, which has to be declared in the context.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Async {
+
+    /**
+     * Name of the {@code Executor} bean to run on, empty for the default executor
+     * of the post processor.
+     */
+    String executor() default "";
+
+    /**
+     * Maximum number of async calls of the bean running at once, {@code 0} for the
+     * limit of the post processor, which is finite unless tasks run on virtual threads.
+     * All async methods of a bean share one limit, the smallest one declared on them.
+     */
+    int maxConcurrency() default 0;
+}
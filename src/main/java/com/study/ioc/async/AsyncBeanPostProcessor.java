@@ -0,0 +1,155 @@
+package com.study.ioc.async;
+
+import com.study.ioc.context.ApplicationContext;
+import com.study.ioc.context.ApplicationContextAware;
+import com.study.ioc.exception.BeanInstantiationException;
+import com.study.ioc.proxy.InterceptingBeanPostProcessor;
+import com.study.ioc.proxy.MethodInterceptor;
+import com.study.ioc.proxy.MethodInvocation;
+import com.study.ioc.proxy.ProxyFactory;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Runs {@link Async} bean methods on executor beans. Methods without an explicit
+ * executor use the {@code defaultExecutor} bean, or an {@link AsyncExecutor} owned by
+ * the processor when none is configured. Concurrency is bounded per bean by the
+ * {@code maxConcurrency} of its annotations or of the processor. The processor's default
+ * is the number of CPUs, or unbounded where every task gets a virtual thread; setting it
+ * to {@code 0} makes it unbounded.
+ * <p>
+ * A call the executor rejects, a closed one for example, fails the returned future; for
+ * a void method the rejection goes to the uncaught exception handler, like its other
+ * failures.
+ */
+public class AsyncBeanPostProcessor extends InterceptingBeanPostProcessor
+        implements ApplicationContextAware, AutoCloseable {
+    private static final ConcurrencyLimiter NO_LIMIT = new ConcurrencyLimiter(Integer.MAX_VALUE);
+
+    @Getter
+    @Setter
+    private String defaultExecutor;
+    @Getter
+    @Setter
+    private int maxConcurrency = VirtualThreads.isSupported() ? 0 : Runtime.getRuntime().availableProcessors();
+    private ApplicationContext applicationContext;
+    private final AsyncExecutor ownExecutor = new AsyncExecutor();
+    private final Map<String, ConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    @Override
+    protected MethodInterceptor createInterceptor(String beanName, Object target, Method method) {
+        Async async = findAnnotation(target, method, Async.class);
+        if (async == null) {
+            return null;
+        }
+        Class<?> returnType = method.getReturnType();
+        boolean returnsFuture = returnType != Object.class && returnType.isAssignableFrom(CompletableFuture.class);
+        if (returnType != void.class && !returnsFuture) {
+            throw new BeanInstantiationException("@Async method " + method.getName() + " of bean " + beanName +
+                    " must return void or CompletableFuture", null);
+        }
+        Executor executor = getExecutor(beanName, async.executor().isEmpty() ? defaultExecutor : async.executor());
+        ConcurrencyLimiter limiter = getLimiter(beanName, target);
+        if (returnsFuture) {
+            return invocation -> {
+                CompletableFuture<Object> result = new CompletableFuture<>();
+                submit(executor, limiter, () -> complete(invocation, result), result::completeExceptionally);
+                return result;
+            };
+        }
+        return invocation -> {
+            submit(executor, limiter, () -> run(invocation), AsyncBeanPostProcessor::reportUncaught);
+            return null;
+        };
+    }
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void close() {
+        ownExecutor.close();
+    }
+
+    private Executor getExecutor(String beanName, String executorName) {
+        if (executorName == null || executorName.isEmpty()) {
+            return ownExecutor;
+        }
+        Executor executor = applicationContext == null ? null : applicationContext.getBean(executorName, Executor.class);
+        if (executor == null) {
+            throw new BeanInstantiationException("No executor bean " + executorName + " for @Async methods of bean " +
+                    beanName, null);
+        }
+        return executor;
+    }
+
+    private ConcurrencyLimiter getLimiter(String beanName, Object target) {
+        return limiters.computeIfAbsent(beanName, name -> {
+            int limit = 0;
+            for (Method method : ProxyFactory.getInterceptableMethods(target.getClass())) {
+                Async async = findAnnotation(target, method, Async.class);
+                if (async != null && async.maxConcurrency() > 0) {
+                    limit = limit == 0 ? async.maxConcurrency() : Math.min(limit, async.maxConcurrency());
+                }
+            }
+            if (limit == 0) {
+                limit = maxConcurrency;
+            }
+            return limit > 0 ? new ConcurrencyLimiter(limit) : NO_LIMIT;
+        });
+    }
+
+    private static void submit(Executor executor, ConcurrencyLimiter limiter, Runnable task,
+                               Consumer<RuntimeException> onRejected) {
+        if (limiter != NO_LIMIT) {
+            limiter.execute(executor, task, onRejected);
+            return;
+        }
+        try {
+            executor.execute(task);
+        } catch (RuntimeException e) {
+            onRejected.accept(e);
+        }
+    }
+
+    private static void complete(MethodInvocation invocation, CompletableFuture<Object> result) {
+        try {
+            Object value = invocation.proceed();
+            if (value instanceof CompletableFuture<?> future) {
+                future.whenComplete((futureValue, e) -> {
+                    if (e != null) {
+                        result.completeExceptionally(e);
+                    } else {
+                        result.complete(futureValue);
+                    }
+                });
+            } else {
+                result.complete(value);
+            }
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private static void run(MethodInvocation invocation) {
+        try {
+            invocation.proceed();
+        } catch (Throwable e) {
+            reportUncaught(e);
+        }
+    }
+
+    private static void reportUncaught(Throwable e) {
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+    }
+}
@@ -0,0 +1,79 @@
+package com.study.ioc.async;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor to declare as a bean for {@link Async} methods. With {@code threads} left at
+ * {@code 0} every task gets its own virtual thread, or, where virtual threads are not
+ * available, runs on a fixed pool of one daemon thread per CPU; otherwise tasks run on a
+ * fixed pool of {@code threads} daemon threads. The threads are started with the first
+ * task, after the properties are injected, and stopped when the context is closed. A
+ * closed executor rejects new tasks.
+ */
+@Getter
+@Setter
+public class AsyncExecutor implements Executor, AutoCloseable {
+    private int threads;
+    private String threadNamePrefix = "async-";
+    private volatile ExecutorService executorService;
+    private volatile boolean closed;
+
+    /**
+     * @throws RejectedExecutionException if the executor is closed
+     */
+    @Override
+    public void execute(Runnable task) {
+        ExecutorService executorService = this.executorService;
+        if (executorService == null) {
+            executorService = start();
+        }
+        executorService.execute(task);
+    }
+
+    @Override
+    public void close() {
+        ExecutorService executorService;
+        synchronized (this) {
+            closed = true;
+            executorService = this.executorService;
+            this.executorService = null;
+        }
+        if (executorService != null) {
+            executorService.shutdown();
+        }
+    }
+
+    private synchronized ExecutorService start() {
+        if (closed) {
+            throw new RejectedExecutionException("Executor " + threadNamePrefix + " is closed");
+        }
+        if (executorService == null) {
+            if (threads > 0) {
+                executorService = Executors.newFixedThreadPool(threads, daemonThreadFactory());
+            } else if (VirtualThreads.isSupported()) {
+                executorService = VirtualThreads.newVirtualThreadPerTaskExecutor();
+            } else {
+                executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                        daemonThreadFactory());
+            }
+        }
+        return executorService;
+    }
+
+    private ThreadFactory daemonThreadFactory() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, threadNamePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
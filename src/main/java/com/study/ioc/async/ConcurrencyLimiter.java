@@ -0,0 +1,63 @@
+package com.study.ioc.async;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Lets at most {@code limit} tasks of one bean run at a time, whichever executors they
+ * run on, and queues the rest. Waiting tasks don't occupy a thread of any executor.
+ * <p>
+ * A queued task may be handed to its executor by whichever thread finishes a task, so a
+ * rejection by the executor isn't thrown to that thread but passed to the task's own
+ * rejection handler.
+ */
+final class ConcurrencyLimiter {
+    private final int limit;
+    private final Queue<PendingTask> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger running = new AtomicInteger();
+
+    ConcurrencyLimiter(int limit) {
+        this.limit = limit;
+    }
+
+    void execute(Executor executor, Runnable task, Consumer<RuntimeException> onRejected) {
+        queue.add(new PendingTask(executor, task, onRejected));
+        drain();
+    }
+
+    private void drain() {
+        while (!queue.isEmpty()) {
+            int current = running.get();
+            if (current >= limit) {
+                return;
+            }
+            if (!running.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            PendingTask pendingTask = queue.poll();
+            if (pendingTask == null) {
+                running.decrementAndGet();
+                continue;
+            }
+            try {
+                pendingTask.executor().execute(() -> {
+                    try {
+                        pendingTask.task().run();
+                    } finally {
+                        running.decrementAndGet();
+                        drain();
+                    }
+                });
+            } catch (RuntimeException e) {
+                running.decrementAndGet();
+                pendingTask.onRejected().accept(e);
+            }
+        }
+    }
+
+    private record PendingTask(Executor executor, Runnable task, Consumer<RuntimeException> onRejected) {
+    }
+}
@@ -0,0 +1,115 @@
+package com.study.ioc.cache;
+
+import com.study.ioc.proxy.MethodInvocation;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Builds immutable cache keys from the arguments of a call. A single argument is its own
+ * key and two arguments share one small pair object, read from the invocation without
+ * building its argument array; only methods with more arguments copy the array. Array
+ * arguments are copied deeply, so a caller changing its array after the call can't
+ * change a cached key. Other arguments are expected to be values, as any map key.
+ */
+final class CacheKey {
+    static final Object NO_ARGUMENTS = new Object();
+    private static final Object NULL = new Object();
+
+    private CacheKey() {
+    }
+
+    static Object of(MethodInvocation invocation) {
+        return switch (invocation.getArgumentCount()) {
+            case 0 -> NO_ARGUMENTS;
+            case 1 -> of(invocation.getArgument(0));
+            case 2 -> of(invocation.getArgument(0), invocation.getArgument(1));
+            default -> new ArrayKey((Object[]) copy(invocation.getArguments()));
+        };
+    }
+
+    static Object of(Object argument) {
+        if (argument == null) {
+            return NULL;
+        }
+        if (argument.getClass().isArray()) {
+            return new ArrayKey(new Object[]{copy(argument)});
+        }
+        return argument;
+    }
+
+    static Object of(Object first, Object second) {
+        if ((first != null && first.getClass().isArray()) || (second != null && second.getClass().isArray())) {
+            return new ArrayKey(new Object[]{copy(first), copy(second)});
+        }
+        return new PairKey(first, second);
+    }
+
+    /**
+     * @return a deep copy of an array, or the value itself
+     */
+    private static Object copy(Object value) {
+        if (value == null || !value.getClass().isArray()) {
+            return value;
+        }
+        int length = Array.getLength(value);
+        Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+        System.arraycopy(value, 0, copy, 0, length);
+        if (copy instanceof Object[] elements) {
+            for (int i = 0; i < length; i++) {
+                elements[i] = copy(elements[i]);
+            }
+        }
+        return copy;
+    }
+
+    private static final class PairKey {
+        private final Object first;
+        private final Object second;
+        private final int hash;
+
+        private PairKey(Object first, Object second) {
+            this.first = first;
+            this.second = second;
+            this.hash = 31 * Objects.hashCode(first) + Objects.hashCode(second);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof PairKey pairKey)) {
+                return false;
+            }
+            return hash == pairKey.hash && Objects.equals(first, pairKey.first) && Objects.equals(second, pairKey.second);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class ArrayKey {
+        private final Object[] arguments;
+        private final int hash;
+
+        private ArrayKey(Object[] arguments) {
+            this.arguments = arguments;
+            this.hash = Arrays.deepHashCode(arguments);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return this == other || (other instanceof ArrayKey arrayKey && hash == arrayKey.hash
+                    && Arrays.deepEquals(arguments, arrayKey.arguments));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
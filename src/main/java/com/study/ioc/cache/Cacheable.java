@@ -0,0 +1,24 @@
+package com.study.ioc.cache;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Caches the results of a bean method by its arguments. Handled by
+ * {@link CacheableBeanPostProcessor}, which has to be declared in the context.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Cacheable {
+
+    int maxSize() default 1024;
+
+    /**
+     * Time to live of a cached result in milliseconds, {@code 0} keeps results until evicted.
+     */
+    long ttlMillis() default 0;
+
+    Eviction eviction() default Eviction.LRU;
+}
@@ -0,0 +1,48 @@
+package com.study.ioc.cache;
+
+import com.study.ioc.proxy.InterceptingBeanPostProcessor;
+import com.study.ioc.proxy.MethodInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves repeated calls of {@link Cacheable} bean methods from a {@link MethodCache}, one
+ * per method. The key of a call is a {@link CacheKey}, a snapshot of its arguments that
+ * doesn't keep the invocation or the target reachable.
+ */
+public class CacheableBeanPostProcessor extends InterceptingBeanPostProcessor {
+
+    private final Map<String, Map<Method, MethodCache>> cachesByBean = new ConcurrentHashMap<>();
+
+    @Override
+    protected MethodInterceptor createInterceptor(String beanName, Object target, Method method) {
+        Cacheable cacheable = findAnnotation(target, method, Cacheable.class);
+        if (cacheable == null) {
+            return null;
+        }
+        MethodCache cache = new MethodCache(cacheable);
+        cachesByBean.computeIfAbsent(beanName, name -> new ConcurrentHashMap<>())
+                .put(method, cache);
+        return invocation -> {
+            Object key = CacheKey.of(invocation);
+            Object value = cache.get(key);
+            if (value == MethodCache.MISS) {
+                value = invocation.proceed();
+                cache.put(key, value);
+            }
+            return value;
+        };
+    }
+
+    /**
+     * Statistics of the cached methods of a bean, keyed by the methods of the bean class.
+     */
+    public Map<Method, CacheStats> getCacheStats(String beanName) {
+        Map<Method, CacheStats> stats = new LinkedHashMap<>();
+        cachesByBean.getOrDefault(beanName, Map.of()).forEach((method, cache) -> stats.put(method, cache.getStats()));
+        return stats;
+    }
+}
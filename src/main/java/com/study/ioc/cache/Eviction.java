@@ -0,0 +1,16 @@
+package com.study.ioc.cache;
+
+public enum Eviction {
+    /**
+     * Evicts the least recently used entry.
+     */
+    LRU,
+    /**
+     * W-TinyLFU: new entries enter a small LRU window of about 1% of the capacity. An
+     * entry leaving the window replaces the LRU victim of the main space only if a
+     * frequency sketch estimates it has been requested at least as often, otherwise it
+     * is evicted itself. The window lets recent entries build up popularity, the
+     * admission filter keeps one-hit scans from flushing frequently used results.
+     */
+    W_TINY_LFU
+}
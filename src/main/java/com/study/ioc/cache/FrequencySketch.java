@@ -0,0 +1,91 @@
+package com.study.ioc.cache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch with 4-bit saturating counters estimating how often a key was
+ * requested. All counters are halved once the number of recorded requests reaches
+ * ten times the cache size, so old popularity fades out.
+ * <p>
+ * Shared by all segments of a cache and updated without a lock: every counter word is
+ * changed with a CAS, so increments and the halving never overwrite each other, and
+ * only the thread that lowers the request count halves the table.
+ */
+final class FrequencySketch {
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final AtomicLongArray table;
+    private final int tableMask;
+    private final int sampleSize;
+    private final AtomicInteger additions = new AtomicInteger();
+
+    FrequencySketch(int maximumSize) {
+        int size = Integer.highestOneBit(Math.max(maximumSize, 16) - 1) << 1;
+        table = new AtomicLongArray(size);
+        tableMask = size - 1;
+        sampleSize = 10 * Math.max(maximumSize, 16);
+    }
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int offset = counterOffset(hash, i);
+            frequency = Math.min(frequency, (int) ((table.get(index) >>> offset) & 0xFL));
+        }
+        return frequency;
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), counterOffset(hash, i));
+        }
+        if (added && additions.incrementAndGet() >= sampleSize) {
+            int current = additions.get();
+            if (current >= sampleSize && additions.compareAndSet(current, current / 2)) {
+                reset();
+            }
+        }
+    }
+
+    private boolean incrementAt(int index, int offset) {
+        while (true) {
+            long word = table.get(index);
+            if (((word >>> offset) & 0xFL) == 0xFL) {
+                return false;
+            }
+            if (table.compareAndSet(index, word, word + (1L << offset))) {
+                return true;
+            }
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length(); i++) {
+            long word;
+            do {
+                word = table.get(i);
+            } while (!table.compareAndSet(i, word, (word >>> 1) & RESET_MASK));
+        }
+    }
+
+    private int indexOf(int hash, int row) {
+        long value = (hash + SEEDS[row]) * SEEDS[row];
+        value += value >>> 32;
+        return ((int) value) & tableMask;
+    }
+
+    private static int counterOffset(int hash, int row) {
+        return (((hash >>> (row << 3)) & 3) << 2) + (row << 4);
+    }
+
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+}
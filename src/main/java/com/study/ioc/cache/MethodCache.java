@@ -0,0 +1,188 @@
+package com.study.ioc.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded result cache of one method. Entries are spread over independently locked
+ * access-ordered segments of at least {@value #MIN_SEGMENT_CAPACITY} entries, so
+ * concurrent callers rarely contend while small caches keep a single segment and evict
+ * by their whole size. See {@link Eviction} for what is evicted.
+ */
+public class MethodCache {
+    public static final Object MISS = new Object();
+    private static final Object NULL_VALUE = new Object();
+    private static final int MIN_SEGMENT_CAPACITY = 64;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final int windowCapacity;
+    private final int mainCapacity;
+    private final long ttlNanos;
+    private final FrequencySketch sketch;
+    private final LongSupplier nanoClock;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public MethodCache(int maxSize, long ttlMillis, Eviction eviction) {
+        this(maxSize, ttlMillis, eviction, System::nanoTime);
+    }
+
+    /**
+     * @param nanoClock the time source of the TTL, in nanoseconds
+     */
+    MethodCache(int maxSize, long ttlMillis, Eviction eviction, LongSupplier nanoClock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        int segmentCount = Math.min(Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1,
+                Integer.highestOneBit(Math.max(1, maxSize / MIN_SEGMENT_CAPACITY)));
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment();
+        }
+        segmentMask = segmentCount - 1;
+        int segmentCapacity = (maxSize + segmentCount - 1) / segmentCount;
+        windowCapacity = eviction == Eviction.W_TINY_LFU && segmentCapacity > 1 ? Math.max(1, segmentCapacity / 100) : 0;
+        mainCapacity = segmentCapacity - windowCapacity;
+        ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        sketch = eviction == Eviction.W_TINY_LFU ? new FrequencySketch(maxSize) : null;
+        this.nanoClock = nanoClock;
+    }
+
+    public MethodCache(Cacheable cacheable) {
+        this(cacheable.maxSize(), cacheable.ttlMillis(), cacheable.eviction());
+    }
+
+    /**
+     * Returns the cached value or {@link #MISS}.
+     */
+    public Object get(Object key) {
+        if (sketch != null) {
+            sketch.increment(key);
+        }
+        Segment segment = segmentFor(key);
+        Object value;
+        synchronized (segment) {
+            Entry entry = segment.get(key);
+            if (entry == null) {
+                value = MISS;
+            } else if (ttlNanos > 0 && nanoClock.getAsLong() - entry.expiresAt >= 0) {
+                segment.remove(key);
+                value = MISS;
+            } else {
+                value = entry.value;
+            }
+        }
+        if (value == MISS) {
+            misses.increment();
+            return MISS;
+        }
+        hits.increment();
+        return value == NULL_VALUE ? null : value;
+    }
+
+    public void put(Object key, Object value) {
+        Entry entry = new Entry(value == null ? NULL_VALUE : value, ttlNanos > 0 ? nanoClock.getAsLong() + ttlNanos : 0);
+        Segment segment = segmentFor(key);
+        boolean evicted;
+        synchronized (segment) {
+            evicted = segment.put(key, entry);
+        }
+        if (evicted) {
+            evictions.increment();
+        }
+    }
+
+    public CacheStats getStats() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    private Segment segmentFor(Object key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & segmentMask];
+    }
+
+    /**
+     * A window and a main space, both in LRU order. Without a window, new entries go
+     * straight to the main space.
+     */
+    private final class Segment {
+        private final Map<Object, Entry> window = new LinkedHashMap<>(16, 0.75f, true);
+        private final Map<Object, Entry> main = new LinkedHashMap<>(16, 0.75f, true);
+
+        private Entry get(Object key) {
+            Entry entry = main.get(key);
+            return entry != null ? entry : window.get(key);
+        }
+
+        private void remove(Object key) {
+            if (main.remove(key) == null) {
+                window.remove(key);
+            }
+        }
+
+        private int size() {
+            return window.size() + main.size();
+        }
+
+        /**
+         * @return whether an entry was evicted
+         */
+        private boolean put(Object key, Entry entry) {
+            if (main.containsKey(key)) {
+                main.put(key, entry);
+                return false;
+            }
+            if (windowCapacity == 0) {
+                return admit(key, entry);
+            }
+            window.put(key, entry);
+            if (window.size() <= windowCapacity) {
+                return false;
+            }
+            Map.Entry<Object, Entry> candidate = window.entrySet().iterator().next();
+            window.remove(candidate.getKey());
+            return admit(candidate.getKey(), candidate.getValue());
+        }
+
+        /**
+         * Moves an entry into the main space. If it is full, either the entry or the
+         * least recently used main entry is evicted.
+         */
+        private boolean admit(Object key, Entry entry) {
+            if (main.size() < mainCapacity) {
+                main.put(key, entry);
+                return false;
+            }
+            Object victim = main.keySet().iterator().next();
+            if (sketch != null && sketch.frequency(key) < sketch.frequency(victim)) {
+                return true;
+            }
+            main.remove(victim);
+            main.put(key, entry);
+            return true;
+        }
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final long expiresAt;
+
+        private Entry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,11 +1,19 @@
 package com.study.ioc.context;
 
+import com.study.ioc.event.ApplicationEventPublisher;
+
 import java.util.List;
+import java.util.Map;
 
-public interface ApplicationContext {
+public interface ApplicationContext extends ApplicationEventPublisher {
     Object getBean(String beanId);
     <T> T getBean(Class<T> clazz);
     <T> T getBean(String id, Class<T> clazz);
     List<String> getBeanNames();
+    <T> List<String> getBeanNamesForType(Class<T> clazz);
+    <T> Map<String, T> getBeansOfType(Class<T> clazz);
+    <T> BeanHandle<T> handle(String id, Class<T> clazz);
+    <T> T borrowBean(String id, Class<T> clazz);
+    void returnBean(String id, Object bean);
 
 }
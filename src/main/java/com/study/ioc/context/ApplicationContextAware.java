@@ -0,0 +1,10 @@
+package com.study.ioc.context;
+
+/**
+ * Implemented by beans and post processors that need to look up other beans at
+ * runtime. The context passes itself once all singletons are created and injected,
+ * right before post processing starts.
+ */
+public interface ApplicationContextAware {
+    void setApplicationContext(ApplicationContext applicationContext);
+}
@@ -0,0 +1,13 @@
+package com.study.ioc.context;
+
+/**
+ * Pre-resolved reference to a bean. Name lookup and type check happen once, when
+ * the handle is obtained from {@link ApplicationContext#handle(String, Class)};
+ * {@link #get()} returns the checked bean and only checks again after the context
+ * replaced or removed beans.
+ */
+public interface BeanHandle<T> {
+    T get();
+
+    String getName();
+}
@@ -0,0 +1,96 @@
+package com.study.ioc.context.impl;
+
+import com.study.ioc.entity.BeanDefinition;
+import com.study.ioc.exception.BeanInstantiationException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Resolves the class of every bean definition exactly once. Large contexts load their
+ * classes in parallel on the common fork-join pool; classes are loaded and linked but
+ * not initialized there, so static initializers still run in a deterministic order on
+ * the thread that creates the bean and can't deadlock on each other.
+ */
+public class BeanClassResolver {
+    static final int PARALLEL_THRESHOLD = 64;
+
+    private final ClassLoader classLoader;
+
+    public BeanClassResolver() {
+        this(BeanClassResolver.class.getClassLoader());
+    }
+
+    public BeanClassResolver(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    public void resolveAll(Collection<BeanDefinition> beanDefinitions) {
+        Set<String> classNames = beanDefinitions.stream()
+                .filter(beanDefinition -> beanDefinition.getBeanClass() == null)
+                .map(BeanDefinition::getClassName)
+                .collect(Collectors.toSet());
+        if (classNames.isEmpty()) {
+            return;
+        }
+
+        Map<String, Class<?>> classes = new ConcurrentHashMap<>();
+        Stream<String> names = classNames.size() >= PARALLEL_THRESHOLD ? classNames.parallelStream() : classNames.stream();
+        names.forEach(className -> classes.put(className, load(className, false)));
+
+        for (BeanDefinition beanDefinition : beanDefinitions) {
+            if (beanDefinition.getBeanClass() == null) {
+                beanDefinition.setBeanClass(classes.get(beanDefinition.getClassName()));
+            }
+        }
+    }
+
+    public Class<?> resolve(BeanDefinition beanDefinition) {
+        Class<?> beanClass = beanDefinition.getBeanClass();
+        if (beanClass == null) {
+            beanClass = load(beanDefinition.getClassName(), true);
+            beanDefinition.setBeanClass(beanClass);
+        }
+        return beanClass;
+    }
+
+    /**
+     * Writes the bean classes and their non-JDK supertypes in the format expected by
+     * {@code -XX:SharedClassListFile}, one binary name per line.
+     */
+    public void writeClassList(Collection<BeanDefinition> beanDefinitions, Path classList) throws IOException {
+        Set<String> lines = new LinkedHashSet<>();
+        for (BeanDefinition beanDefinition : beanDefinitions) {
+            collectClassNames(resolve(beanDefinition), lines);
+        }
+        Files.write(classList, List.copyOf(lines));
+    }
+
+    private void collectClassNames(Class<?> clazz, Set<String> lines) {
+        if (clazz == null || clazz.getName().startsWith("java.")) {
+            return;
+        }
+        collectClassNames(clazz.getSuperclass(), lines);
+        for (Class<?> interfaceClass : clazz.getInterfaces()) {
+            collectClassNames(interfaceClass, lines);
+        }
+        lines.add(clazz.getName().replace('.', '/'));
+    }
+
+    private Class<?> load(String className, boolean initialize) {
+        try {
+            return Class.forName(className, initialize, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            throw new BeanInstantiationException("BeanInstantiation failed", e);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.study.ioc.context.impl;
+
+import com.study.ioc.entity.BeanDefinition;
+import com.study.ioc.entity.CollectionValue;
+import com.study.ioc.entity.PropertyValues;
+import com.study.ioc.exception.BeanInstantiationException;
+import com.study.ioc.exception.ProcessPostConstructException;
+import com.study.ioc.processor.BeanFactoryPostProcessor;
+import com.study.ioc.processor.BeanPostProcessor;
+import com.study.ioc.scope.Scope;
+import lombok.Getter;
+
+import javax.annotation.PostConstruct;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Everything reflective about creating one bean, worked out once from its frozen
+ * definition: the constructor and setters as method handles, values converted to
+ * their parameter types, the collection properties and the {@link PostConstruct}
+ * methods. Creating and wiring an instance from a recipe involves no lookups.
+ */
+@Getter
+final class BeanRecipe {
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType INIT_TYPE = MethodType.methodType(void.class, Object.class);
+
+    enum Kind {
+        FACTORY_PROCESSOR, PROCESSOR, SCOPE, SINGLETON, SCOPED, POOLED
+    }
+
+    private final BeanDefinition definition;
+    private final Class<?> beanClass;
+    private final Kind kind;
+    private final MethodHandle constructor;
+    private final PropertySetter[] valueSetters;
+    private final PropertySetter[] refSetters;
+    private final CollectionInjection[] collectionInjections;
+    private final MethodHandle[] initMethods;
+
+    private BeanRecipe(BeanDefinition definition, Class<?> beanClass, Kind kind, MethodHandle constructor,
+                       PropertySetter[] valueSetters, PropertySetter[] refSetters,
+                       CollectionInjection[] collectionInjections, MethodHandle[] initMethods) {
+        this.definition = definition;
+        this.beanClass = beanClass;
+        this.kind = kind;
+        this.constructor = constructor;
+        this.valueSetters = valueSetters;
+        this.refSetters = refSetters;
+        this.collectionInjections = collectionInjections;
+        this.initMethods = initMethods;
+    }
+
+    static BeanRecipe compile(BeanDefinition definition, Class<?> beanClass) {
+        Kind kind = kindOf(definition, beanClass);
+        boolean bean = kind == Kind.SINGLETON || kind == Kind.SCOPED || kind == Kind.POOLED;
+        return new BeanRecipe(definition, beanClass, kind, findConstructor(beanClass),
+                compileValueSetters(definition, beanClass),
+                bean ? compileRefSetters(definition, beanClass) : new PropertySetter[0],
+                bean ? compileCollectionInjections(definition, beanClass) : new CollectionInjection[0],
+                bean ? findInitMethods(beanClass) : new MethodHandle[0]);
+    }
+
+    String getId() {
+        return definition.getId();
+    }
+
+    Object instantiate() {
+        try {
+            return (Object) constructor.invokeExact();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new BeanInstantiationException("Can't create bean " + getId(), e);
+        }
+    }
+
+    void injectValues(Object bean) {
+        for (PropertySetter setter : valueSetters) {
+            setter.invoke(getId(), bean, setter.value());
+        }
+    }
+
+    void injectRefs(Object bean, Function<String, Object> refResolver) {
+        for (PropertySetter setter : refSetters) {
+            setter.invoke(getId(), bean, refResolver.apply((String) setter.value()));
+        }
+    }
+
+    void injectCollections(Object bean, Function<String, Object> refResolver,
+                           Function<Class<?>, Map<String, ?>> beansOfTypeResolver) {
+        for (CollectionInjection collectionInjection : collectionInjections) {
+            collectionInjection.inject(bean, refResolver, beansOfTypeResolver);
+        }
+    }
+
+    void invokeInitMethods(Object bean) {
+        for (MethodHandle initMethod : initMethods) {
+            invokeInitMethod(getId(), initMethod, bean);
+        }
+    }
+
+    /**
+     * Runs the {@link PostConstruct} methods of a bean that wasn't created from its recipe,
+     * a proxy for example, looking them up on its class.
+     */
+    static void invokeInitMethods(String beanId, Object bean) {
+        for (MethodHandle initMethod : findInitMethods(bean.getClass())) {
+            invokeInitMethod(beanId, initMethod, bean);
+        }
+    }
+
+    private static void invokeInitMethod(String beanId, MethodHandle initMethod, Object bean) {
+        try {
+            initMethod.invokeExact(bean);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ProcessPostConstructException("Init method of bean " + beanId + " failed", e);
+        }
+    }
+
+    private static Kind kindOf(BeanDefinition definition, Class<?> beanClass) {
+        if (BeanFactoryPostProcessor.class.isAssignableFrom(beanClass)) {
+            return Kind.FACTORY_PROCESSOR;
+        }
+        if (BeanPostProcessor.class.isAssignableFrom(beanClass)) {
+            return Kind.PROCESSOR;
+        }
+        if (Scope.class.isAssignableFrom(beanClass)) {
+            return Kind.SCOPE;
+        }
+        if (BeanDefinition.SCOPE_POOLED.equals(definition.getScope())) {
+            return Kind.POOLED;
+        }
+        return definition.isSingleton() ? Kind.SINGLETON : Kind.SCOPED;
+    }
+
+    private static MethodHandle findConstructor(Class<?> beanClass) {
+        try {
+            Constructor<?> constructor = beanClass.getDeclaredConstructor();
+            return MethodHandles.publicLookup().unreflectConstructor(constructor).asType(CONSTRUCTOR_TYPE);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new BeanInstantiationException("No public no-arg constructor in " + beanClass.getName(), e);
+        }
+    }
+
+    private static PropertySetter[] compileValueSetters(BeanDefinition definition, Class<?> beanClass) {
+        PropertyValues values = definition.getValueDependencies();
+        PropertySetter[] setters = new PropertySetter[values.size()];
+        for (int i = 0; i < values.size(); i++) {
+            String setterName = setterName(values.getName(i));
+            Method setter = findSetter(definition, beanClass, setterName);
+            try {
+                if (setter.getParameterTypes()[0] == int.class) {
+                    setters[i] = new PropertySetter(values.getName(i),
+                            unreflect(beanClass.getMethod(setterName, int.class)),
+                            Integer.parseInt(values.getValue(i)));
+                } else {
+                    setters[i] = new PropertySetter(values.getName(i),
+                            unreflect(beanClass.getMethod(setterName, String.class)), values.getValue(i));
+                }
+            } catch (NoSuchMethodException | NumberFormatException e) {
+                throw new BeanInstantiationException("Can't inject value of property " + values.getName(i) +
+                        " into bean " + definition.getId(), e);
+            }
+        }
+        return setters;
+    }
+
+    private static PropertySetter[] compileRefSetters(BeanDefinition definition, Class<?> beanClass) {
+        PropertyValues refs = definition.getRefDependencies();
+        PropertySetter[] setters = new PropertySetter[refs.size()];
+        for (int i = 0; i < refs.size(); i++) {
+            Method setter = findSetter(definition, beanClass, setterName(refs.getName(i)));
+            setters[i] = new PropertySetter(refs.getName(i), unreflect(setter), refs.getValue(i));
+        }
+        return setters;
+    }
+
+    private static CollectionInjection[] compileCollectionInjections(BeanDefinition definition, Class<?> beanClass) {
+        Map<String, CollectionValue> collections = definition.getCollectionDependencies();
+        CollectionInjection[] injections = new CollectionInjection[collections.size()];
+        int i = 0;
+        for (Map.Entry<String, CollectionValue> entry : collections.entrySet()) {
+            injections[i++] = CollectionInjection.compile(definition, entry.getKey(), entry.getValue(), beanClass);
+        }
+        return injections;
+    }
+
+    private static MethodHandle[] findInitMethods(Class<?> beanClass) {
+        List<MethodHandle> initMethods = new ArrayList<>();
+        for (Method method : beanClass.getDeclaredMethods()) {
+            if (method.getAnnotation(PostConstruct.class) != null) {
+                try {
+                    method.setAccessible(true);
+                    initMethods.add(MethodHandles.lookup().unreflect(method).asType(INIT_TYPE));
+                } catch (IllegalAccessException | RuntimeException e) {
+                    throw new ProcessPostConstructException("Access to private fields denied", e);
+                }
+            }
+        }
+        return initMethods.toArray(new MethodHandle[0]);
+    }
+
+    private static Method findSetter(BeanDefinition definition, Class<?> beanClass, String setterName) {
+        for (Method method : beanClass.getMethods()) {
+            if (method.getName().equals(setterName)) {
+                return method;
+            }
+        }
+        throw new BeanInstantiationException("No method " + setterName + " in bean " + definition.getId(), null);
+    }
+
+    private static MethodHandle unreflect(Method method) {
+        try {
+            return MethodHandles.publicLookup().unreflect(method).asType(SETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new BeanInstantiationException("Can't access " + method, e);
+        }
+    }
+
+    private static String setterName(String propertyName) {
+        return "set" + propertyName.substring(0, 1).toUpperCase() + propertyName.substring(1);
+    }
+
+    /**
+     * A setter adapted to {@code (Object, Object)void} with its value, already converted
+     * for value properties or the referenced bean name for refs.
+     */
+    record PropertySetter(String name, MethodHandle setter, Object value) {
+
+        void invoke(String beanId, Object bean, Object argument) {
+            try {
+                setter.invokeExact(bean, argument);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new BeanInstantiationException("Can't set property " + name + " of bean " + beanId, e);
+            }
+        }
+    }
+}
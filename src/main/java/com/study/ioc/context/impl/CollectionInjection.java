@@ -0,0 +1,310 @@
+package com.study.ioc.context.impl;
+
+import com.study.ioc.entity.BeanDefinition;
+import com.study.ioc.entity.CollectionValue;
+import com.study.ioc.exception.BeanInstantiationException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Injection of one collection property, compiled from its {@link CollectionValue}. The
+ * shape, size and element types are taken from the definition and the setter up front
+ * and literal values are converted once. A collection of literals only is built once
+ * and shared, being immutable; arrays are copied per bean, and primitive arrays are
+ * filled without boxing. Collections with references are built per bean at their exact
+ * size.
+ */
+final class CollectionInjection {
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final String beanId;
+    private final String propertyName;
+    private final MethodHandle setter;
+    private final CollectionValue.Kind kind;
+    private final Class<?> componentType;
+    private final Class<?> beansOfType;
+    private final Object[] keys;
+    private final Object[] values;
+    private final String[] refs;
+    private final Object precomputed;
+
+    private CollectionInjection(String beanId, String propertyName, MethodHandle setter, CollectionValue.Kind kind,
+                                Class<?> componentType, Class<?> beansOfType, Object[] keys, Object[] values,
+                                String[] refs, Object precomputed) {
+        this.beanId = beanId;
+        this.propertyName = propertyName;
+        this.setter = setter;
+        this.kind = kind;
+        this.componentType = componentType;
+        this.beansOfType = beansOfType;
+        this.keys = keys;
+        this.values = values;
+        this.refs = refs;
+        this.precomputed = precomputed;
+    }
+
+    static CollectionInjection compile(BeanDefinition definition, String propertyName, CollectionValue collection,
+                                       Class<?> beanClass) {
+        String beanId = definition.getId();
+        Method setter = findSetter(beanId, beanClass, propertyName);
+        Class<?> parameterType = setter.getParameterTypes()[0];
+        Type genericType = setter.getGenericParameterTypes()[0];
+        CollectionValue.Kind kind = collection.getKind();
+
+        Class<?> shape = switch (kind) {
+            case LIST -> List.class;
+            case SET -> Set.class;
+            case MAP -> Map.class;
+            case ARRAY -> parameterType.isArray() ? parameterType : null;
+        };
+        if (shape == null || !parameterType.isAssignableFrom(shape)) {
+            throw new BeanInstantiationException("Property " + propertyName + " of bean " + beanId + " of type " +
+                    parameterType.getName() + " can't take a " + kind.name().toLowerCase(), null);
+        }
+        Class<?> componentType = kind == CollectionValue.Kind.ARRAY
+                ? parameterType.getComponentType() : typeArgument(genericType, kind == CollectionValue.Kind.MAP ? 1 : 0);
+        if (collection.getElementType() != null && !collection.getElementType().equals(componentType.getName())) {
+            throw new BeanInstantiationException("Property " + propertyName + " of bean " + beanId + " has elements of " +
+                    componentType.getName() + ", not " + collection.getElementType(), null);
+        }
+
+        Class<?> beansOfType = null;
+        if (collection.isAutowired()) {
+            beansOfType = loadClass(beanId, collection.getBeansOfType(), beanClass.getClassLoader());
+            if (componentType.isPrimitive()) {
+                throw new BeanInstantiationException("Can't autowire beans into primitive array " + propertyName +
+                        " of bean " + beanId, null);
+            }
+            if (!componentType.isAssignableFrom(beansOfType)) {
+                throw new BeanInstantiationException("Can't autowire beans of type " + beansOfType.getName() +
+                        " into property " + propertyName + " of bean " + beanId + " with elements of " +
+                        componentType.getName(), null);
+            }
+        }
+
+        List<CollectionValue.Element> elements = collection.getElements();
+        int size = elements.size();
+        Object[] keys = kind == CollectionValue.Kind.MAP ? new Object[size] : null;
+        Object[] values = new Object[size];
+        String[] refs = new String[size];
+        boolean hasRefs = false;
+        Class<?> keyType = kind == CollectionValue.Kind.MAP ? typeArgument(genericType, 0) : null;
+        for (int i = 0; i < size; i++) {
+            CollectionValue.Element element = elements.get(i);
+            if (keys != null) {
+                keys[i] = convert(beanId, propertyName, element.key(), keyType);
+            }
+            if (element.isRef()) {
+                if (componentType.isPrimitive()) {
+                    throw new BeanInstantiationException("Can't put bean " + element.ref() + " into primitive array " +
+                            propertyName + " of bean " + beanId, null);
+                }
+                refs[i] = element.ref();
+                hasRefs = true;
+            } else if (!componentType.isPrimitive()) {
+                values[i] = convert(beanId, propertyName, element.value(), componentType);
+            }
+        }
+
+        Object precomputed = null;
+        if (beansOfType == null && !hasRefs) {
+            if (kind == CollectionValue.Kind.ARRAY && componentType.isPrimitive()) {
+                precomputed = primitiveArray(beanId, propertyName, componentType, elements);
+            } else {
+                precomputed = build(kind, componentType, keys, values);
+            }
+        }
+        return new CollectionInjection(beanId, propertyName, unreflect(setter), kind, componentType, beansOfType,
+                keys, values, refs, precomputed);
+    }
+
+    /**
+     * Builds the property value and passes it to the setter of {@code bean}.
+     */
+    void inject(Object bean, Function<String, Object> refResolver,
+                Function<Class<?>, Map<String, ?>> beansOfTypeResolver) {
+        Object value;
+        if (precomputed != null) {
+            value = kind == CollectionValue.Kind.ARRAY ? copyArray(precomputed) : precomputed;
+        } else if (beansOfType != null) {
+            value = buildBeansOfType(beansOfTypeResolver.apply(beansOfType));
+        } else {
+            Object[] resolved = values.clone();
+            for (int i = 0; i < refs.length; i++) {
+                if (refs[i] != null) {
+                    resolved[i] = refResolver.apply(refs[i]);
+                }
+            }
+            value = build(kind, componentType, keys, resolved);
+        }
+        try {
+            setter.invokeExact(bean, value);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new BeanInstantiationException("Can't set property " + propertyName + " of bean " + beanId, e);
+        }
+    }
+
+    private Object buildBeansOfType(Map<String, ?> beans) {
+        int size = beans.containsKey(beanId) ? beans.size() - 1 : beans.size();
+        Object[] names = new Object[size];
+        Object[] matches = new Object[size];
+        int i = 0;
+        for (Map.Entry<String, ?> entry : beans.entrySet()) {
+            if (!entry.getKey().equals(beanId)) {
+                names[i] = entry.getKey();
+                matches[i++] = entry.getValue();
+            }
+        }
+        return build(kind, componentType, names, matches);
+    }
+
+    private static Object build(CollectionValue.Kind kind, Class<?> componentType, Object[] keys, Object[] values) {
+        switch (kind) {
+            case LIST:
+                return Collections.unmodifiableList(Arrays.asList(values));
+            case SET:
+                Set<Object> set = new LinkedHashSet<>(capacity(values.length));
+                Collections.addAll(set, values);
+                return Collections.unmodifiableSet(set);
+            case MAP:
+                Map<Object, Object> map = new LinkedHashMap<>(capacity(values.length));
+                for (int i = 0; i < values.length; i++) {
+                    map.put(keys[i], values[i]);
+                }
+                return Collections.unmodifiableMap(map);
+            default:
+                Object array = Array.newInstance(componentType, values.length);
+                System.arraycopy(values, 0, array, 0, values.length);
+                return array;
+        }
+    }
+
+    private static Object primitiveArray(String beanId, String propertyName, Class<?> componentType,
+                                         List<CollectionValue.Element> elements) {
+        int size = elements.size();
+        try {
+            if (componentType == int.class) {
+                int[] array = new int[size];
+                for (int i = 0; i < size; i++) {
+                    array[i] = Integer.parseInt(elements.get(i).value().trim());
+                }
+                return array;
+            } else if (componentType == long.class) {
+                long[] array = new long[size];
+                for (int i = 0; i < size; i++) {
+                    array[i] = Long.parseLong(elements.get(i).value().trim());
+                }
+                return array;
+            } else if (componentType == double.class) {
+                double[] array = new double[size];
+                for (int i = 0; i < size; i++) {
+                    array[i] = Double.parseDouble(elements.get(i).value().trim());
+                }
+                return array;
+            } else if (componentType == boolean.class) {
+                boolean[] array = new boolean[size];
+                for (int i = 0; i < size; i++) {
+                    array[i] = Boolean.parseBoolean(elements.get(i).value().trim());
+                }
+                return array;
+            }
+        } catch (NumberFormatException e) {
+            throw new BeanInstantiationException("Invalid element in array " + propertyName + " of bean " + beanId, e);
+        }
+        throw new BeanInstantiationException("Unsupported array type " + componentType.getName() + "[] of property " +
+                propertyName + " of bean " + beanId, null);
+    }
+
+    private static Object copyArray(Object array) {
+        int length = Array.getLength(array);
+        Object copy = Array.newInstance(array.getClass().getComponentType(), length);
+        System.arraycopy(array, 0, copy, 0, length);
+        return copy;
+    }
+
+    private static Object convert(String beanId, String propertyName, String value, Class<?> type) {
+        try {
+            if (type == String.class || type == Object.class || type == CharSequence.class) {
+                return value;
+            }
+            if (type == Integer.class) {
+                return Integer.valueOf(value.trim());
+            }
+            if (type == Long.class) {
+                return Long.valueOf(value.trim());
+            }
+            if (type == Double.class) {
+                return Double.valueOf(value.trim());
+            }
+            if (type == Boolean.class) {
+                return Boolean.valueOf(value.trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new BeanInstantiationException("Invalid element in property " + propertyName + " of bean " + beanId, e);
+        }
+        throw new BeanInstantiationException("Can't convert value \"" + value + "\" of property " + propertyName +
+                " of bean " + beanId + " to " + type.getName(), null);
+    }
+
+    private static Class<?> typeArgument(Type genericType, int index) {
+        if (genericType instanceof ParameterizedType parameterizedType) {
+            Type[] arguments = parameterizedType.getActualTypeArguments();
+            if (index < arguments.length) {
+                Type argument = arguments[index];
+                if (argument instanceof Class<?> argumentClass) {
+                    return argumentClass;
+                }
+                if (argument instanceof ParameterizedType parameterizedArgument) {
+                    return (Class<?>) parameterizedArgument.getRawType();
+                }
+            }
+        }
+        return Object.class;
+    }
+
+    private static Method findSetter(String beanId, Class<?> beanClass, String propertyName) {
+        String setterName = "set" + propertyName.substring(0, 1).toUpperCase() + propertyName.substring(1);
+        for (Method method : beanClass.getMethods()) {
+            if (method.getName().equals(setterName) && method.getParameterCount() == 1) {
+                return method;
+            }
+        }
+        throw new BeanInstantiationException("No method " + setterName + " in bean " + beanId, null);
+    }
+
+    private static Class<?> loadClass(String beanId, String className, ClassLoader classLoader) {
+        try {
+            return Class.forName(className, false, classLoader);
+        } catch (ClassNotFoundException e) {
+            throw new BeanInstantiationException("No class " + className + " to autowire into bean " + beanId, e);
+        }
+    }
+
+    private static MethodHandle unreflect(Method method) {
+        try {
+            return MethodHandles.publicLookup().unreflect(method).asType(SETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new BeanInstantiationException("Can't access " + method, e);
+        }
+    }
+
+    private static int capacity(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+}
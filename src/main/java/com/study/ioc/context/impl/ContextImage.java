@@ -0,0 +1,296 @@
+package com.study.ioc.context.impl;
+
+import com.study.ioc.context.ApplicationContextAware;
+import com.study.ioc.entity.Bean;
+import com.study.ioc.exception.ParseContextException;
+import com.study.ioc.reader.ActiveProfiles;
+import com.study.ioc.reader.resource.Resource;
+import com.study.ioc.reader.resource.ResourceLoader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Opt-in snapshot of a built context for short-lived JVMs whose configuration doesn't
+ * change between runs. {@link #load()} restores the singletons from the image file when
+ * it was written for the same context XML and active profiles, skipping parsing,
+ * reflection, injection and init methods; otherwise it builds the context and writes
+ * a new image.
+ * <p>
+ * The singletons are serialized together, so refs between them survive, in the state
+ * they had after initialization. Only contexts made of {@link Serializable} singletons
+ * get an image: post processors, factory post processors, scoped and pooled beans and
+ * {@link ApplicationContextAware} beans depend on more than the XML, and a context with
+ * any of them is always built.
+ * <p>
+ * The image records the classes it serialized. Their bytecode is part of the header hash,
+ * so an image is rebuilt when a bean class changes, and reading is filtered: only the
+ * recorded classes and JDK value and collection types are deserialized, up to a nesting
+ * depth of {@value #MAX_DEPTH}, {@value #MAX_REFERENCES} object references,
+ * {@value #MAX_BYTES} bytes and arrays of {@value #MAX_ARRAY_LENGTH} elements. The depth
+ * bound also bounds the hashing work of nested hash sets and maps, which grows
+ * exponentially with their depth.
+ */
+public final class ContextImage {
+    private static final int MAGIC = 0x494F4349;
+    private static final short VERSION = 2;
+    private static final int HASH_LENGTH = 32;
+    private static final int MAX_RECORDED_CLASSES = 4096;
+    static final int MAX_DEPTH = 24;
+    static final int MAX_REFERENCES = 1 << 18;
+    static final int MAX_BYTES = 1 << 24;
+    static final int MAX_ARRAY_LENGTH = 1 << 20;
+    private static final Set<String> JDK_VALUE_PACKAGES = Set.of("java.lang", "java.math", "java.time", "java.util",
+            "java.util.concurrent", "java.util.concurrent.atomic");
+
+    private final Path file;
+    private final List<Resource> resources;
+
+    public ContextImage(Path file, String... paths) {
+        ResourceLoader resourceLoader = new ResourceLoader(getClass().getClassLoader());
+        this.file = file;
+        this.resources = Arrays.stream(paths).map(resourceLoader::getResource).toList();
+    }
+
+    public ContextImage(Path file, Resource... resources) {
+        this.file = file;
+        this.resources = List.of(resources);
+    }
+
+    public GenericApplicationContext load() throws InstantiationException, IllegalAccessException {
+        byte[] definitionHash = definitionHash();
+        if (Files.exists(file)) {
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                Set<String> classNames = readHeader(input, definitionHash);
+                if (classNames != null) {
+                    return new GenericApplicationContext(readSingletons(input, classNames));
+                }
+            } catch (IOException | ClassNotFoundException | ClassCastException e) {
+                // an unreadable image, changed or rejected bean classes, rebuild it
+            }
+        }
+
+        GenericApplicationContext context = new GenericApplicationContext(resources.toArray(new Resource[0]));
+        try {
+            if (isRestorable(context)) {
+                write(context, definitionHash);
+            } else {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return context;
+    }
+
+    /**
+     * @return whether the image file exists and was written for the current context XML,
+     * active profiles and bean classes
+     */
+    public boolean isUpToDate() {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return readHeader(input, definitionHash()) != null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return the classes recorded in the image, or {@code null} if it wasn't written for
+     * the given definitions or the recorded classes changed since
+     */
+    private static Set<String> readHeader(DataInputStream input, byte[] definitionHash) throws IOException {
+        if (input.readInt() != MAGIC || input.readShort() != VERSION) {
+            return null;
+        }
+        byte[] imageHash = new byte[HASH_LENGTH];
+        input.readFully(imageHash);
+        int count = input.readInt();
+        if (count < 0 || count > MAX_RECORDED_CLASSES) {
+            return null;
+        }
+        Set<String> classNames = new LinkedHashSet<>();
+        for (int i = 0; i < count; i++) {
+            classNames.add(input.readUTF());
+        }
+        return MessageDigest.isEqual(imageHash, hash(definitionHash, classNames)) ? classNames : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> readSingletons(InputStream input, Set<String> classNames)
+            throws IOException, ClassNotFoundException {
+        try (ObjectInputStream objectInput = new ObjectInputStream(new InflaterInputStream(input))) {
+            ObjectInputFilter filter = filter(classNames);
+            ObjectInputFilter current = objectInput.getObjectInputFilter();
+            objectInput.setObjectInputFilter(current == null ? filter : ObjectInputFilter.merge(filter, current));
+            return (Map<String, Object>) objectInput.readObject();
+        }
+    }
+
+    private static ObjectInputFilter filter(Set<String> classNames) {
+        return info -> {
+            if (info.depth() > MAX_DEPTH || info.references() > MAX_REFERENCES || info.streamBytes() > MAX_BYTES
+                    || info.arrayLength() > MAX_ARRAY_LENGTH) {
+                return ObjectInputFilter.Status.REJECTED;
+            }
+            Class<?> type = info.serialClass();
+            if (type == null) {
+                return ObjectInputFilter.Status.UNDECIDED;
+            }
+            while (type.isArray()) {
+                type = type.getComponentType();
+            }
+            return type.isPrimitive() || isJdkValueType(type) || classNames.contains(type.getName())
+                    ? ObjectInputFilter.Status.ALLOWED : ObjectInputFilter.Status.REJECTED;
+        };
+    }
+
+    private static boolean isJdkValueType(Class<?> type) {
+        return type.getClassLoader() == null && JDK_VALUE_PACKAGES.contains(type.getPackageName());
+    }
+
+    /**
+     * Serializes the singletons first to learn their classes, then writes a temporary file
+     * and moves it in place, so a concurrently starting JVM never reads a partial image.
+     */
+    private void write(GenericApplicationContext context, byte[] definitionHash) throws IOException {
+        Map<String, Object> singletons = new LinkedHashMap<>();
+        for (Map.Entry<String, Bean> entry : context.getBeans().entrySet()) {
+            singletons.put(entry.getKey(), entry.getValue().getValue());
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DeflaterOutputStream deflater = new DeflaterOutputStream(body);
+        RecordingObjectOutputStream objectOutput = new RecordingObjectOutputStream(deflater);
+        objectOutput.writeObject(singletons);
+        objectOutput.flush();
+        deflater.finish();
+        Set<String> classNames = objectOutput.classNames;
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                output.writeInt(MAGIC);
+                output.writeShort(VERSION);
+                output.write(hash(definitionHash, classNames));
+                output.writeInt(classNames.size());
+                for (String className : classNames) {
+                    output.writeUTF(className);
+                }
+                body.writeTo(output);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static boolean isRestorable(GenericApplicationContext context) {
+        if (!context.getServiceBeans().isEmpty() || !context.getServiceFactoryBeans().isEmpty()
+                || !context.getScopedBeans().isEmpty() || !context.getPools().isEmpty()) {
+            return false;
+        }
+        for (Bean bean : context.getBeans().values()) {
+            Object value = bean.getValue();
+            if (!(value instanceof Serializable) || value instanceof ApplicationContextAware) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hash of the context XML and the active profiles.
+     */
+    private byte[] definitionHash() {
+        MessageDigest digest = newDigest();
+        for (Resource resource : resources) {
+            try {
+                ByteBuffer content = resource.getByteBuffer();
+                digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(0, content.remaining()));
+                digest.update(content);
+            } catch (IOException e) {
+                throw new ParseContextException("Can't read " + resource.getDescription(), e);
+            }
+        }
+        digest.update(ActiveProfiles.fromSystemProperties().toString().getBytes(StandardCharsets.UTF_8));
+        return digest.digest();
+    }
+
+    /**
+     * Hash of the definitions and the names and current bytecode of the recorded classes.
+     */
+    private static byte[] hash(byte[] definitionHash, Set<String> classNames) throws IOException {
+        MessageDigest digest = newDigest();
+        digest.update(definitionHash);
+        ClassLoader classLoader = ContextImage.class.getClassLoader();
+        for (String className : classNames) {
+            digest.update(className.getBytes(StandardCharsets.UTF_8));
+            try (InputStream bytecode = classLoader.getResourceAsStream(className.replace('.', '/') + ".class")) {
+                byte[] content = bytecode == null ? new byte[0] : bytecode.readAllBytes();
+                digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(0, bytecode == null ? -1 : content.length));
+                digest.update(content);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Collects the classes other than JDK value and collection types whose descriptors
+     * are written, the element types of arrays included.
+     */
+    private static final class RecordingObjectOutputStream extends ObjectOutputStream {
+        private final Set<String> classNames = new LinkedHashSet<>();
+
+        RecordingObjectOutputStream(OutputStream output) throws IOException {
+            super(output);
+        }
+
+        @Override
+        protected void annotateClass(Class<?> type) {
+            while (type.isArray()) {
+                type = type.getComponentType();
+            }
+            if (!type.isPrimitive() && !isJdkValueType(type)) {
+                classNames.add(type.getName());
+            }
+        }
+    }
+}
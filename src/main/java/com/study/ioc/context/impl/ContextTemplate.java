@@ -0,0 +1,140 @@
+package com.study.ioc.context.impl;
+
+import com.study.ioc.diagnostics.StartupRecorder;
+import com.study.ioc.diagnostics.StartupStats;
+import com.study.ioc.entity.BeanDefinition;
+import com.study.ioc.placeholder.PropertyPlaceholderBeanFactoryPostProcessor;
+import com.study.ioc.processor.BeanFactoryPostProcessor;
+import com.study.ioc.reader.BeanDefinitionReader;
+import com.study.ioc.reader.resource.Resource;
+import com.study.ioc.reader.sax.XmlBeanDefinitionReader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The definition-level part of building a context, done once: reading the
+ * configuration, loading the bean classes, running the {@link BeanFactoryPostProcessor}s
+ * and compiling a {@link BeanRecipe} per bean. Every {@link #newContext()} then only
+ * creates and wires instances, so many identical contexts, for tests or per tenant, are
+ * cheap to create. Contexts made from one template are independent of each other;
+ * post processors and scopes are created per context as well.
+ */
+public final class ContextTemplate {
+    private final Map<String, BeanDefinition> beanDefinitions;
+    private final BeanClassResolver beanClassResolver = new BeanClassResolver();
+    private final List<BeanFactoryPostProcessor> factoryPostProcessors = new ArrayList<>();
+    private final List<BeanRecipe> recipes = new ArrayList<>();
+    private final StartupRecorder startupRecorder;
+
+    public ContextTemplate(String... paths) {
+        this(new XmlBeanDefinitionReader(paths));
+    }
+
+    public ContextTemplate(Resource... resources) {
+        this(new XmlBeanDefinitionReader(List.of(resources)));
+    }
+
+    public ContextTemplate(BeanDefinitionReader definitionReader) {
+        this(definitionReader, StartupRecorder.disabled());
+    }
+
+    /**
+     * Records the cost of reading and compiling the definitions, which every context made
+     * with a recorder adds to its own.
+     */
+    public ContextTemplate(BeanDefinitionReader definitionReader, StartupRecorder startupRecorder) {
+        this.startupRecorder = startupRecorder;
+        startupRecorder.begin();
+        beanDefinitions = definitionReader.getBeanDefinition();
+        startupRecorder.end(StartupRecorder.ContainerPhase.READ);
+
+        startupRecorder.begin();
+        beanClassResolver.resolveAll(beanDefinitions.values());
+
+        factoryPostProcessors.addAll(postProcessDefinitions(beanDefinitions, beanClassResolver));
+        for (BeanDefinition beanDefinition : beanDefinitions.values()) {
+            beanDefinition.freeze();
+        }
+
+        for (BeanDefinition beanDefinition : beanDefinitions.values()) {
+            BeanRecipe recipe = BeanRecipe.compile(beanDefinition, beanClassResolver.resolve(beanDefinition));
+            if (recipe.getKind() != BeanRecipe.Kind.FACTORY_PROCESSOR) {
+                recipes.add(recipe);
+            }
+        }
+        startupRecorder.end(StartupRecorder.ContainerPhase.COMPILE);
+    }
+
+    /**
+     * Creates and runs the factory post processors of the definitions: the placeholder
+     * processors first, then the others, each in the order of their definitions. The
+     * placeholders go first so that the other processors are created from resolved
+     * values and see resolved definitions.
+     *
+     * @return the factory post processors in the order they ran
+     */
+    static List<BeanFactoryPostProcessor> postProcessDefinitions(Map<String, BeanDefinition> beanDefinitions,
+                                                                 BeanClassResolver beanClassResolver) {
+        List<BeanFactoryPostProcessor> factoryPostProcessors = new ArrayList<>();
+        for (boolean placeholders : new boolean[]{true, false}) {
+            List<BeanFactoryPostProcessor> created = new ArrayList<>();
+            for (BeanDefinition beanDefinition : beanDefinitions.values()) {
+                Class<?> beanClass = beanClassResolver.resolve(beanDefinition);
+                if (BeanFactoryPostProcessor.class.isAssignableFrom(beanClass)
+                        && PropertyPlaceholderBeanFactoryPostProcessor.class.isAssignableFrom(beanClass) == placeholders) {
+                    BeanRecipe recipe = BeanRecipe.compile(beanDefinition, beanClass);
+                    Object factoryPostProcessor = recipe.instantiate();
+                    recipe.injectValues(factoryPostProcessor);
+                    created.add((BeanFactoryPostProcessor) factoryPostProcessor);
+                }
+            }
+            for (BeanFactoryPostProcessor factoryPostProcessor : created) {
+                factoryPostProcessor.postProcessorBeanFactory(beanDefinitions);
+            }
+            factoryPostProcessors.addAll(created);
+        }
+        return factoryPostProcessors;
+    }
+
+    public GenericApplicationContext newContext() {
+        return new GenericApplicationContext(this);
+    }
+
+    /**
+     * Creates a context that records its startup, see
+     * {@link GenericApplicationContext#getStartupStats()}.
+     */
+    public GenericApplicationContext newContext(StartupRecorder startupRecorder) {
+        return new GenericApplicationContext(this, startupRecorder);
+    }
+
+    /**
+     * The frozen definitions, shared by all contexts of the template.
+     */
+    public Map<String, BeanDefinition> getBeanDefinitions() {
+        return Collections.unmodifiableMap(beanDefinitions);
+    }
+
+    /**
+     * The cost of reading and compiling the definitions, added to the recorder of every
+     * context made from the template.
+     */
+    StartupStats getStartupStats() {
+        return startupRecorder.view();
+    }
+
+    BeanClassResolver getBeanClassResolver() {
+        return beanClassResolver;
+    }
+
+    List<BeanFactoryPostProcessor> getFactoryPostProcessors() {
+        return factoryPostProcessors;
+    }
+
+    List<BeanRecipe> getRecipes() {
+        return recipes;
+    }
+}
@@ -1,137 +1,496 @@
 package com.study.ioc.context.impl;
 
 import com.study.ioc.context.ApplicationContext;
+import com.study.ioc.context.ApplicationContextAware;
+import com.study.ioc.context.BeanHandle;
+import com.study.ioc.diagnostics.LookupTracker;
+import com.study.ioc.diagnostics.StartupRecorder;
+import com.study.ioc.diagnostics.StartupStats;
 import com.study.ioc.entity.Bean;
 import com.study.ioc.entity.BeanDefinition;
+import com.study.ioc.entity.ScopedBean;
+import com.study.ioc.event.ApplicationEvent;
+import com.study.ioc.event.ApplicationEventMulticaster;
+import com.study.ioc.event.ContextClosedEvent;
+import com.study.ioc.event.ContextRefreshedEvent;
 import com.study.ioc.exception.BeanInstantiationException;
 import com.study.ioc.exception.NoSuchBeanDefinitionException;
 import com.study.ioc.exception.NoUniqueBeanOfTypeException;
-import com.study.ioc.exception.ProcessPostConstructException;
+import com.study.ioc.pool.BeanPool;
+import com.study.ioc.pool.PoolConfig;
+import com.study.ioc.pool.PoolStats;
 import com.study.ioc.processor.BeanFactoryPostProcessor;
 import com.study.ioc.processor.BeanPostProcessor;
 import com.study.ioc.reader.BeanDefinitionReader;
+import com.study.ioc.reader.resource.Resource;
 import com.study.ioc.reader.sax.XmlBeanDefinitionReader;
-import lombok.AllArgsConstructor;
+import com.study.ioc.scope.CarrierScope;
+import com.study.ioc.scope.Scope;
+import com.study.ioc.scope.ThreadScope;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.SneakyThrows;
 
 import javax.annotation.PostConstruct;
-import java.lang.reflect.InvocationTargetException;
+import java.io.IOException;
 import java.lang.reflect.Method;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-@AllArgsConstructor
 @Setter
 @Getter
-public class GenericApplicationContext implements ApplicationContext {
+public class GenericApplicationContext implements ApplicationContext, AutoCloseable {
 
-    private Map<String, Bean> beans = new HashMap<>();
+    private Map<String, Bean> beans = new LinkedHashMap<>();
     private List<BeanFactoryPostProcessor> serviceFactoryBeans = new ArrayList<>();
-    private Map<String, Bean> serviceBeans = new HashMap<>();
+    private Map<String, Bean> serviceBeans = new LinkedHashMap<>();
+    @Setter(AccessLevel.NONE)
+    private Map<String, Scope> scopes = createDefaultScopes();
+    @Setter(AccessLevel.NONE)
+    private Map<String, ScopedBean> scopedBeans = new LinkedHashMap<>();
+    @Setter(AccessLevel.NONE)
+    private Map<String, BeanPool> pools = new LinkedHashMap<>();
+    @Setter(AccessLevel.NONE)
+    private Map<String, BeanDefinition> beanDefinitions = new HashMap<>();
+    @Setter(AccessLevel.NONE)
+    private BeanClassResolver beanClassResolver = new BeanClassResolver();
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private SingletonRegistry singletonRegistry = new SingletonRegistry();
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile boolean singletonRegistryStale = true;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile TypeIndex typeIndex = new TypeIndex();
+    @Setter(AccessLevel.NONE)
+    private ApplicationEventMulticaster eventMulticaster = new ApplicationEventMulticaster();
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private StartupRecorder startupRecorder = StartupRecorder.disabled();
+    private volatile LookupTracker lookupTracker;
 
     GenericApplicationContext() {
     }
 
+    public GenericApplicationContext(Map<String, Bean> beans, List<BeanFactoryPostProcessor> serviceFactoryBeans,
+                                     Map<String, Bean> serviceBeans) {
+        this.beans = beans;
+        this.serviceFactoryBeans = serviceFactoryBeans;
+        this.serviceBeans = serviceBeans;
+    }
+
     public GenericApplicationContext(String... paths) throws InstantiationException, IllegalAccessException {
         this(new XmlBeanDefinitionReader(paths));
     }
 
+    public GenericApplicationContext(Resource... resources) throws InstantiationException, IllegalAccessException {
+        this(new XmlBeanDefinitionReader(List.of(resources)));
+    }
+
     public GenericApplicationContext(BeanDefinitionReader definitionReader) throws InstantiationException, IllegalAccessException {
-        Map<String, BeanDefinition> beanDefinitions = definitionReader.getBeanDefinition();
+        this(new ContextTemplate(definitionReader));
+    }
+
+    /**
+     * Builds the context and records the cost of every startup phase, see
+     * {@link #getStartupStats()}.
+     */
+    public GenericApplicationContext(BeanDefinitionReader definitionReader, StartupRecorder startupRecorder) {
+        this(new ContextTemplate(definitionReader,
+                startupRecorder.isEnabled() ? new StartupRecorder() : StartupRecorder.disabled()), startupRecorder);
+    }
+
+    GenericApplicationContext(ContextTemplate template) {
+        this(template, StartupRecorder.disabled());
+    }
+
+    /**
+     * Creates and wires the beans of a compiled {@link ContextTemplate}, recording into
+     * the given recorder.
+     */
+    GenericApplicationContext(ContextTemplate template, StartupRecorder startupRecorder) {
+        this.startupRecorder = startupRecorder;
+        this.beanDefinitions = template.getBeanDefinitions();
+        this.beanClassResolver = template.getBeanClassResolver();
+        this.serviceFactoryBeans = new ArrayList<>(template.getFactoryPostProcessors());
+        startupRecorder.recordContainerPhases(template.getStartupStats());
+        List<BeanRecipe> singletonRecipes = new ArrayList<>();
+
+        for (BeanRecipe recipe : template.getRecipes()) {
+            startupRecorder.begin();
+            switch (recipe.getKind()) {
+                case PROCESSOR -> {
+                    Object postProcessor = recipe.instantiate();
+                    recipe.injectValues(postProcessor);
+                    serviceBeans.put(recipe.getId(), new Bean(recipe.getId(), postProcessor));
+                    startupRecorder.end(StartupRecorder.ContainerPhase.REFRESH);
+                }
+                case SCOPE -> {
+                    scopes.put(recipe.getId(), (Scope) recipe.instantiate());
+                    startupRecorder.end(StartupRecorder.ContainerPhase.REFRESH);
+                }
+                case SINGLETON -> {
+                    beans.put(recipe.getId(), new Bean(recipe.getId(), recipe.instantiate()));
+                    startupRecorder.end(recipe.getId(), StartupRecorder.Phase.CREATE);
+                    singletonRecipes.add(recipe);
+                }
+                default -> {
+                }
+            }
+        }
+        startupRecorder.begin();
+        for (BeanRecipe recipe : template.getRecipes()) {
+            if (recipe.getKind() == BeanRecipe.Kind.SCOPED) {
+                registerScopedBean(recipe);
+            } else if (recipe.getKind() == BeanRecipe.Kind.POOLED) {
+                registerPooledBean(recipe);
+            }
+        }
+        singletonRegistryStale = true;
+        startupRecorder.end(StartupRecorder.ContainerPhase.REFRESH);
+
+        for (BeanRecipe recipe : singletonRecipes) {
+            startupRecorder.begin();
+            recipe.injectValues(beans.get(recipe.getId()).getValue());
+            startupRecorder.end(recipe.getId(), StartupRecorder.Phase.INJECT);
+        }
+        for (BeanRecipe recipe : singletonRecipes) {
+            startupRecorder.begin();
+            Object bean = beans.get(recipe.getId()).getValue();
+            recipe.injectRefs(bean, refId -> getSingletonRef(recipe.getId(), refId, beans));
+            recipe.injectCollections(bean, refId -> getSingletonRef(recipe.getId(), refId, beans), this::getBeansOfType);
+            startupRecorder.end(recipe.getId(), StartupRecorder.Phase.INJECT);
+        }
+        startupRecorder.begin();
+        injectApplicationContext();
+        startupRecorder.end(StartupRecorder.ContainerPhase.REFRESH);
+        for (BeanRecipe recipe : singletonRecipes) {
+            startupRecorder.begin();
+            initializeBean(beans.get(recipe.getId()), recipe);
+            startupRecorder.end(recipe.getId(), StartupRecorder.Phase.INIT);
+        }
+        startupRecorder.begin();
+        prefillPools();
+        refreshSingletonRegistry();
+        registerListeners();
+        publishEvent(new ContextRefreshedEvent(this));
+        startupRecorder.end(StartupRecorder.ContainerPhase.REFRESH);
+    }
+
+    /**
+     * Registers singletons restored from a {@link ContextImage}. They are already
+     * injected and initialized.
+     */
+    GenericApplicationContext(Map<String, Object> singletons) {
+        singletons.forEach((name, value) -> beans.put(name, new Bean(name, value)));
+        refreshSingletonRegistry();
+        registerListeners();
+        publishEvent(new ContextRefreshedEvent(this));
+    }
+
+    public void setBeans(Map<String, Bean> beans) {
+        this.beans = beans;
+        refreshSingletonRegistry();
+    }
 
-        createAllServiceBeans(beanDefinitions);
-        processBeanDefinitions(beanDefinitions);
-        createBeans(beanDefinitions);
-        injectValueDependencies(beanDefinitions, beans);
-        injectRefDependencies(beanDefinitions, beans);
-        postProcessBeans();
+    /**
+     * What was recorded while this context was built, read-only. Empty unless the context
+     * was built with a {@link StartupRecorder}.
+     */
+    public StartupStats getStartupStats() {
+        return startupRecorder.view();
     }
 
     @Override
     public Object getBean(String beanId) {
-        return beans.get(beanId).getValue();
+        trackLookup(beanId);
+        Bean bean = beans.get(beanId);
+        if (bean != null) {
+            return bean.getValue();
+        }
+        ScopedBean scopedBean = scopedBeans.get(beanId);
+        if (scopedBean == null) {
+            checkNotPooled(beanId);
+            throw new NoSuchBeanDefinitionException(beanId);
+        }
+        return scopedBean.getValue();
     }
 
+    /**
+     * The singleton or scoped bean of the given type. Pooled beans are skipped, they can
+     * only be used through {@link #borrowBean}.
+     */
     @Override
     public <T> T getBean(Class<T> clazz) {
-        T beanValue = null;
-        for (Map.Entry<String, Bean> entry : beans.entrySet()) {
-            Bean bean = entry.getValue();
-            if (clazz.isAssignableFrom(bean.getValue().getClass())) {
-                if (beanValue != null) {
-                    throw new NoUniqueBeanOfTypeException("No unique bean of type :" + clazz.getName());
-                }
-                beanValue = clazz.cast(bean.getValue());
+        String beanName = null;
+        for (String name : getBeanNamesForType(clazz)) {
+            if (pools.containsKey(name)) {
+                continue;
+            }
+            if (beanName != null) {
+                throw new NoUniqueBeanOfTypeException("No unique bean of type :" + clazz.getName());
             }
+            beanName = name;
         }
-        return beanValue;
+        return beanName == null ? null : clazz.cast(getBean(beanName));
     }
 
     @Override
     public <T> T getBean(String id, Class<T> clazz) {
-        for (Map.Entry<String, Bean> entry : beans.entrySet()) {
-            if (id.equals(entry.getKey())) {
-                Object value = entry.getValue().getValue();
-                if (!clazz.isAssignableFrom(value.getClass())) {
-                    throw new NoSuchBeanDefinitionException(id, clazz.getName(), value.getClass().getName());
-                }
-                return clazz.cast(value);
+        trackLookup(id);
+        Bean bean = beans.get(id);
+        if (bean != null) {
+            Object value = bean.getValue();
+            if (!clazz.isAssignableFrom(value.getClass())) {
+                throw new NoSuchBeanDefinitionException(id, clazz.getName(), value.getClass().getName());
+            }
+            return clazz.cast(value);
+        }
+        ScopedBean scopedBean = scopedBeans.get(id);
+        if (scopedBean != null) {
+            if (!clazz.isAssignableFrom(scopedBean.getBeanClass())) {
+                throw new NoSuchBeanDefinitionException(id, clazz.getName(), scopedBean.getBeanClass().getName());
             }
+            return clazz.cast(scopedBean.getValue());
         }
+        checkNotPooled(id);
         return null;
     }
 
+    /**
+     * Names of the singleton, scoped and pooled beans, each group in registration order,
+     * which is the order of the definitions in the context XML.
+     */
     @Override
     public List<String> getBeanNames() {
-        return beans.keySet().stream().toList();
+        TypeIndex index = currentTypeIndex();
+        List<String> beanNames = index.beanNames;
+        if (beanNames == null) {
+            List<String> names = new ArrayList<>(getSingletonNames(Object.class));
+            names.addAll(scopedBeans.keySet());
+            names.addAll(pools.keySet());
+            beanNames = List.copyOf(names);
+            index.beanNames = beanNames;
+        }
+        return beanNames;
+    }
+
+    /**
+     * Names of the singleton, scoped and pooled beans assignable to the given type, in
+     * the order of {@link #getBeanNames()}. Pooled beans are included like there, they
+     * can only be used through {@link #borrowBean}. The result is computed once per type
+     * and cached until the set of beans changes.
+     */
+    @Override
+    public <T> List<String> getBeanNamesForType(Class<T> clazz) {
+        TypeIndex index = currentTypeIndex();
+        List<String> names = index.beanNamesByType.get(clazz);
+        if (names == null) {
+            List<String> typeNames = new ArrayList<>(getSingletonNames(clazz));
+            for (ScopedBean scopedBean : scopedBeans.values()) {
+                if (clazz.isAssignableFrom(scopedBean.getBeanClass())) {
+                    typeNames.add(scopedBean.getId());
+                }
+            }
+            for (Map.Entry<String, BeanPool> pool : pools.entrySet()) {
+                if (clazz.isAssignableFrom(pool.getValue().getBeanClass())) {
+                    typeNames.add(pool.getKey());
+                }
+            }
+            names = List.copyOf(typeNames);
+            List<String> previous = index.beanNamesByType.putIfAbsent(clazz, names);
+            if (previous != null) {
+                names = previous;
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Singleton beans assignable to the given type, keyed by name in registration order.
+     * Scoped and pooled beans are not included, their instances depend on the active
+     * scope or borrower.
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> Map<String, T> getBeansOfType(Class<T> clazz) {
+        TypeIndex index = currentTypeIndex();
+        Map<String, T> beansOfType = (Map<String, T>) index.beansByType.get(clazz);
+        if (beansOfType == null) {
+            List<String> singletonNames = getSingletonNames(clazz);
+            Map<String, T> typeBeans = new LinkedHashMap<>((int) (singletonNames.size() / 0.75f) + 1);
+            for (String name : singletonNames) {
+                typeBeans.put(name, clazz.cast(singletonRegistry.get(singletonRegistry.slotOf(name))));
+            }
+            beansOfType = Collections.unmodifiableMap(typeBeans);
+            Map<String, T> previous = (Map<String, T>) index.beansByType.putIfAbsent(clazz, beansOfType);
+            if (previous != null) {
+                beansOfType = previous;
+            }
+        }
+        LookupTracker tracker = lookupTracker;
+        if (tracker != null) {
+            beansOfType.keySet().forEach(tracker::record);
+        }
+        return beansOfType;
+    }
+
+    @Override
+    public <T> BeanHandle<T> handle(String id, Class<T> clazz) {
+        trackLookup(id);
+        if (singletonRegistryStale) {
+            refreshSingletonRegistry();
+        }
+        int slot = singletonRegistry.slotOf(id);
+        if (slot >= 0 && beans.containsKey(id)) {
+            return new SingletonRegistry.SlotBeanHandle<>(singletonRegistry, slot, id, clazz);
+        }
+        ScopedBean scopedBean = scopedBeans.get(id);
+        if (scopedBean != null) {
+            if (!clazz.isAssignableFrom(scopedBean.getBeanClass())) {
+                throw new NoSuchBeanDefinitionException(id, clazz.getName(), scopedBean.getBeanClass().getName());
+            }
+            return new ScopedBeanHandle<>(scopedBean);
+        }
+        checkNotPooled(id);
+        throw new NoSuchBeanDefinitionException(id);
+    }
+
+    @Override
+    public <T> T borrowBean(String id, Class<T> clazz) {
+        Object value = getPool(id).borrow();
+        if (!clazz.isInstance(value)) {
+            returnBean(id, value);
+            throw new NoSuchBeanDefinitionException(id, clazz.getName(), value.getClass().getName());
+        }
+        return clazz.cast(value);
+    }
+
+    @Override
+    public void returnBean(String id, Object bean) {
+        getPool(id).release(bean);
+    }
+
+    @Override
+    public void publishEvent(ApplicationEvent event) {
+        eventMulticaster.publishEvent(event);
+    }
+
+    public PoolStats getPoolStats(String id) {
+        return getPool(id).getStats();
+    }
+
+    /**
+     * Writes the classes of all beans as a class list for building a CDS archive,
+     * see {@link BeanClassResolver#writeClassList}.
+     */
+    public void writeClassList(Path classList) throws IOException {
+        beanClassResolver.writeClassList(beanDefinitions.values(), classList);
+    }
+
+    public Scope getScope(String scopeName) {
+        return scopes.get(scopeName);
+    }
+
+    /**
+     * Publishes a {@link ContextClosedEvent}, delivers the pending async events and closes
+     * the singleton beans and post processors that implement {@link AutoCloseable}, for
+     * example executors. A failing bean doesn't stop the others from being closed.
+     */
+    @Override
+    public void close() {
+        publishEvent(new ContextClosedEvent(this));
+        eventMulticaster.close();
+        scopes.values().forEach(Scope::close);
+        List<Bean> closeableBeans = new ArrayList<>(beans.values());
+        closeableBeans.addAll(serviceBeans.values());
+        for (Bean bean : closeableBeans) {
+            if (bean.getValue() instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    public void injectApplicationContext() {
+        for (Bean serviceBean : serviceBeans.values()) {
+            injectApplicationContext(serviceBean.getValue());
+        }
+        for (Bean bean : beans.values()) {
+            injectApplicationContext(bean.getValue());
+        }
     }
 
+    /**
+     * Creates the singletons of the definitions and registers the scoped and pooled
+     * beans, like a context constructor does; processors and scopes are left to
+     * {@link #createAllServiceBeans}.
+     *
+     * @deprecated build contexts with the constructors or a {@link ContextTemplate}
+     */
+    @Deprecated
     public Map<String, Bean> createBeans(Map<String, BeanDefinition> beanDefinitionMap) throws InstantiationException, IllegalAccessException {
-        try {
-            for (Map.Entry<String, BeanDefinition> entry : beanDefinitionMap.entrySet()) {
-                Object object = Class.forName(entry.getValue().getClassName()).getDeclaredConstructor().newInstance();
-
-                if (!(BeanFactoryPostProcessor.class).isAssignableFrom(object.getClass()) &&
-                        !(BeanPostProcessor.class).isAssignableFrom(object.getClass())) {
-                    Bean newBean = new Bean(entry.getValue().getId(), object);
-                    beans.put(entry.getKey(), newBean);
+        for (BeanDefinition beanDefinition : beanDefinitionMap.values()) {
+            BeanRecipe recipe = compileRecipe(beanDefinition);
+            switch (recipe.getKind()) {
+                case POOLED -> registerPooledBean(recipe);
+                case SCOPED -> registerScopedBean(recipe);
+                case SINGLETON -> {
+                    beans.put(recipe.getId(), new Bean(recipe.getId(), recipe.instantiate()));
+                    singletonRegistryStale = true;
+                }
+                default -> {
                 }
             }
-        } catch (ClassNotFoundException e) {
-            throw new BeanInstantiationException("BeanInstantiation failed", e);
-        } catch (NoSuchMethodException | InvocationTargetException e) {
-            e.printStackTrace();
         }
+        invalidateTypeIndex();
         return beans;
     }
 
+    /**
+     * Injects the value properties of the definitions into the singletons of this
+     * context.
+     *
+     * @deprecated build contexts with the constructors or a {@link ContextTemplate}
+     */
+    @Deprecated
     public void injectValueDependencies(Map<String, BeanDefinition> beanDefinitions, Map<String, Bean> beans) {
         for (Map.Entry<String, BeanDefinition> entry : beanDefinitions.entrySet()) {
-            String key = entry.getKey();
-            Bean bean = getBeans().get(key);
-            Map<String, String> valueDependencies = entry.getValue().getValueDependencies();
-
-            for (Map.Entry<String, String> entrySet : valueDependencies.entrySet()) {
-                clarifyMethodAndInjectValue(bean, entrySet.getKey(), entrySet.getValue());
+            Bean bean = getBeans().get(entry.getKey());
+            if (bean != null) {
+                compileRecipe(entry.getValue()).injectValues(bean.getValue());
             }
         }
     }
 
+    /**
+     * Injects the refs and collections of the definitions into the given singletons.
+     *
+     * @deprecated build contexts with the constructors or a {@link ContextTemplate}
+     */
+    @Deprecated
     public void injectRefDependencies(Map<String, BeanDefinition> beanDefinitions, Map<String, Bean> beans) {
         for (Map.Entry<String, BeanDefinition> entry : beanDefinitions.entrySet()) {
             String key = entry.getKey();
             Bean bean = beans.get(key);
-            Map<String, String> refDependencies = entry.getValue().getRefDependencies();
-
-            if (refDependencies.size() != 0) {
-                refDependencies.forEach((fieldName, beanObject)
-                        -> clarifyMethodAndInjectRefDependencies(bean, fieldName, beans.get(beanObject).getValue()));
+            if (bean == null) {
+                continue;
             }
+            BeanRecipe recipe = compileRecipe(entry.getValue());
+            recipe.injectRefs(bean.getValue(), refId -> getSingletonRef(key, refId, beans));
+            recipe.injectCollections(bean.getValue(), refId -> getSingletonRef(key, refId, beans), this::getBeansOfType);
         }
     }
 
@@ -152,25 +511,45 @@ public class GenericApplicationContext implements ApplicationContext {
         classMethod.invoke(object, propertyValue);
     }
 
+    /**
+     * Runs the factory post processors over the definitions and freezes them. The
+     * processors are created again from the definitions, like a {@link ContextTemplate}
+     * does: the placeholder processors first, so the others get resolved values.
+     *
+     * @deprecated build contexts with the constructors or a {@link ContextTemplate}
+     */
+    @Deprecated
     public void processBeanDefinitions(Map<String, BeanDefinition> beanDefinitions) {
-        List<BeanDefinition> beanDefinitionList = new ArrayList<>();
-        for (Map.Entry<String, BeanDefinition> entry : beanDefinitions.entrySet()) {
-            beanDefinitionList.add(entry.getValue());
-        }
-
-        for (BeanFactoryPostProcessor serviceFactoryBean : serviceFactoryBeans) {
-            serviceFactoryBean.postProcessorBeanFactory(beanDefinitions);
+        serviceFactoryBeans = new ArrayList<>(ContextTemplate.postProcessDefinitions(beanDefinitions, beanClassResolver));
+        for (BeanDefinition beanDefinition : beanDefinitions.values()) {
+            beanDefinition.freeze();
         }
     }
 
-    @SneakyThrows
+    /**
+     * Creates the factory post processors, post processors and scopes of the definitions.
+     *
+     * @deprecated build contexts with the constructors or a {@link ContextTemplate}
+     */
+    @Deprecated
     public void createAllServiceBeans(Map<String, BeanDefinition> beanDefinitions) {
-        for (Map.Entry<String, BeanDefinition> entry : beanDefinitions.entrySet()) {
-            BeanDefinition entryValue = entry.getValue();
-            Class<?> clazz = Class.forName(entryValue.getClassName());
-
-            createFactoryPostProcessBeans(clazz);
-            createPostProcessBeans(clazz, entry);
+        for (BeanDefinition beanDefinition : beanDefinitions.values()) {
+            BeanRecipe recipe = compileRecipe(beanDefinition);
+            switch (recipe.getKind()) {
+                case FACTORY_PROCESSOR -> {
+                    Object factoryPostProcessor = recipe.instantiate();
+                    recipe.injectValues(factoryPostProcessor);
+                    serviceFactoryBeans.add((BeanFactoryPostProcessor) factoryPostProcessor);
+                }
+                case PROCESSOR -> {
+                    Object postProcessor = recipe.instantiate();
+                    recipe.injectValues(postProcessor);
+                    serviceBeans.put(recipe.getId(), new Bean(recipe.getId(), postProcessor));
+                }
+                case SCOPE -> scopes.put(recipe.getId(), (Scope) recipe.instantiate());
+                default -> {
+                }
+            }
         }
     }
 
@@ -178,104 +557,200 @@ public class GenericApplicationContext implements ApplicationContext {
         Object objectAfterProcess = objectPostProcessor.postProcessAfterInitialization(bean, bean.getId());
         bean.setValue(objectAfterProcess);
         beans.put(bean.getId(), bean);
+        singletonRegistry.update(bean.getId(), objectAfterProcess);
+        invalidateTypeIndex();
     }
 
     public void callPostProcessBeforeInitialization(Bean bean, BeanPostProcessor objectPostProcessor) {
         Object objectBeforeProcess = objectPostProcessor.postProcessBeforeInitialization(bean, bean.getId());
         bean.setValue(objectBeforeProcess);
         beans.put(bean.getId(), bean);
+        singletonRegistry.update(bean.getId(), objectBeforeProcess);
+        invalidateTypeIndex();
     }
 
-    @SneakyThrows
+    /**
+     * @deprecated build contexts with the constructors or a {@link ContextTemplate}
+     */
+    @Deprecated
     public void callInitMethods() {
+        for (Bean bean : beans.values()) {
+            BeanRecipe.invokeInitMethods(bean.getId(), bean.getValue());
+        }
+    }
 
-        for (Map.Entry<String, Bean> entry : beans.entrySet()) {
-            Bean bean = entry.getValue();
-            Class<?> clazz = bean.getValue().getClass();
+    private BeanRecipe compileRecipe(BeanDefinition beanDefinition) {
+        return BeanRecipe.compile(beanDefinition, beanClassResolver.resolve(beanDefinition));
+    }
 
-            Method[] allMethods = clazz.getDeclaredMethods();
-            List<Method> annotatedMethods = Arrays.stream(allMethods)
-                    .filter(method -> method.getAnnotation(PostConstruct.class) != null)
-                    .toList();
+    private void registerScopedBean(BeanRecipe recipe) {
+        BeanDefinition beanDefinition = recipe.getDefinition();
+        Scope scope = scopes.get(beanDefinition.getScope());
+        if (scope == null) {
+            throw new BeanInstantiationException("No scope " + beanDefinition.getScope() +
+                    " registered for bean " + beanDefinition.getId(), null);
+        }
+        ScopedBean scopedBean = new ScopedBean(beanDefinition.getId(), scopedBeans.size(), scope, recipe.getBeanClass(),
+                () -> createScopedInstance(recipe));
+        scopedBeans.put(beanDefinition.getId(), scopedBean);
+    }
 
-            for (Method method : annotatedMethods) {
-                try {
-                    method.setAccessible(true);
-                    method.invoke(bean.getValue());
-                } catch (IllegalAccessException e) {
-                    throw new ProcessPostConstructException("Access to private fields denied", e);
-                }
-            }
+    private void registerPooledBean(BeanRecipe recipe) {
+        BeanDefinition beanDefinition = recipe.getDefinition();
+        PoolConfig poolConfig = PoolConfig.from(beanDefinition.getId(), beanDefinition.getAttributes());
+        pools.put(beanDefinition.getId(),
+                new BeanPool(beanDefinition.getId(), recipe.getBeanClass(), () -> createScopedInstance(recipe), poolConfig));
+    }
+
+    private void prefillPools() {
+        for (BeanPool pool : pools.values()) {
+            pool.prefill();
         }
     }
 
-    @SneakyThrows
-    private void createPostProcessBeans(Class<?> clazz, Map.Entry<String, BeanDefinition> entry) {
-        if ((BeanPostProcessor.class).isAssignableFrom(clazz)) {
-            BeanDefinition entryValue = entry.getValue();
-            BeanPostProcessor newPostProcessor =
-                    (BeanPostProcessor) Class.forName(clazz.getName()).getConstructor().newInstance();
-            Bean newBean = new Bean(entryValue.getId(), newPostProcessor);
-            serviceBeans.put(entry.getKey(), newBean);
+    private BeanPool getPool(String id) {
+        BeanPool pool = pools.get(id);
+        if (pool == null) {
+            throw new NoSuchBeanDefinitionException(id);
         }
+        return pool;
     }
 
-    @SneakyThrows
-    private void clarifyMethodAndInjectValue(Bean bean, String keyValue, String value) {
-        try {
-            Method[] methods = bean.getValue().getClass().getMethods();
-
-            String methodName = "set" + keyValue.substring(0, 1).toUpperCase() + keyValue.substring(1);
-            Method methodClass = Arrays.stream(methods)
-                    .filter(method -> method.getName().equals(methodName))
-                    .findFirst().orElseThrow(Exception::new);
-            Class<?>[] parameterTypes = methodClass.getParameterTypes();
-            String methodClassName = parameterTypes[0].getName();
-
-            if (methodClassName.equals("int")) {
-                Method neededMethod = bean.getValue().getClass().getMethod(methodName, Integer.TYPE);
-                injectValue(bean.getValue(), neededMethod, value);
-                return;
+    private void checkNotPooled(String id) {
+        if (pools.containsKey(id)) {
+            throw new IllegalStateException("Bean " + id + " is pooled, use borrowBean and returnBean");
+        }
+    }
+
+    private Object createScopedInstance(BeanRecipe recipe) {
+        Bean bean = new Bean(recipe.getId(), recipe.instantiate());
+        recipe.injectValues(bean.getValue());
+        recipe.injectRefs(bean.getValue(), this::getBean);
+        recipe.injectCollections(bean.getValue(), this::getBean, this::getBeansOfType);
+        injectApplicationContext(bean.getValue());
+
+        for (Bean serviceBean : serviceBeans.values()) {
+            BeanPostProcessor objectPostProcessor = (BeanPostProcessor) serviceBean.getValue();
+            bean.setValue(objectPostProcessor.postProcessBeforeInitialization(bean, bean.getId()));
+        }
+        invokeInitMethods(bean.getValue(), recipe);
+        for (Bean serviceBean : serviceBeans.values()) {
+            BeanPostProcessor objectPostProcessor = (BeanPostProcessor) serviceBean.getValue();
+            bean.setValue(objectPostProcessor.postProcessAfterInitialization(bean, bean.getId()));
+        }
+        return bean.getValue();
+    }
+
+    /**
+     * Runs the post processors and init methods of a singleton: every processor's
+     * before-initialization callback, the {@link PostConstruct} methods once, then every
+     * after-initialization callback.
+     */
+    private void initializeBean(Bean bean, BeanRecipe recipe) {
+        for (Bean serviceBean : serviceBeans.values()) {
+            callPostProcessBeforeInitialization(bean, (BeanPostProcessor) serviceBean.getValue());
+        }
+        invokeInitMethods(bean.getValue(), recipe);
+        for (Bean serviceBean : serviceBeans.values()) {
+            callPostProcessAfterInitialization(bean, (BeanPostProcessor) serviceBean.getValue());
+        }
+    }
+
+    private void invokeInitMethods(Object object, BeanRecipe recipe) {
+        if (object.getClass() == recipe.getBeanClass()) {
+            recipe.invokeInitMethods(object);
+        } else {
+            BeanRecipe.invokeInitMethods(recipe.getId(), object);
+        }
+    }
+
+    private void registerListeners() {
+        for (Bean bean : beans.values()) {
+            eventMulticaster.addListenerBean(bean.getId(), bean.getValue());
+        }
+    }
+
+    private void injectApplicationContext(Object object) {
+        if (object instanceof ApplicationContextAware applicationContextAware) {
+            applicationContextAware.setApplicationContext(this);
+        }
+    }
+
+    private Object getSingletonRef(String beanId, String refId, Map<String, Bean> beans) {
+        Bean refBean = beans.get(refId);
+        if (refBean == null) {
+            if (scopedBeans.containsKey(refId) || pools.containsKey(refId)) {
+                throw new BeanInstantiationException("Singleton bean " + beanId + " can't reference scoped bean " +
+                        refId + ", look it up from the context instead", null);
             }
-            Method neededMethod = bean.getValue().getClass().getMethod(methodName, String.class);
-            injectValue(bean.getValue(), neededMethod, String.valueOf(value));
-        } catch (InvocationTargetException e) {
-            e.getCause().printStackTrace();
+            throw new NoSuchBeanDefinitionException(refId);
         }
+        return refBean.getValue();
     }
 
-    @SneakyThrows
-    private void createFactoryPostProcessBeans(Class<?> clazz) {
-        if ((BeanFactoryPostProcessor.class).isAssignableFrom(clazz)) {
-            BeanFactoryPostProcessor newFactoryPostProcessor =
-                    (BeanFactoryPostProcessor) Class.forName(clazz.getName()).getDeclaredConstructor().newInstance();
-            serviceFactoryBeans.add(newFactoryPostProcessor);
+    private void trackLookup(String id) {
+        LookupTracker tracker = lookupTracker;
+        if (tracker != null) {
+            tracker.record(id);
         }
     }
 
-    @SneakyThrows
-    private void clarifyMethodAndInjectRefDependencies(Bean bean, String fieldName, Object value) {
-        Method[] methods = bean.getValue().getClass().getMethods();
-        String methodName = "set" + fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1);
-        Method methodClass = Arrays.stream(methods)
-                .filter(method -> method.getName().equals(methodName))
-                .findFirst().orElseThrow(Exception::new);
-        methodClass.invoke(bean.getValue(), value);
-    }
-
-    private void postProcessBeans() {
-        for (Map.Entry<String, Bean> serviceEntry : serviceBeans.entrySet()) {
-            Bean serviceBean = serviceEntry.getValue();
-            BeanPostProcessor objectPostProcessor = (BeanPostProcessor) serviceBean.getValue();
+    private void refreshSingletonRegistry() {
+        singletonRegistry.refresh(beans);
+        singletonRegistryStale = false;
+        invalidateTypeIndex();
+    }
 
-            for (Map.Entry<String, Bean> beanEntry : beans.entrySet()) {
-                Bean bean = beanEntry.getValue();
+    /**
+     * Refreshes a stale registry first, so the index read afterwards isn't swapped
+     * out by the refresh while results are computed for it.
+     */
+    private TypeIndex currentTypeIndex() {
+        if (singletonRegistryStale) {
+            refreshSingletonRegistry();
+        }
+        return typeIndex;
+    }
 
-                callPostProcessBeforeInitialization(bean, objectPostProcessor);
-                callInitMethods();
-                callPostProcessAfterInitialization(bean, objectPostProcessor);
+    private List<String> getSingletonNames(Class<?> clazz) {
+        if (singletonRegistryStale) {
+            refreshSingletonRegistry();
+        }
+        List<String> names = new ArrayList<>();
+        for (int slot = 0; slot < singletonRegistry.size(); slot++) {
+            Object value = singletonRegistry.get(slot);
+            if (value != null && clazz.isInstance(value)) {
+                names.add(singletonRegistry.getName(slot));
             }
         }
+        return names;
+    }
+
+    /**
+     * Swaps in an empty index instead of clearing the current one, so a result computed
+     * from the old set of beans can only be cached in the index that is thrown away.
+     */
+    private void invalidateTypeIndex() {
+        typeIndex = new TypeIndex();
+    }
+
+    private static Map<String, Scope> createDefaultScopes() {
+        Map<String, Scope> scopes = new HashMap<>();
+        scopes.put("thread", new ThreadScope());
+        scopes.put("request", new CarrierScope("request"));
+        scopes.put("session", new CarrierScope("session"));
+        return scopes;
     }
 
-}
\ No newline at end of file
+
+
+
+    /**
+     * Name and type lookups cached for one set of beans.
+     */
+    private static final class TypeIndex {
+        private final Map<Class<?>, List<String>> beanNamesByType = new ConcurrentHashMap<>();
+        private final Map<Class<?>, Map<String, ?>> beansByType = new ConcurrentHashMap<>();
+        private volatile List<String> beanNames;
+    }
+}
@@ -0,0 +1,23 @@
+package com.study.ioc.context.impl;
+
+import com.study.ioc.context.BeanHandle;
+import com.study.ioc.entity.ScopedBean;
+
+class ScopedBeanHandle<T> implements BeanHandle<T> {
+    private final ScopedBean scopedBean;
+
+    ScopedBeanHandle(ScopedBean scopedBean) {
+        this.scopedBean = scopedBean;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T get() {
+        return (T) scopedBean.getValue();
+    }
+
+    @Override
+    public String getName() {
+        return scopedBean.getId();
+    }
+}
@@ -0,0 +1,145 @@
+package com.study.ioc.context.impl;
+
+import com.study.ioc.context.BeanHandle;
+import com.study.ioc.entity.Bean;
+import com.study.ioc.exception.NoSuchBeanDefinitionException;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Array-backed view of the singleton beans. Every bean name keeps the slot it got
+ * first, so handles stay valid when a bean is replaced by a post processor or the
+ * registry is refreshed. Slot order is registration order.
+ * <p>
+ * Writers are serialized; readers take no lock. A slot is read and written through an
+ * {@link AtomicReferenceArray} behind a volatile reference, so a handle that is
+ * used on another thread sees a fully published bean, also across a grow. Every write
+ * bumps a generation counter after changing the slot, so handles only look at their
+ * slot again when something changed.
+ */
+class SingletonRegistry {
+    private final Map<String, Integer> slotIndex = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[16];
+    private volatile AtomicReferenceArray<Object> slots = new AtomicReferenceArray<>(16);
+    private volatile int size;
+    private volatile int generation;
+
+    int size() {
+        return size;
+    }
+
+    String getName(int slot) {
+        return names[slot];
+    }
+
+    Object get(int slot) {
+        return slots.get(slot);
+    }
+
+    int generation() {
+        return generation;
+    }
+
+    int slotOf(String name) {
+        Integer slot = slotIndex.get(name);
+        return slot == null ? -1 : slot;
+    }
+
+    synchronized void refresh(Map<String, Bean> beans) {
+        for (int i = 0; i < size; i++) {
+            if (!beans.containsKey(names[i]) && slots.get(i) != null) {
+                slots.set(i, null);
+                generation++;
+            }
+        }
+        for (Map.Entry<String, Bean> entry : beans.entrySet()) {
+            update(entry.getKey(), entry.getValue().getValue());
+        }
+    }
+
+    synchronized void update(String name, Object value) {
+        Integer slot = slotIndex.get(name);
+        if (slot != null) {
+            if (slots.get(slot) != value) {
+                slots.set(slot, value);
+                generation++;
+            }
+            return;
+        }
+        slot = size;
+        AtomicReferenceArray<Object> slots = this.slots;
+        if (slot == slots.length()) {
+            AtomicReferenceArray<Object> grown = new AtomicReferenceArray<>(slot * 2);
+            for (int i = 0; i < slot; i++) {
+                grown.set(i, slots.get(i));
+            }
+            names = Arrays.copyOf(names, slot * 2);
+            this.slots = slots = grown;
+        }
+        names[slot] = name;
+        slots.set(slot, value);
+        slotIndex.put(name, slot);
+        size = slot + 1;
+        generation++;
+    }
+
+    /**
+     * Handle that keeps the bean it last type-checked together with the registry
+     * generation it was read at. {@link #get()} returns it as long as the generation is
+     * unchanged; after a post processor or a refresh wrote to the registry it reads the
+     * slot again, checks the type and fails if the bean was removed.
+     */
+    static final class SlotBeanHandle<T> implements BeanHandle<T> {
+        private final SingletonRegistry registry;
+        private final int slot;
+        private final String name;
+        private final Class<T> type;
+        private Checked<T> checked;
+
+        SlotBeanHandle(SingletonRegistry registry, int slot, String name, Class<T> type) {
+            this.registry = registry;
+            this.slot = slot;
+            this.name = name;
+            this.type = type;
+            this.checked = check(registry.generation());
+        }
+
+        @Override
+        public T get() {
+            Checked<T> checked = this.checked;
+            int generation = registry.generation();
+            if (checked.generation() == generation) {
+                return checked.value();
+            }
+            checked = check(generation);
+            this.checked = checked;
+            return checked.value();
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        private Checked<T> check(int generation) {
+            Object value = registry.get(slot);
+            if (value == null) {
+                throw new NoSuchBeanDefinitionException(name);
+            }
+            if (!type.isInstance(value)) {
+                throw new NoSuchBeanDefinitionException(name, type.getName(), value.getClass().getName());
+            }
+            return new Checked<>(type.cast(value), generation);
+        }
+    }
+
+    /**
+     * Immutable, so a handle shared between threads never pairs a generation with a
+     * bean read at another one.
+     */
+    private record Checked<T>(T value, int generation) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.study.ioc.diagnostics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Bytes allocated by the current thread, from the HotSpot {@link ThreadMXBean}
+ * extension. On runtimes without it, or with allocation measurement switched off, every
+ * reading is {@code 0}. The measurement is on by default on HotSpot; it is a JVM-wide
+ * setting and left as the application configured it.
+ */
+public final class AllocationCounter {
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = findThreadMXBean();
+
+    private AllocationCounter() {
+    }
+
+    public static boolean isSupported() {
+        return THREAD_MX_BEAN != null && THREAD_MX_BEAN.isThreadAllocatedMemoryEnabled();
+    }
+
+    public static long getCurrentThreadAllocatedBytes() {
+        if (THREAD_MX_BEAN == null) {
+            return 0;
+        }
+        long allocatedBytes = THREAD_MX_BEAN.getCurrentThreadAllocatedBytes();
+        return allocatedBytes < 0 ? 0 : allocatedBytes;
+    }
+
+    private static com.sun.management.ThreadMXBean findThreadMXBean() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean hotSpotThreadMXBean
+                && hotSpotThreadMXBean.isThreadAllocatedMemorySupported()) {
+            return hotSpotThreadMXBean;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,24 @@
+package com.study.ioc.diagnostics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the lookups of every bean through {@code getBean}, {@code getBeansOfType} and
+ * {@code handle}. Injection doesn't count, so a singleton with no lookups after startup
+ * is only used through the beans it is injected into, if at all. Tracking is off until a
+ * tracker is set on the context.
+ */
+public final class LookupTracker {
+    private final Map<String, LongAdder> lookups = new ConcurrentHashMap<>();
+
+    public void record(String beanName) {
+        lookups.computeIfAbsent(beanName, name -> new LongAdder()).increment();
+    }
+
+    public long getLookups(String beanName) {
+        LongAdder count = lookups.get(beanName);
+        return count == null ? 0 : count.sum();
+    }
+}
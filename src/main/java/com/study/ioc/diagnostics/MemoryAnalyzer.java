@@ -0,0 +1,196 @@
+package com.study.ioc.diagnostics;
+
+import com.study.ioc.context.ApplicationContext;
+import com.study.ioc.context.impl.GenericApplicationContext;
+import com.study.ioc.entity.Bean;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estimates the heap each singleton bean holds on to. The object graph of every bean is
+ * walked breadth first through its fields, up to a depth limit, without entering other
+ * beans, classes, threads, class loaders, enum constants, method handles or the context
+ * itself. Objects reached from one bean only count as retained by it; objects reached
+ * from several beans are reported as shared. JDK collections and strings, whose fields
+ * can't be read, are sized from their contents.
+ * <p>
+ * The report also has the bytes the container allocated per startup phase if the context
+ * was built with a {@link StartupRecorder}, and the lookups per bean if a
+ * {@link LookupTracker} was set on the context.
+ */
+public final class MemoryAnalyzer {
+    public static final int DEFAULT_MAX_DEPTH = 32;
+
+    private static final int SHARED = -1;
+
+    private MemoryAnalyzer() {
+    }
+
+    public static MemoryReport analyze(GenericApplicationContext context) {
+        return analyze(context, DEFAULT_MAX_DEPTH);
+    }
+
+    public static MemoryReport analyze(GenericApplicationContext context, int maxDepth) {
+        List<String> names = new ArrayList<>(context.getBeans().keySet());
+        Map<Object, Boolean> boundaries = new IdentityHashMap<>();
+        for (Bean bean : context.getBeans().values()) {
+            boundaries.put(bean.getValue(), Boolean.TRUE);
+        }
+        for (Bean bean : context.getServiceBeans().values()) {
+            boundaries.put(bean.getValue(), Boolean.TRUE);
+        }
+
+        Map<Object, Long> sizes = new IdentityHashMap<>();
+        Map<Object, Integer> owners = new IdentityHashMap<>();
+        long[] reachableBytes = new long[names.size()];
+        int[] objectCounts = new int[names.size()];
+        boolean[] truncated = new boolean[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            Object root = context.getBeans().get(names.get(i)).getValue();
+            int owner = i;
+            ArrayDeque<Object> queue = new ArrayDeque<>();
+            ArrayDeque<Integer> depths = new ArrayDeque<>();
+            Map<Object, Boolean> visited = new IdentityHashMap<>();
+            queue.add(root);
+            depths.add(0);
+            visited.put(root, Boolean.TRUE);
+            while (!queue.isEmpty()) {
+                Object object = queue.poll();
+                int depth = depths.poll();
+                long size = sizes.computeIfAbsent(object, MemoryAnalyzer::shallowSize);
+                owners.merge(object, owner, (previous, current) -> previous.equals(current) ? previous : SHARED);
+                reachableBytes[i] += size;
+                objectCounts[i]++;
+                for (Object child : children(object)) {
+                    if (child == null || visited.containsKey(child) || boundaries.containsKey(child) || isExcluded(child)) {
+                        continue;
+                    }
+                    if (depth == maxDepth) {
+                        truncated[i] = true;
+                        continue;
+                    }
+                    visited.put(child, Boolean.TRUE);
+                    queue.add(child);
+                    depths.add(depth + 1);
+                }
+            }
+        }
+
+        long[] retainedBytes = new long[names.size()];
+        long sharedBytes = 0;
+        for (Map.Entry<Object, Integer> entry : owners.entrySet()) {
+            long size = sizes.get(entry.getKey());
+            if (entry.getValue() == SHARED) {
+                sharedBytes += size;
+            } else {
+                retainedBytes[entry.getValue()] += size;
+            }
+        }
+
+        LookupTracker lookupTracker = context.getLookupTracker();
+        List<MemoryReport.BeanFootprint> beans = new ArrayList<>(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            beans.add(new MemoryReport.BeanFootprint(name,
+                    context.getBeans().get(name).getValue().getClass().getName(), retainedBytes[i], reachableBytes[i],
+                    objectCounts[i], truncated[i], lookupTracker == null ? 0 : lookupTracker.getLookups(name)));
+        }
+        beans.sort(Comparator.comparingLong(MemoryReport.BeanFootprint::retainedBytes).reversed()
+                .thenComparing(MemoryReport.BeanFootprint::name));
+
+        StartupStats recorder = context.getStartupStats();
+        Map<String, Long> allocatedBytes = new LinkedHashMap<>();
+        allocatedBytes.put("read", recorder.getAllocatedBytes(StartupRecorder.ContainerPhase.READ));
+        allocatedBytes.put("compile", recorder.getAllocatedBytes(StartupRecorder.ContainerPhase.COMPILE));
+        allocatedBytes.put("create", recorder.getAllocatedBytes(StartupRecorder.Phase.CREATE));
+        allocatedBytes.put("inject", recorder.getAllocatedBytes(StartupRecorder.Phase.INJECT));
+        allocatedBytes.put("init", recorder.getAllocatedBytes(StartupRecorder.Phase.INIT));
+        allocatedBytes.put("refresh", recorder.getAllocatedBytes(StartupRecorder.ContainerPhase.REFRESH));
+
+        return new MemoryReport(beans, sharedBytes, maxDepth, allocatedBytes,
+                recorder.isEnabled() && AllocationCounter.isSupported(), lookupTracker != null);
+    }
+
+    private static long shallowSize(Object object) {
+        Class<?> type = object.getClass();
+        if (type.isArray()) {
+            return ObjectLayout.arraySize(type.getComponentType(), Array.getLength(object));
+        }
+        ObjectLayout layout = ObjectLayout.of(type);
+        long size = layout.getShallowSize();
+        if (!layout.isAccessible()) {
+            if (object instanceof CharSequence text) {
+                size += ObjectLayout.arraySize(byte.class, text.length());
+            } else if (object instanceof Map<?, ?> map) {
+                size += hashTableSize(map.size());
+            } else if (object instanceof Collection<?> collection) {
+                size += collection instanceof Set<?> ? hashTableSize(collection.size())
+                        : ObjectLayout.arraySize(Object.class, collection.size());
+            }
+        }
+        return size;
+    }
+
+    /**
+     * A power of two table of references with one node per entry, as in
+     * {@link java.util.HashMap}: a hash, a key, a value and the next node.
+     */
+    private static long hashTableSize(int entries) {
+        int capacity = Integer.highestOneBit(Math.max(1, (int) (entries / 0.75f)) * 2 - 1);
+        long nodeSize = ObjectLayout.align(ObjectLayout.OBJECT_HEADER_SIZE + 4 + 3L * ObjectLayout.REFERENCE_SIZE);
+        return ObjectLayout.arraySize(Object.class, capacity) + entries * nodeSize;
+    }
+
+    private static List<Object> children(Object object) {
+        Class<?> type = object.getClass();
+        List<Object> children = new ArrayList<>();
+        if (type.isArray()) {
+            if (!type.getComponentType().isPrimitive()) {
+                Collections.addAll(children, (Object[]) object);
+            }
+            return children;
+        }
+        ObjectLayout layout = ObjectLayout.of(type);
+        for (Field field : layout.getReferenceFields()) {
+            try {
+                children.add(field.get(object));
+            } catch (IllegalAccessException e) {
+                // trySetAccessible succeeded, can't happen
+            }
+        }
+        if (!layout.isAccessible()) {
+            try {
+                if (object instanceof Map<?, ?> map) {
+                    for (Map.Entry<?, ?> entry : map.entrySet()) {
+                        children.add(entry.getKey());
+                        children.add(entry.getValue());
+                    }
+                } else if (object instanceof Collection<?> collection) {
+                    children.addAll(collection);
+                }
+            } catch (RuntimeException e) {
+                // a collection that can't be iterated now, count it shallow
+            }
+        }
+        return children;
+    }
+
+    private static boolean isExcluded(Object object) {
+        return object instanceof Class<?> || object instanceof ClassLoader || object instanceof Thread
+                || object instanceof Enum<?> || object instanceof MethodHandle || object instanceof Member
+                || object instanceof Module || object instanceof ApplicationContext;
+    }
+}
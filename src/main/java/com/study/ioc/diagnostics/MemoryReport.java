@@ -0,0 +1,114 @@
+package com.study.ioc.diagnostics;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Result of a {@link MemoryAnalyzer} run: the estimated heap per singleton bean, largest
+ * first, the bytes allocated per startup phase and the beans nobody looked up. A large
+ * bean that is never looked up and not injected anywhere is a candidate for a lazy or
+ * scoped bean.
+ */
+@Getter
+public final class MemoryReport {
+    private final List<BeanFootprint> beans;
+    private final long sharedBytes;
+    private final int maxDepth;
+    /**
+     * Bytes allocated by the building thread per phase, in startup order: read, compile,
+     * create, inject, init and refresh. All zero if {@link #isAllocationSupported()} is
+     * {@code false}: the context wasn't built with a recorder or the JVM doesn't measure
+     * allocations.
+     */
+    private final Map<String, Long> allocatedBytes;
+    private final boolean allocationSupported;
+    private final boolean lookupsTracked;
+
+    MemoryReport(List<BeanFootprint> beans, long sharedBytes, int maxDepth, Map<String, Long> allocatedBytes,
+                 boolean allocationSupported, boolean lookupsTracked) {
+        this.beans = List.copyOf(beans);
+        this.sharedBytes = sharedBytes;
+        this.maxDepth = maxDepth;
+        this.allocatedBytes = Collections.unmodifiableMap(new LinkedHashMap<>(allocatedBytes));
+        this.allocationSupported = allocationSupported;
+        this.lookupsTracked = lookupsTracked;
+    }
+
+    public long getRetainedBytes() {
+        long total = 0;
+        for (BeanFootprint bean : beans) {
+            total += bean.retainedBytes();
+        }
+        return total;
+    }
+
+    public long getTotalAllocatedBytes() {
+        long total = 0;
+        for (long bytes : allocatedBytes.values()) {
+            total += bytes;
+        }
+        return total;
+    }
+
+    /**
+     * @return the beans without lookups, largest first; empty if lookups weren't tracked
+     */
+    public List<String> getUnusedBeans() {
+        List<String> unused = new ArrayList<>();
+        if (lookupsTracked) {
+            for (BeanFootprint bean : beans) {
+                if (bean.lookups() == 0) {
+                    unused.add(bean.name());
+                }
+            }
+        }
+        return unused;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("Memory: ").append(bytes(getRetainedBytes())).append(" retained by ").append(beans.size())
+                .append(" beans, ").append(bytes(sharedBytes)).append(" shared, depth limit ").append(maxDepth)
+                .append('\n');
+        if (allocationSupported) {
+            summary.append("Allocated during startup: ").append(bytes(getTotalAllocatedBytes())).append(" (");
+            String separator = "";
+            for (Map.Entry<String, Long> phase : allocatedBytes.entrySet()) {
+                summary.append(separator).append(phase.getKey()).append(' ').append(bytes(phase.getValue()));
+                separator = ", ";
+            }
+            summary.append(")\n");
+        }
+        for (BeanFootprint bean : beans) {
+            summary.append(String.format(Locale.ROOT, "  %-40s %12s retained %12s reachable %7d objects",
+                    bean.name(), bytes(bean.retainedBytes()), bytes(bean.reachableBytes()), bean.objectCount()));
+            if (lookupsTracked) {
+                summary.append(String.format(Locale.ROOT, " %9d lookups", bean.lookups()));
+            }
+            summary.append(bean.truncated() ? "  (depth limit reached)" : "").append('\n');
+        }
+        if (lookupsTracked) {
+            summary.append("Never looked up: ").append(String.join(", ", getUnusedBeans())).append('\n');
+        }
+        return summary.toString();
+    }
+
+    private static String bytes(long bytes) {
+        return String.format(Locale.ROOT, "%,d B", bytes);
+    }
+
+    /**
+     * One singleton bean. {@code reachableBytes} counts everything the walk reached from
+     * the bean, {@code retainedBytes} only what no other bean reaches.
+     */
+    public record BeanFootprint(String name, String className, long retainedBytes, long reachableBytes,
+                                int objectCount, boolean truncated, long lookups) {
+    }
+}
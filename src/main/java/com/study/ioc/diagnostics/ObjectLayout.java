@@ -0,0 +1,114 @@
+package com.study.ioc.diagnostics;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Estimated heap layout of a class: its shallow instance size from the field types and
+ * the VM's header and reference sizes, and the reference fields the graph walk can
+ * follow. Fields of classes in modules that aren't open to us, the JDK internals of
+ * strings and collections for example, can't be read; {@link #isAccessible()} is
+ * {@code false} for them. Padding between fields is ignored.
+ */
+final class ObjectLayout {
+    static final int REFERENCE_SIZE;
+    static final int OBJECT_HEADER_SIZE;
+    static final int ARRAY_HEADER_SIZE;
+    static final int ALIGNMENT;
+
+    private static final ClassValue<ObjectLayout> LAYOUTS = new ClassValue<>() {
+        @Override
+        protected ObjectLayout computeValue(Class<?> type) {
+            return new ObjectLayout(type);
+        }
+    };
+
+    static {
+        boolean compressedOops = true;
+        boolean compressedClassPointers = true;
+        int alignment = 8;
+        try {
+            HotSpotDiagnosticMXBean diagnostics = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            compressedOops = Boolean.parseBoolean(diagnostics.getVMOption("UseCompressedOops").getValue());
+            compressedClassPointers = Boolean.parseBoolean(
+                    diagnostics.getVMOption("UseCompressedClassPointers").getValue());
+            alignment = Integer.parseInt(diagnostics.getVMOption("ObjectAlignmentInBytes").getValue());
+        } catch (RuntimeException e) {
+            // not a HotSpot VM, assume the defaults of a small 64-bit heap
+        }
+        REFERENCE_SIZE = compressedOops ? 4 : 8;
+        OBJECT_HEADER_SIZE = compressedClassPointers ? 12 : 16;
+        ARRAY_HEADER_SIZE = compressedClassPointers ? 16 : 24;
+        ALIGNMENT = alignment;
+    }
+
+    private final long shallowSize;
+    private final Field[] referenceFields;
+    private final boolean accessible;
+
+    private ObjectLayout(Class<?> type) {
+        long fieldsSize = 0;
+        List<Field> references = new ArrayList<>();
+        boolean allAccessible = true;
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                fieldsSize += sizeOf(field.getType());
+                if (!field.getType().isPrimitive()) {
+                    if (field.trySetAccessible()) {
+                        references.add(field);
+                    } else {
+                        allAccessible = false;
+                    }
+                }
+            }
+        }
+        this.shallowSize = align(OBJECT_HEADER_SIZE + fieldsSize);
+        this.referenceFields = references.toArray(new Field[0]);
+        this.accessible = allAccessible;
+    }
+
+    static ObjectLayout of(Class<?> type) {
+        return LAYOUTS.get(type);
+    }
+
+    static long arraySize(Class<?> componentType, int length) {
+        return align(ARRAY_HEADER_SIZE + (long) sizeOf(componentType) * length);
+    }
+
+    static long align(long size) {
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    long getShallowSize() {
+        return shallowSize;
+    }
+
+    Field[] getReferenceFields() {
+        return referenceFields;
+    }
+
+    boolean isAccessible() {
+        return accessible;
+    }
+
+    private static int sizeOf(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        } else if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE_SIZE;
+    }
+}
@@ -0,0 +1,211 @@
+package com.study.ioc.diagnostics;
+
+import com.study.ioc.context.impl.GenericApplicationContext;
+import com.study.ioc.entity.BeanDefinition;
+import com.study.ioc.entity.CollectionValue;
+import com.study.ioc.reader.sax.XmlBeanDefinitionReader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the chain of bean dependencies that bounds startup. The ref graph of the
+ * singleton beans (refs, collection refs and autowired collections) is weighted with
+ * the durations recorded by the context's {@link StartupRecorder}, so the context must
+ * be built with one; a bean could start as soon as all beans it references are done.
+ * The longest chain is the critical path, and the slack of a bean is how much later it
+ * could finish without lengthening it.
+ * References that close a cycle are reported and left out of the path computation.
+ */
+public final class StartupAnalyzer {
+
+    private StartupAnalyzer() {
+    }
+
+    public static StartupReport analyze(GenericApplicationContext context) {
+        return analyze(context, context.getStartupStats());
+    }
+
+    /**
+     * Analyzes the bean graph of the context with the given durations instead of the
+     * recorded ones.
+     */
+    static StartupReport analyze(GenericApplicationContext context, StartupStats recorder) {
+        List<String> names = new ArrayList<>(recorder.getBeanNames());
+        Map<String, List<String>> dependencies = new HashMap<>();
+        for (String name : names) {
+            dependencies.put(name, findDependencies(context, name, recorder.getBeanNames()));
+        }
+
+        List<String> order = new ArrayList<>(names.size());
+        Set<List<String>> cycleEdges = new LinkedHashSet<>();
+        Map<String, Integer> state = new HashMap<>();
+        for (String name : names) {
+            sort(name, dependencies, state, order, cycleEdges);
+        }
+
+        Map<String, Long> earliestFinish = new HashMap<>();
+        long criticalPathNanos = 0;
+        String last = null;
+        for (String name : order) {
+            long start = 0;
+            for (String dependency : acyclicDependencies(name, dependencies, cycleEdges)) {
+                start = Math.max(start, earliestFinish.get(dependency));
+            }
+            long finish = start + recorder.getTotalNanos(name);
+            earliestFinish.put(name, finish);
+            if (last == null || finish > criticalPathNanos) {
+                criticalPathNanos = finish;
+                last = name;
+            }
+        }
+
+        Map<String, Long> latestFinish = new HashMap<>();
+        for (int i = order.size() - 1; i >= 0; i--) {
+            String name = order.get(i);
+            latestFinish.putIfAbsent(name, criticalPathNanos);
+            long latestStart = latestFinish.get(name) - recorder.getTotalNanos(name);
+            for (String dependency : acyclicDependencies(name, dependencies, cycleEdges)) {
+                latestFinish.merge(dependency, latestStart, Math::min);
+            }
+        }
+
+        List<String> criticalPath = new ArrayList<>();
+        for (String current = last; current != null; ) {
+            criticalPath.add(current);
+            long start = earliestFinish.get(current) - recorder.getTotalNanos(current);
+            String next = null;
+            for (String dependency : acyclicDependencies(current, dependencies, cycleEdges)) {
+                if (earliestFinish.get(dependency) == start) {
+                    next = dependency;
+                    break;
+                }
+            }
+            current = next;
+        }
+        Collections.reverse(criticalPath);
+
+        List<StartupReport.BeanNode> beans = new ArrayList<>(names.size());
+        long totalNanos = 0;
+        for (String name : names) {
+            long total = recorder.getTotalNanos(name);
+            totalNanos += total;
+            BeanDefinition beanDefinition = context.getBeanDefinitions().get(name);
+            beans.add(new StartupReport.BeanNode(name,
+                    beanDefinition == null ? "" : beanDefinition.getClassName(),
+                    recorder.getNanos(name, StartupRecorder.Phase.CREATE),
+                    recorder.getNanos(name, StartupRecorder.Phase.INJECT),
+                    recorder.getNanos(name, StartupRecorder.Phase.INIT),
+                    earliestFinish.get(name) - total,
+                    latestFinish.get(name) - earliestFinish.get(name),
+                    dependencies.get(name)));
+        }
+        return new StartupReport(beans, criticalPath, criticalPathNanos, totalNanos, new ArrayList<>(cycleEdges));
+    }
+
+    /**
+     * Builds the context from the given locations and prints the report. Options:
+     * {@code --dot <file>} and {@code --json <file>} write the graph as well.
+     */
+    public static void main(String[] args) throws Exception {
+        List<String> locations = new ArrayList<>();
+        Path dotFile = null;
+        Path jsonFile = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--dot" -> dotFile = Path.of(args[++i]);
+                case "--json" -> jsonFile = Path.of(args[++i]);
+                default -> locations.add(args[i]);
+            }
+        }
+        if (locations.isEmpty()) {
+            System.err.println("Usage: StartupAnalyzer [--dot <file>] [--json <file>] <context location>...");
+            System.exit(2);
+        }
+
+        GenericApplicationContext context = new GenericApplicationContext(
+                new XmlBeanDefinitionReader(locations.toArray(new String[0])), new StartupRecorder());
+        StartupReport report = analyze(context);
+        context.close();
+
+        System.out.print(report);
+        write(dotFile, report.toDot());
+        write(jsonFile, report.toJson());
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        if (file != null) {
+            Files.writeString(file, content);
+        }
+    }
+
+    private static List<String> findDependencies(GenericApplicationContext context, String name, Set<String> beanNames) {
+        BeanDefinition beanDefinition = context.getBeanDefinitions().get(name);
+        Set<String> dependencies = new LinkedHashSet<>();
+        if (beanDefinition == null) {
+            return List.of();
+        }
+        dependencies.addAll(beanDefinition.getRefDependencies().values());
+        for (CollectionValue collection : beanDefinition.getCollectionDependencies().values()) {
+            for (CollectionValue.Element element : collection.getElements()) {
+                if (element.isRef()) {
+                    dependencies.add(element.ref());
+                }
+            }
+            if (collection.isAutowired()) {
+                try {
+                    Class<?> type = Class.forName(collection.getBeansOfType(), false,
+                            StartupAnalyzer.class.getClassLoader());
+                    dependencies.addAll(context.getBeanNamesForType(type));
+                } catch (ClassNotFoundException e) {
+                    // the context could not have been built either
+                }
+            }
+        }
+        dependencies.remove(name);
+        dependencies.retainAll(beanNames);
+        return List.copyOf(dependencies);
+    }
+
+    private static void sort(String name, Map<String, List<String>> dependencies, Map<String, Integer> state,
+                             List<String> order, Set<List<String>> cycleEdges) {
+        Integer current = state.get(name);
+        if (current != null) {
+            return;
+        }
+        state.put(name, 1);
+        for (String dependency : dependencies.get(name)) {
+            Integer dependencyState = state.get(dependency);
+            if (dependencyState == null) {
+                sort(dependency, dependencies, state, order, cycleEdges);
+            } else if (dependencyState == 1) {
+                cycleEdges.add(List.of(name, dependency));
+            }
+        }
+        state.put(name, 2);
+        order.add(name);
+    }
+
+    private static List<String> acyclicDependencies(String name, Map<String, List<String>> dependencies,
+                                                    Set<List<String>> cycleEdges) {
+        List<String> all = dependencies.get(name);
+        if (cycleEdges.isEmpty()) {
+            return all;
+        }
+        List<String> acyclic = new ArrayList<>(all.size());
+        for (String dependency : all) {
+            if (!cycleEdges.contains(List.of(name, dependency))) {
+                acyclic.add(dependency);
+            }
+        }
+        return acyclic;
+    }
+}
@@ -0,0 +1,223 @@
+package com.study.ioc.diagnostics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Durations and allocated bytes of the startup phases of every singleton bean, recorded
+ * by the context while it is built. Creation covers the constructor, injection the
+ * value, ref and collection properties, and initialization the post processors and init
+ * methods. The work that isn't done per bean is recorded per {@link ContainerPhase}.
+ * <p>
+ * A step is measured between {@link #begin()} and one of the {@code end} methods, on
+ * the thread that builds the context. The context hands out a read-only {@link #view()}.
+ * <p>
+ * Recording is off unless a recorder is passed to the context or template when it is
+ * built, one recorder per context; otherwise the context uses the {@link #disabled()}
+ * recorder, which doesn't read the clock or the allocation counter.
+ */
+public final class StartupRecorder implements StartupStats {
+
+    public enum Phase {
+        CREATE, INJECT, INIT
+    }
+
+    public enum ContainerPhase {
+        /**
+         * Reading the bean definitions.
+         */
+        READ,
+        /**
+         * Loading the bean classes, running the factory post processors and compiling
+         * the recipes.
+         */
+        COMPILE,
+        /**
+         * Post processors, scopes and pools, the singleton registry and listeners.
+         */
+        REFRESH
+    }
+
+    private static final int PHASES = Phase.values().length;
+    private static final StartupRecorder DISABLED = new StartupRecorder(false);
+
+    private final Map<String, long[]> costsByBean = new LinkedHashMap<>();
+    private final long[] containerNanos = new long[ContainerPhase.values().length];
+    private final long[] containerAllocatedBytes = new long[ContainerPhase.values().length];
+    private long stepStartNanos;
+    private long stepStartAllocatedBytes;
+    private final StartupStats view = new ReadOnlyView(this);
+    private final boolean enabled;
+
+    public StartupRecorder() {
+        this(true);
+    }
+
+    private StartupRecorder(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return the shared recorder that records nothing
+     */
+    public static StartupRecorder disabled() {
+        return DISABLED;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void begin() {
+        if (!enabled) {
+            return;
+        }
+        stepStartNanos = System.nanoTime();
+        stepStartAllocatedBytes = AllocationCounter.getCurrentThreadAllocatedBytes();
+    }
+
+    public void end(String beanName, Phase phase) {
+        if (!enabled) {
+            return;
+        }
+        long allocatedBytes = AllocationCounter.getCurrentThreadAllocatedBytes() - stepStartAllocatedBytes;
+        record(beanName, phase, System.nanoTime() - stepStartNanos, allocatedBytes);
+    }
+
+    public void end(ContainerPhase phase) {
+        if (!enabled) {
+            return;
+        }
+        long allocatedBytes = AllocationCounter.getCurrentThreadAllocatedBytes() - stepStartAllocatedBytes;
+        record(phase, System.nanoTime() - stepStartNanos, allocatedBytes);
+    }
+
+    void record(String beanName, Phase phase, long nanos) {
+        record(beanName, phase, nanos, 0);
+    }
+
+    void record(String beanName, Phase phase, long nanos, long allocatedBytes) {
+        if (!enabled) {
+            return;
+        }
+        long[] costs = costsByBean.computeIfAbsent(beanName, name -> new long[2 * PHASES]);
+        costs[phase.ordinal()] += nanos;
+        costs[PHASES + phase.ordinal()] += allocatedBytes;
+    }
+
+    void record(ContainerPhase phase, long nanos, long allocatedBytes) {
+        if (!enabled) {
+            return;
+        }
+        containerNanos[phase.ordinal()] += nanos;
+        containerAllocatedBytes[phase.ordinal()] += allocatedBytes;
+    }
+
+    /**
+     * Adds the container phases recorded by another recorder, for example the one of the
+     * template a context was made from.
+     */
+    public void recordContainerPhases(StartupStats other) {
+        for (ContainerPhase phase : ContainerPhase.values()) {
+            record(phase, other.getNanos(phase), other.getAllocatedBytes(phase));
+        }
+    }
+
+    @Override
+    public long getNanos(String beanName, Phase phase) {
+        long[] costs = costsByBean.get(beanName);
+        return costs == null ? 0 : costs[phase.ordinal()];
+    }
+
+    @Override
+    public long getTotalNanos(String beanName) {
+        long total = 0;
+        for (Phase phase : Phase.values()) {
+            total += getNanos(beanName, phase);
+        }
+        return total;
+    }
+
+    @Override
+    public long getAllocatedBytes(String beanName, Phase phase) {
+        long[] costs = costsByBean.get(beanName);
+        return costs == null ? 0 : costs[PHASES + phase.ordinal()];
+    }
+
+    @Override
+    public long getAllocatedBytes(Phase phase) {
+        long total = 0;
+        for (long[] costs : costsByBean.values()) {
+            total += costs[PHASES + phase.ordinal()];
+        }
+        return total;
+    }
+
+    @Override
+    public long getNanos(ContainerPhase phase) {
+        return containerNanos[phase.ordinal()];
+    }
+
+    @Override
+    public long getAllocatedBytes(ContainerPhase phase) {
+        return containerAllocatedBytes[phase.ordinal()];
+    }
+
+    @Override
+    public Set<String> getBeanNames() {
+        return Collections.unmodifiableSet(costsByBean.keySet());
+    }
+
+    /**
+     * @return a view that reads this recorder and can't be cast back to it
+     */
+    public StartupStats view() {
+        return view;
+    }
+
+    private record ReadOnlyView(StartupStats recorder) implements StartupStats {
+
+        @Override
+        public boolean isEnabled() {
+            return recorder.isEnabled();
+        }
+
+        @Override
+        public long getNanos(String beanName, Phase phase) {
+            return recorder.getNanos(beanName, phase);
+        }
+
+        @Override
+        public long getTotalNanos(String beanName) {
+            return recorder.getTotalNanos(beanName);
+        }
+
+        @Override
+        public long getAllocatedBytes(String beanName, Phase phase) {
+            return recorder.getAllocatedBytes(beanName, phase);
+        }
+
+        @Override
+        public long getAllocatedBytes(Phase phase) {
+            return recorder.getAllocatedBytes(phase);
+        }
+
+        @Override
+        public long getNanos(ContainerPhase phase) {
+            return recorder.getNanos(phase);
+        }
+
+        @Override
+        public long getAllocatedBytes(ContainerPhase phase) {
+            return recorder.getAllocatedBytes(phase);
+        }
+
+        @Override
+        public Set<String> getBeanNames() {
+            return recorder.getBeanNames();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.study.ioc.diagnostics;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result of a {@link StartupAnalyzer} run: the ref graph of the singleton beans with
+ * their measured durations, the critical path and the slack of every bean. The slack
+ * is how much a bean could be delayed, made lazy or moved off the startup thread
+ * without lengthening the critical path.
+ */
+@Getter
+public final class StartupReport {
+    private final List<BeanNode> beans;
+    private final List<String> criticalPath;
+    private final long criticalPathNanos;
+    private final long totalNanos;
+    private final List<List<String>> cycleEdges;
+
+    StartupReport(List<BeanNode> beans, List<String> criticalPath, long criticalPathNanos, long totalNanos,
+                  List<List<String>> cycleEdges) {
+        this.beans = List.copyOf(beans);
+        this.criticalPath = List.copyOf(criticalPath);
+        this.criticalPathNanos = criticalPathNanos;
+        this.totalNanos = totalNanos;
+        this.cycleEdges = List.copyOf(cycleEdges);
+    }
+
+    /**
+     * The speedup an unlimited number of threads could reach by creating beans as soon
+     * as their dependencies are ready: total work divided by the critical path.
+     */
+    public double getParallelism() {
+        return criticalPathNanos == 0 ? 1 : (double) totalNanos / criticalPathNanos;
+    }
+
+    public String toDot() {
+        StringBuilder dot = new StringBuilder("digraph startup {\n    rankdir=LR;\n    node [shape=box];\n");
+        for (BeanNode bean : beans) {
+            boolean critical = criticalPath.contains(bean.name());
+            dot.append("    \"").append(escape(bean.name())).append("\" [label=\"").append(escape(bean.name()))
+                    .append("\\n").append(millis(bean.createNanos())).append(" / ").append(millis(bean.injectNanos()))
+                    .append(" / ").append(millis(bean.initNanos())).append(" ms\\nslack ")
+                    .append(millis(bean.slackNanos())).append(" ms\"")
+                    .append(critical ? ", color=red, penwidth=2" : "").append("];\n");
+        }
+        for (BeanNode bean : beans) {
+            for (String dependency : bean.dependencies()) {
+                boolean critical = isCriticalEdge(bean.name(), dependency);
+                boolean cycle = cycleEdges.contains(List.of(bean.name(), dependency));
+                dot.append("    \"").append(escape(bean.name())).append("\" -> \"").append(escape(dependency))
+                        .append('"').append(critical ? " [color=red, penwidth=2]" : cycle ? " [style=dashed]" : "")
+                        .append(";\n");
+            }
+        }
+        return dot.append("}\n").toString();
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"criticalPathNanos\": ").append(criticalPathNanos).append(",\n");
+        json.append("  \"totalNanos\": ").append(totalNanos).append(",\n");
+        json.append("  \"parallelism\": ").append(String.format(Locale.ROOT, "%.3f", getParallelism()))
+                .append(",\n");
+        json.append("  \"criticalPath\": ");
+        appendJsonArray(json, criticalPath);
+        json.append(",\n  \"cycleEdges\": [");
+        for (int i = 0; i < cycleEdges.size(); i++) {
+            json.append(i == 0 ? "" : ", ");
+            appendJsonArray(json, cycleEdges.get(i));
+        }
+        json.append("],\n  \"beans\": [");
+        for (int i = 0; i < beans.size(); i++) {
+            BeanNode bean = beans.get(i);
+            json.append(i == 0 ? "\n" : ",\n").append("    {\"name\": \"").append(escape(bean.name()))
+                    .append("\", \"className\": \"").append(escape(bean.className()))
+                    .append("\", \"createNanos\": ").append(bean.createNanos())
+                    .append(", \"injectNanos\": ").append(bean.injectNanos())
+                    .append(", \"initNanos\": ").append(bean.initNanos())
+                    .append(", \"earliestStartNanos\": ").append(bean.earliestStartNanos())
+                    .append(", \"slackNanos\": ").append(bean.slackNanos())
+                    .append(", \"dependencies\": ");
+            appendJsonArray(json, bean.dependencies());
+            json.append('}');
+        }
+        return json.append("\n  ]\n}\n").toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("Startup: ").append(millis(totalNanos)).append(" ms of bean work, critical path ")
+                .append(millis(criticalPathNanos)).append(" ms, parallelism ")
+                .append(String.format(Locale.ROOT, "%.2f", getParallelism())).append('\n');
+        List<String> lastFirst = new ArrayList<>(criticalPath);
+        Collections.reverse(lastFirst);
+        summary.append("Critical path: ").append(String.join(" <- ", lastFirst)).append('\n');
+        for (BeanNode bean : beans) {
+            summary.append(String.format(Locale.ROOT, "  %-40s %10s ms  slack %10s ms%n", bean.name(),
+                    millis(bean.totalNanos()), millis(bean.slackNanos())));
+        }
+        return summary.toString();
+    }
+
+    private boolean isCriticalEdge(String bean, String dependency) {
+        int index = criticalPath.indexOf(bean);
+        return index > 0 && criticalPath.get(index - 1).equals(dependency);
+    }
+
+    private static void appendJsonArray(StringBuilder json, List<String> values) {
+        json.append('[');
+        for (int i = 0; i < values.size(); i++) {
+            json.append(i == 0 ? "\"" : ", \"").append(escape(values.get(i))).append('"');
+        }
+        json.append(']');
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> escaped.append("\\\"");
+                case '\\' -> escaped.append("\\\\");
+                case '\n' -> escaped.append("\\n");
+                default -> {
+                    if (c < 0x20) {
+                        escaped.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    } else {
+                        escaped.append(c);
+                    }
+                }
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    /**
+     * One singleton bean; {@code dependencies} are the beans it references, the critical
+     * path lists the beans from the first one created to the last.
+     */
+    public record BeanNode(String name, String className, long createNanos, long injectNanos, long initNanos,
+                           long earliestStartNanos, long slackNanos, List<String> dependencies) {
+
+        public long totalNanos() {
+            return createNanos + injectNanos + initNanos;
+        }
+    }
+}
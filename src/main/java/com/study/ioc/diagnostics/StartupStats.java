@@ -0,0 +1,32 @@
+package com.study.ioc.diagnostics;
+
+import java.util.Set;
+
+/**
+ * Read-only view of what a {@link StartupRecorder} recorded: durations and allocated
+ * bytes per bean and phase, and per {@link StartupRecorder.ContainerPhase}.
+ */
+public interface StartupStats {
+
+    /**
+     * @return {@code false} if nothing was recorded because recording was off
+     */
+    boolean isEnabled();
+
+    long getNanos(String beanName, StartupRecorder.Phase phase);
+
+    long getTotalNanos(String beanName);
+
+    long getAllocatedBytes(String beanName, StartupRecorder.Phase phase);
+
+    /**
+     * @return the bytes allocated in the phase for all beans together
+     */
+    long getAllocatedBytes(StartupRecorder.Phase phase);
+
+    long getNanos(StartupRecorder.ContainerPhase phase);
+
+    long getAllocatedBytes(StartupRecorder.ContainerPhase phase);
+
+    Set<String> getBeanNames();
+}
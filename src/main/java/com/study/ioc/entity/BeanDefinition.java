@@ -1,21 +1,87 @@
 package com.study.ioc.entity;
 
 import lombok.Getter;
-import lombok.Setter;
 
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+/**
+ * Bean metadata. Definitions stay editable while {@code BeanFactoryPostProcessor}s
+ * run and are frozen by the context right after that phase; afterwards every
+ * setter throws {@link IllegalStateException}.
+ */
 @Getter
-@Setter
 public class BeanDefinition {
+    public static final String SCOPE_SINGLETON = "singleton";
+    public static final String SCOPE_POOLED = "pooled";
+
     private final String id;
     private String className;
-    private Map<String, String> valueDependencies = new HashMap<>();
-    private Map<String, String> refDependencies = new HashMap<>();
+    private String scope = SCOPE_SINGLETON;
+    private PropertyValues valueDependencies = PropertyValues.EMPTY;
+    private PropertyValues refDependencies = PropertyValues.EMPTY;
+    private PropertyValues attributes = PropertyValues.EMPTY;
+    private Map<String, CollectionValue> collectionDependencies = Map.of();
+    private boolean frozen;
+    private volatile Class<?> beanClass;
 
     public BeanDefinition(String id, String className) {
         this.id = id;
-        this.className = className;
+        this.className = className.intern();
+    }
+
+    public void setClassName(String className) {
+        checkNotFrozen();
+        this.className = className.intern();
+        this.beanClass = null;
+    }
+
+    /**
+     * Caches the class resolved for {@link #getClassName()}. Allowed after freezing,
+     * since it only memoizes the class name lookup.
+     */
+    public void setBeanClass(Class<?> beanClass) {
+        this.beanClass = beanClass;
+    }
+
+    public void setScope(String scope) {
+        checkNotFrozen();
+        this.scope = scope == null ? SCOPE_SINGLETON : scope.intern();
+    }
+
+    public boolean isSingleton() {
+        return SCOPE_SINGLETON.equals(scope);
+    }
+
+    public void setValueDependencies(Map<String, String> valueDependencies) {
+        checkNotFrozen();
+        this.valueDependencies = PropertyValues.of(valueDependencies);
+    }
+
+    public void setRefDependencies(Map<String, String> refDependencies) {
+        checkNotFrozen();
+        this.refDependencies = PropertyValues.of(refDependencies);
+    }
+
+    public void setAttributes(Map<String, String> attributes) {
+        checkNotFrozen();
+        this.attributes = PropertyValues.of(attributes);
+    }
+
+    public void setCollectionDependencies(Map<String, CollectionValue> collectionDependencies) {
+        checkNotFrozen();
+        this.collectionDependencies = collectionDependencies == null || collectionDependencies.isEmpty()
+                ? Map.of() : Collections.unmodifiableMap(new LinkedHashMap<>(collectionDependencies));
+    }
+
+    public void freeze() {
+        frozen = true;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("Bean definition " + id + " is frozen");
+        }
     }
 }
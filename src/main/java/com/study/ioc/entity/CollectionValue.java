@@ -0,0 +1,61 @@
+package com.study.ioc.entity;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * A {@code <list>}, {@code <set>}, {@code <map>} or {@code <array>} property of a bean
+ * definition. Elements are literal values or bean references; a collection with a
+ * {@code beansOfType} is filled with all singleton beans of that type instead.
+ */
+@Getter
+public final class CollectionValue {
+
+    public enum Kind {
+        LIST, SET, MAP, ARRAY
+    }
+
+    private final Kind kind;
+    private final String elementType;
+    private final String beansOfType;
+    private final List<Element> elements;
+
+    /**
+     * @param elementType component type of an array, {@code null} to take it from the setter
+     * @param beansOfType class name of the beans to autowire, {@code null} for the given elements
+     */
+    public CollectionValue(Kind kind, String elementType, String beansOfType, List<Element> elements) {
+        this.kind = kind;
+        this.elementType = elementType;
+        this.beansOfType = beansOfType;
+        this.elements = List.copyOf(elements);
+    }
+
+    public boolean isAutowired() {
+        return beansOfType != null;
+    }
+
+    public CollectionValue withElements(List<Element> elements) {
+        return new CollectionValue(kind, elementType, beansOfType, elements);
+    }
+
+    /**
+     * One element; {@code key} is only set for map entries, exactly one of {@code value}
+     * and {@code ref} is set.
+     */
+    public record Element(String key, String value, String ref) {
+
+        public static Element value(String value) {
+            return new Element(null, value, null);
+        }
+
+        public static Element ref(String ref) {
+            return new Element(null, null, ref.intern());
+        }
+
+        public boolean isRef() {
+            return ref != null;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.study.ioc.entity;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable, array-backed property map used by {@link BeanDefinition}.
+ * Property names are interned, lookups are a linear scan which beats hashing
+ * for the handful of properties a bean usually has, and every bean without
+ * properties shares {@link #EMPTY}.
+ */
+public final class PropertyValues extends AbstractMap<String, String> {
+
+    public static final PropertyValues EMPTY = new PropertyValues(new String[0], new String[0]);
+
+    private final String[] names;
+    private final String[] values;
+
+    private PropertyValues(String[] names, String[] values) {
+        this.names = names;
+        this.values = values;
+    }
+
+    public static PropertyValues of(Map<String, String> properties) {
+        if (properties instanceof PropertyValues propertyValues) {
+            return propertyValues;
+        }
+        if (properties == null || properties.isEmpty()) {
+            return EMPTY;
+        }
+        Builder builder = new Builder(properties.size());
+        properties.forEach(builder::put);
+        return builder.build();
+    }
+
+    public static Builder builder() {
+        return new Builder(4);
+    }
+
+    public Builder toBuilder() {
+        Builder builder = new Builder(names.length + 2);
+        for (int i = 0; i < names.length; i++) {
+            builder.put(names[i], values[i]);
+        }
+        return builder;
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    public String getValue(int index) {
+        return values[index];
+    }
+
+    @Override
+    public int size() {
+        return names.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return names.length == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public String get(Object key) {
+        int index = indexOf(key);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<>() {
+                    private int index;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < names.length;
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        if (index >= names.length) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<String, String> entry = new SimpleImmutableEntry<>(names[index], values[index]);
+                        index++;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return names.length;
+            }
+        };
+    }
+
+    private int indexOf(Object key) {
+        String[] names = this.names;
+        for (int i = 0; i < names.length; i++) {
+            if (names[i] == key) {
+                return i;
+            }
+        }
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Mutable counterpart of {@link PropertyValues}. A builder can be reused
+     * after {@link #build()}, which lets a reader keep one per parse.
+     */
+    public static final class Builder {
+        private String[] names;
+        private String[] values;
+        private int size;
+
+        private Builder(int capacity) {
+            names = new String[Math.max(capacity, 1)];
+            values = new String[names.length];
+        }
+
+        public Builder put(String name, String value) {
+            String internedName = name.intern();
+            for (int i = 0; i < size; i++) {
+                if (names[i] == internedName) {
+                    values[i] = value;
+                    return this;
+                }
+            }
+            if (size == names.length) {
+                names = Arrays.copyOf(names, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            names[size] = internedName;
+            values[size] = value;
+            size++;
+            return this;
+        }
+
+        public Builder remove(String name) {
+            for (int i = 0; i < size; i++) {
+                if (names[i].equals(name)) {
+                    System.arraycopy(names, i + 1, names, i, size - i - 1);
+                    System.arraycopy(values, i + 1, values, i, size - i - 1);
+                    size--;
+                    names[size] = null;
+                    values[size] = null;
+                    return this;
+                }
+            }
+            return this;
+        }
+
+        public PropertyValues build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            PropertyValues propertyValues = new PropertyValues(Arrays.copyOf(names, size), Arrays.copyOf(values, size));
+            Arrays.fill(names, 0, size, null);
+            Arrays.fill(values, 0, size, null);
+            size = 0;
+            return propertyValues;
+        }
+    }
+}
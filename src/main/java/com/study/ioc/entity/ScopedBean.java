@@ -0,0 +1,27 @@
+package com.study.ioc.entity;
+
+import com.study.ioc.scope.Scope;
+import lombok.Getter;
+
+import java.util.function.Supplier;
+
+@Getter
+public class ScopedBean {
+    private final String id;
+    private final int slot;
+    private final Scope scope;
+    private final Class<?> beanClass;
+    private final Supplier<Object> factory;
+
+    public ScopedBean(String id, int slot, Scope scope, Class<?> beanClass, Supplier<Object> factory) {
+        this.id = id;
+        this.slot = slot;
+        this.scope = scope;
+        this.beanClass = beanClass;
+        this.factory = factory;
+    }
+
+    public Object getValue() {
+        return scope.get(slot, id, factory);
+    }
+}
@@ -0,0 +1,17 @@
+package com.study.ioc.event;
+
+import lombok.Getter;
+
+/**
+ * Base class of the events published through an {@link ApplicationEventPublisher}.
+ */
+@Getter
+public class ApplicationEvent {
+    private final Object source;
+    private final long timestamp;
+
+    public ApplicationEvent(Object source) {
+        this.source = source;
+        this.timestamp = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,287 @@
+package com.study.ioc.event;
+
+import com.study.ioc.exception.BeanInstantiationException;
+import com.study.ioc.proxy.ProxyFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivers published events to the listeners registered for their type. The listeners
+ * of each event class are computed on its first publication and kept in arrays, so
+ * synchronous dispatch is a map lookup and a loop without allocation. Async listeners
+ * get their events from one dispatcher thread that drains a {@link EventRingBuffer}
+ * in batches; a publisher only blocks when the buffer is full. The thread and its
+ * buffer are created on the first async event and sleep while the buffer is empty.
+ */
+public final class ApplicationEventMulticaster implements ApplicationEventPublisher, AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 8192;
+    private static final int BATCH_SIZE = 256;
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, ApplicationEvent.class);
+
+    private final List<ListenerInvoker> invokers = new ArrayList<>();
+    private final Map<Class<?>, DispatchTable> dispatchTables = new ConcurrentHashMap<>();
+    private final int capacity;
+    private volatile EventRingBuffer ringBuffer;
+    private volatile Thread dispatcher;
+    private volatile boolean dispatcherParked;
+    private volatile boolean closed;
+
+    public ApplicationEventMulticaster() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ApplicationEventMulticaster(int capacity) {
+        this.capacity = EventRingBuffer.checkCapacity(capacity);
+    }
+
+    public <E extends ApplicationEvent> void addListener(Class<E> eventType, ApplicationListener<? super E> listener,
+                                                         boolean async) {
+        addInvoker(new ListenerInvoker(eventType, async,
+                event -> listener.onApplicationEvent(eventType.cast(event))));
+    }
+
+    /**
+     * Registers a bean that implements {@link ApplicationListener} and its methods
+     * annotated with {@link EventListener}. Annotated methods are looked up on the
+     * target of a proxied bean and called on the target.
+     */
+    @SuppressWarnings("unchecked")
+    public void addListenerBean(String beanName, Object bean) {
+        Object target = ProxyFactory.getTarget(bean);
+        if (bean instanceof ApplicationListener<?> listener) {
+            ApplicationListener<ApplicationEvent> eventListener = (ApplicationListener<ApplicationEvent>) listener;
+            addInvoker(new ListenerInvoker(resolveEventType(target.getClass()), false,
+                    eventListener::onApplicationEvent));
+        }
+        for (Method method : target.getClass().getMethods()) {
+            EventListener annotation = method.getAnnotation(EventListener.class);
+            if (annotation != null) {
+                addInvoker(createMethodInvoker(beanName, target, method, annotation.async()));
+            }
+        }
+    }
+
+    @Override
+    public void publishEvent(ApplicationEvent event) {
+        DispatchTable dispatchTable = getDispatchTable(event.getClass());
+        for (ListenerInvoker invoker : dispatchTable.syncInvokers()) {
+            invoker.eventHandler().handle(event);
+        }
+        if (dispatchTable.asyncInvokers().length > 0) {
+            enqueue(event);
+        }
+    }
+
+    /**
+     * Delivers the queued events to the async listeners and stops the dispatcher thread.
+     * Events published afterwards only reach synchronous listeners. An event that was
+     * queued while the dispatcher stopped is delivered by its publisher.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Thread dispatcher = this.dispatcher;
+        if (dispatcher != null) {
+            LockSupport.unpark(dispatcher);
+            try {
+                dispatcher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void addInvoker(ListenerInvoker invoker) {
+        synchronized (invokers) {
+            invokers.add(invoker);
+            dispatchTables.clear();
+        }
+    }
+
+    /**
+     * Tables are built and installed under the same lock that {@link #addInvoker} clears
+     * them with, so a table never outlives a listener registered after it was built.
+     */
+    private DispatchTable getDispatchTable(Class<?> eventClass) {
+        DispatchTable dispatchTable = dispatchTables.get(eventClass);
+        if (dispatchTable == null) {
+            synchronized (invokers) {
+                dispatchTable = dispatchTables.computeIfAbsent(eventClass, this::createDispatchTable);
+            }
+        }
+        return dispatchTable;
+    }
+
+    private DispatchTable createDispatchTable(Class<?> eventClass) {
+        List<ListenerInvoker> syncInvokers = new ArrayList<>();
+        List<ListenerInvoker> asyncInvokers = new ArrayList<>();
+        for (ListenerInvoker invoker : invokers) {
+            if (invoker.eventType().isAssignableFrom(eventClass)) {
+                (invoker.async() ? asyncInvokers : syncInvokers).add(invoker);
+            }
+        }
+        return new DispatchTable(syncInvokers.toArray(new ListenerInvoker[0]),
+                asyncInvokers.toArray(new ListenerInvoker[0]));
+    }
+
+    private void enqueue(ApplicationEvent event) {
+        if (closed) {
+            return;
+        }
+        Thread dispatcher = this.dispatcher;
+        if (dispatcher == null) {
+            dispatcher = startDispatcher();
+        }
+        EventRingBuffer ringBuffer = this.ringBuffer;
+        while (!ringBuffer.offer(event)) {
+            if (closed) {
+                return;
+            }
+            LockSupport.unpark(dispatcher);
+            Thread.yield();
+        }
+        if (closed) {
+            drainAfterClose(dispatcher, ringBuffer);
+        } else if (dispatcherParked) {
+            LockSupport.unpark(dispatcher);
+        }
+    }
+
+    /**
+     * Delivers what the dispatcher may have left in the buffer when it stopped. Once it
+     * has stopped, publishers take turns as the consumer under the buffer's lock.
+     */
+    private void drainAfterClose(Thread dispatcher, EventRingBuffer ringBuffer) {
+        if (dispatcher == Thread.currentThread()) {
+            return;
+        }
+        boolean interrupted = false;
+        while (dispatcher.isAlive()) {
+            try {
+                dispatcher.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        synchronized (ringBuffer) {
+            ApplicationEvent[] batch = new ApplicationEvent[BATCH_SIZE];
+            int count;
+            while ((count = ringBuffer.drainTo(batch)) > 0) {
+                deliver(batch, count);
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized Thread startDispatcher() {
+        if (dispatcher == null) {
+            EventRingBuffer buffer = new EventRingBuffer(capacity);
+            ringBuffer = buffer;
+            Thread thread = new Thread(() -> dispatchLoop(buffer), "event-multicaster");
+            thread.setDaemon(true);
+            thread.start();
+            dispatcher = thread;
+        }
+        return dispatcher;
+    }
+
+    /**
+     * Parks without a timeout: after raising {@code dispatcherParked} the dispatcher
+     * checks the buffer once more, and a publisher that offers an event afterwards sees
+     * the flag and unparks it, so an event can't be left behind by a sleeping dispatcher.
+     */
+    private void dispatchLoop(EventRingBuffer ringBuffer) {
+        ApplicationEvent[] batch = new ApplicationEvent[BATCH_SIZE];
+        while (true) {
+            boolean closing = closed;
+            int count = ringBuffer.drainTo(batch);
+            if (count == 0) {
+                if (closing) {
+                    return;
+                }
+                dispatcherParked = true;
+                if (ringBuffer.isEmpty() && !closed) {
+                    LockSupport.park(this);
+                }
+                dispatcherParked = false;
+                continue;
+            }
+            deliver(batch, count);
+        }
+    }
+
+    private void deliver(ApplicationEvent[] batch, int count) {
+        for (int i = 0; i < count; i++) {
+            ApplicationEvent event = batch[i];
+            batch[i] = null;
+            for (ListenerInvoker invoker : getDispatchTable(event.getClass()).asyncInvokers()) {
+                try {
+                    invoker.eventHandler().handle(event);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private static ListenerInvoker createMethodInvoker(String beanName, Object target, Method method, boolean async) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        if (parameterTypes.length != 1 || !ApplicationEvent.class.isAssignableFrom(parameterTypes[0])) {
+            throw new BeanInstantiationException("@EventListener method " + method.getName() + " of bean " + beanName +
+                    " must have a single ApplicationEvent parameter", null);
+        }
+        MethodHandle handle;
+        try {
+            method.setAccessible(true);
+            handle = MethodHandles.lookup().unreflect(method).bindTo(target).asType(INVOKER_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new BeanInstantiationException("Can't access @EventListener method " + method.getName() +
+                    " of bean " + beanName, e);
+        }
+        return new ListenerInvoker(parameterTypes[0], async, event -> {
+            try {
+                handle.invokeExact(event);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Listener " + beanName + "." + method.getName() + " failed", e);
+            }
+        });
+    }
+
+    private static Class<?> resolveEventType(Class<?> listenerClass) {
+        for (Class<?> clazz = listenerClass; clazz != null; clazz = clazz.getSuperclass()) {
+            for (Type type : clazz.getGenericInterfaces()) {
+                if (type instanceof ParameterizedType parameterizedType
+                        && parameterizedType.getRawType() == ApplicationListener.class
+                        && parameterizedType.getActualTypeArguments()[0] instanceof Class<?> eventType) {
+                    return eventType;
+                }
+            }
+        }
+        return ApplicationEvent.class;
+    }
+
+    @FunctionalInterface
+    private interface EventHandler {
+        void handle(ApplicationEvent event);
+    }
+
+    private record ListenerInvoker(Class<?> eventType, boolean async, EventHandler eventHandler) {
+    }
+
+    private record DispatchTable(ListenerInvoker[] syncInvokers, ListenerInvoker[] asyncInvokers) {
+    }
+}
@@ -0,0 +1,5 @@
+package com.study.ioc.event;
+
+public interface ApplicationEventPublisher {
+    void publishEvent(ApplicationEvent event);
+}
@@ -0,0 +1,11 @@
+package com.study.ioc.event;
+
+/**
+ * Implemented by singleton beans that listen to events of type {@code E}. The event
+ * type is taken from the type argument of the bean class; listeners whose type
+ * argument can't be resolved receive every event.
+ */
+@FunctionalInterface
+public interface ApplicationListener<E extends ApplicationEvent> {
+    void onApplicationEvent(E event);
+}
@@ -0,0 +1,13 @@
+package com.study.ioc.event;
+
+import com.study.ioc.context.ApplicationContext;
+
+/**
+ * Published when the context is closed, before its beans are.
+ */
+public class ContextClosedEvent extends ApplicationEvent {
+
+    public ContextClosedEvent(ApplicationContext applicationContext) {
+        super(applicationContext);
+    }
+}
@@ -0,0 +1,13 @@
+package com.study.ioc.event;
+
+import com.study.ioc.context.ApplicationContext;
+
+/**
+ * Published once all beans of the context are created and post processed.
+ */
+public class ContextRefreshedEvent extends ApplicationEvent {
+
+    public ContextRefreshedEvent(ApplicationContext applicationContext) {
+        super(applicationContext);
+    }
+}
@@ -0,0 +1,21 @@
+package com.study.ioc.event;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method of a singleton bean as a listener for the events of its single
+ * parameter type, an {@link ApplicationEvent} subclass.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface EventListener {
+
+    /**
+     * Delivers events on the dispatcher thread of the {@link ApplicationEventMulticaster}
+     * instead of the publishing thread.
+     */
+    boolean async() default false;
+}
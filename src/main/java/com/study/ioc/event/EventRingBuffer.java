@@ -0,0 +1,81 @@
+package com.study.ioc.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue for many publishing threads and one dispatcher thread.
+ * Every slot carries a sequence number: a producer claims a slot by moving the tail
+ * and publishes the event by advancing the slot sequence, the consumer frees the slot
+ * by moving its sequence a full lap ahead.
+ */
+final class EventRingBuffer {
+    private final ApplicationEvent[] events;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    EventRingBuffer(int capacity) {
+        checkCapacity(capacity);
+        events = new ApplicationEvent[capacity];
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        mask = capacity - 1;
+    }
+
+    static int checkCapacity(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        return capacity;
+    }
+
+    /**
+     * @return {@code false} if the buffer is full
+     */
+    boolean offer(ApplicationEvent event) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    events[index] = event;
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (sequence < position) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Moves up to {@code batch.length} events into {@code batch}. Only one thread at a
+     * time may call this: the dispatcher, or once it has stopped, a publisher holding the
+     * buffer's lock.
+     *
+     * @return the number of events moved
+     */
+    int drainTo(ApplicationEvent[] batch) {
+        int count = 0;
+        while (count < batch.length) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            batch[count++] = events[index];
+            events[index] = null;
+            sequences.lazySet(index, head + events.length);
+            head++;
+        }
+        return count;
+    }
+
+    boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+}
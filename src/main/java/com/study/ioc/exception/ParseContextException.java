@@ -5,4 +5,8 @@ public class ParseContextException extends RuntimeException {
     public ParseContextException(String message) {
         super(message);
     }
+
+    public ParseContextException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
@@ -0,0 +1,8 @@
+package com.study.ioc.exception;
+
+public class PoolExhaustedException extends RuntimeException {
+
+    public PoolExhaustedException(String beanName, long maxWaitMillis) {
+        super("No pooled instance of bean " + beanName + " became available within " + maxWaitMillis + " ms");
+    }
+}
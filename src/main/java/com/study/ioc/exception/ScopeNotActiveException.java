@@ -0,0 +1,8 @@
+package com.study.ioc.exception;
+
+public class ScopeNotActiveException extends RuntimeException {
+
+    public ScopeNotActiveException(String scopeName, String beanName) {
+        super("Scope " + scopeName + " is not active for the current thread, can't resolve bean " + beanName);
+    }
+}
@@ -0,0 +1,146 @@
+package com.study.ioc.placeholder;
+
+import com.study.ioc.exception.PostProcessBeanFactoryException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Replaces {@code ${key}} and {@code ${key:default}} placeholders. Keys are looked up in
+ * the given sources in order; values and defaults may contain placeholders themselves.
+ * Every distinct string is resolved once, later occurrences come from a memo.
+ */
+public final class PlaceholderResolver {
+    public static final String PREFIX = "${";
+    public static final String SUFFIX = "}";
+    public static final char DEFAULT_SEPARATOR = ':';
+
+    private final List<Function<String, String>> sources;
+    private final Map<String, String> resolved = new HashMap<>();
+    private final List<String> resolving = new ArrayList<>();
+
+    public PlaceholderResolver(List<Function<String, String>> sources) {
+        this.sources = List.copyOf(sources);
+    }
+
+    /**
+     * Sources of the usual precedence: system properties, then environment variables,
+     * then the given properties. An environment variable also matches a key in the
+     * {@code UPPER_CASE} form of a dotted key, so {@code db.url} finds {@code DB_URL}.
+     */
+    public static PlaceholderResolver withSystemSources(Map<String, String> properties) {
+        return new PlaceholderResolver(List.of(
+                System::getProperty,
+                PlaceholderResolver::getEnvironmentVariable,
+                properties::get));
+    }
+
+    public static boolean hasPlaceholder(String value) {
+        return value != null && value.contains(PREFIX);
+    }
+
+    public String resolve(String value) {
+        if (!hasPlaceholder(value)) {
+            return value;
+        }
+        String result = resolved.get(value);
+        if (result == null) {
+            result = replacePlaceholders(value);
+            resolved.put(value, result);
+        }
+        return result;
+    }
+
+    private String replacePlaceholders(String value) {
+        StringBuilder result = new StringBuilder(value.length());
+        int start = 0;
+        int prefixIndex = value.indexOf(PREFIX);
+        while (prefixIndex >= 0) {
+            int suffixIndex = findSuffix(value, prefixIndex + PREFIX.length());
+            if (suffixIndex < 0) {
+                break;
+            }
+            result.append(value, start, prefixIndex);
+            result.append(resolvePlaceholder(value.substring(prefixIndex + PREFIX.length(), suffixIndex)));
+            start = suffixIndex + SUFFIX.length();
+            prefixIndex = value.indexOf(PREFIX, start);
+        }
+        result.append(value, start, value.length());
+        return result.toString();
+    }
+
+    private String resolvePlaceholder(String placeholder) {
+        int separatorIndex = findDefaultSeparator(placeholder);
+        String key = resolve(separatorIndex < 0 ? placeholder : placeholder.substring(0, separatorIndex));
+        if (resolving.contains(key)) {
+            throw new PostProcessBeanFactoryException("Circular placeholder reference " +
+                    String.join(" -> ", resolving) + " -> " + key, null);
+        }
+        String value = lookup(key);
+        if (value == null) {
+            if (separatorIndex < 0) {
+                throw new PostProcessBeanFactoryException("Could not resolve placeholder ${" + key + "}", null);
+            }
+            return resolve(placeholder.substring(separatorIndex + 1));
+        }
+        resolving.add(key);
+        try {
+            return resolve(value);
+        } finally {
+            resolving.remove(resolving.size() - 1);
+        }
+    }
+
+    private String lookup(String key) {
+        for (Function<String, String> source : sources) {
+            String value = source.apply(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static int findSuffix(String value, int from) {
+        int depth = 0;
+        for (int i = from; i < value.length(); i++) {
+            if (value.startsWith(PREFIX, i)) {
+                depth++;
+                i += PREFIX.length() - 1;
+            } else if (value.startsWith(SUFFIX, i)) {
+                if (depth == 0) {
+                    return i;
+                }
+                depth--;
+            }
+        }
+        return -1;
+    }
+
+    private static int findDefaultSeparator(String placeholder) {
+        int depth = 0;
+        for (int i = 0; i < placeholder.length(); i++) {
+            if (placeholder.startsWith(PREFIX, i)) {
+                depth++;
+                i += PREFIX.length() - 1;
+            } else if (placeholder.startsWith(SUFFIX, i)) {
+                depth--;
+            } else if (depth == 0 && placeholder.charAt(i) == DEFAULT_SEPARATOR) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String getEnvironmentVariable(String key) {
+        String value = System.getenv(key);
+        if (value == null) {
+            value = System.getenv(key.replace('.', '_').replace('-', '_').toUpperCase(Locale.ROOT));
+        }
+        return value;
+    }
+}
@@ -0,0 +1,153 @@
+package com.study.ioc.placeholder;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Reads {@code .properties} content straight from a buffer in one pass, without a
+ * stream or reader on top. Follows the {@link java.util.Properties} format: comments
+ * start with {@code #} or {@code !}, keys end at {@code =}, {@code :} or whitespace,
+ * lines ending with a backslash continue on the next one and {@code \\uXXXX} escapes
+ * are supported. Content is decoded as UTF-8.
+ */
+final class PropertiesParser {
+    private final ByteBuffer buffer;
+    private final int limit;
+    private final StringBuilder token = new StringBuilder();
+    private int position;
+
+    private PropertiesParser(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.position = buffer.position();
+        this.limit = buffer.limit();
+    }
+
+    static void parse(ByteBuffer buffer, Map<String, String> properties) {
+        new PropertiesParser(buffer).parse(properties);
+    }
+
+    private void parse(Map<String, String> properties) {
+        while (position < limit) {
+            skipWhitespace();
+            if (position >= limit) {
+                break;
+            }
+            byte current = buffer.get(position);
+            if (current == '\n' || current == '\r') {
+                position++;
+                continue;
+            }
+            if (current == '#' || current == '!') {
+                skipLine();
+                continue;
+            }
+            String key = readToken(true);
+            skipWhitespace();
+            if (position < limit && (buffer.get(position) == '=' || buffer.get(position) == ':')) {
+                position++;
+                skipWhitespace();
+            }
+            properties.put(key, readToken(false));
+        }
+    }
+
+    private String readToken(boolean key) {
+        token.setLength(0);
+        while (position < limit) {
+            int current = buffer.get(position) & 0xFF;
+            if (current == '\n' || current == '\r'
+                    || key && (current == '=' || current == ':' || current == ' ' || current == '\t' || current == '\f')) {
+                break;
+            }
+            if (current == '\\') {
+                position++;
+                readEscape();
+            } else if (current < 0x80) {
+                token.append((char) current);
+                position++;
+            } else {
+                readUtf8(current);
+            }
+        }
+        return token.toString();
+    }
+
+    private void readEscape() {
+        if (position >= limit) {
+            return;
+        }
+        byte escaped = buffer.get(position++);
+        switch (escaped) {
+            case '\r' -> {
+                if (position < limit && buffer.get(position) == '\n') {
+                    position++;
+                }
+                skipWhitespace();
+            }
+            case '\n' -> skipWhitespace();
+            case 't' -> token.append('\t');
+            case 'n' -> token.append('\n');
+            case 'r' -> token.append('\r');
+            case 'f' -> token.append('\f');
+            case 'u' -> {
+                if (position + 4 > limit) {
+                    throw new IllegalArgumentException("Malformed \\uXXXX escape at byte " + position);
+                }
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(buffer.get(position++), 16);
+                    if (digit < 0) {
+                        throw new IllegalArgumentException("Malformed \\uXXXX escape at byte " + position);
+                    }
+                    value = (value << 4) | digit;
+                }
+                token.append((char) value);
+            }
+            default -> {
+                position--;
+                int current = buffer.get(position) & 0xFF;
+                if (current < 0x80) {
+                    token.append((char) current);
+                    position++;
+                } else {
+                    readUtf8(current);
+                }
+            }
+        }
+    }
+
+    private void readUtf8(int leadByte) {
+        int length = leadByte >= 0xF0 ? 4 : leadByte >= 0xE0 ? 3 : 2;
+        if (leadByte < 0xC0 || position + length > limit) {
+            token.append('\uFFFD');
+            position++;
+            return;
+        }
+        int codePoint = leadByte & (0xFF >> (length + 1));
+        for (int i = 1; i < length; i++) {
+            codePoint = (codePoint << 6) | (buffer.get(position + i) & 0x3F);
+        }
+        token.appendCodePoint(codePoint);
+        position += length;
+    }
+
+    private void skipWhitespace() {
+        while (position < limit) {
+            byte current = buffer.get(position);
+            if (current != ' ' && current != '\t' && current != '\f') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private void skipLine() {
+        while (position < limit) {
+            byte current = buffer.get(position);
+            if (current == '\n' || current == '\r') {
+                return;
+            }
+            position++;
+        }
+    }
+}
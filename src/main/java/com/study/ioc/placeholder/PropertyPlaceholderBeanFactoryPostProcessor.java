@@ -0,0 +1,123 @@
+package com.study.ioc.placeholder;
+
+import com.study.ioc.entity.BeanDefinition;
+import com.study.ioc.entity.CollectionValue;
+import com.study.ioc.entity.PropertyValues;
+import com.study.ioc.exception.PostProcessBeanFactoryException;
+import com.study.ioc.processor.BeanFactoryPostProcessor;
+import com.study.ioc.reader.resource.Resource;
+import com.study.ioc.reader.resource.ResourceLoader;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves {@code ${key:default}} placeholders in the property values, collection
+ * elements and attributes of bean definitions, see {@link PlaceholderResolver}.
+ * Properties come from the comma separated {@code locations}, later files overriding
+ * earlier ones; system properties and environment variables take precedence over them.
+ * Each properties file is memory-mapped and parsed in a single pass, and a definition
+ * is rebuilt only if one of its strings contains a placeholder.
+ * <p>
+ * Placeholder processors run before the other factory post processors are created, so
+ * the definitions of those and of the bean post processors are resolved as well. The
+ * {@code locations} may contain placeholders for system properties and environment
+ * variables.
+ */
+@Getter
+@Setter
+public class PropertyPlaceholderBeanFactoryPostProcessor implements BeanFactoryPostProcessor {
+    private String locations;
+
+    @Override
+    public void postProcessorBeanFactory(Map<String, BeanDefinition> beanDefinitions) {
+        PlaceholderResolver resolver = PlaceholderResolver.withSystemSources(loadProperties());
+        for (BeanDefinition beanDefinition : beanDefinitions.values()) {
+            resolveDefinition(beanDefinition, resolver);
+        }
+    }
+
+    public Map<String, String> loadProperties() {
+        Map<String, String> properties = new HashMap<>();
+        if (locations == null || locations.isBlank()) {
+            return properties;
+        }
+        ResourceLoader resourceLoader = new ResourceLoader();
+        PlaceholderResolver systemResolver = PlaceholderResolver.withSystemSources(Map.of());
+        for (String location : systemResolver.resolve(locations).split(",")) {
+            Resource resource = resourceLoader.getResource(location.trim());
+            try {
+                PropertiesParser.parse(resource.getByteBuffer(), properties);
+            } catch (IOException e) {
+                throw new PostProcessBeanFactoryException("Can't read properties from " +
+                        resource.getDescription(), e);
+            }
+        }
+        return properties;
+    }
+
+    private static void resolveDefinition(BeanDefinition beanDefinition, PlaceholderResolver resolver) {
+        PropertyValues valueDependencies = resolveValues(beanDefinition.getValueDependencies(), resolver);
+        if (valueDependencies != null) {
+            beanDefinition.setValueDependencies(valueDependencies);
+        }
+        PropertyValues attributes = resolveValues(beanDefinition.getAttributes(), resolver);
+        if (attributes != null) {
+            beanDefinition.setAttributes(attributes);
+        }
+        Map<String, CollectionValue> collections = null;
+        for (Map.Entry<String, CollectionValue> entry : beanDefinition.getCollectionDependencies().entrySet()) {
+            CollectionValue collection = resolveCollection(entry.getValue(), resolver);
+            if (collection != null) {
+                if (collections == null) {
+                    collections = new LinkedHashMap<>(beanDefinition.getCollectionDependencies());
+                }
+                collections.put(entry.getKey(), collection);
+            }
+        }
+        if (collections != null) {
+            beanDefinition.setCollectionDependencies(collections);
+        }
+    }
+
+    /**
+     * @return the collection with resolved keys and values, or {@code null} if there was
+     * nothing to resolve
+     */
+    private static CollectionValue resolveCollection(CollectionValue collection, PlaceholderResolver resolver) {
+        List<CollectionValue.Element> elements = null;
+        for (int i = 0; i < collection.getElements().size(); i++) {
+            CollectionValue.Element element = collection.getElements().get(i);
+            if (PlaceholderResolver.hasPlaceholder(element.key()) || PlaceholderResolver.hasPlaceholder(element.value())) {
+                if (elements == null) {
+                    elements = new ArrayList<>(collection.getElements());
+                }
+                elements.set(i, new CollectionValue.Element(resolver.resolve(element.key()),
+                        resolver.resolve(element.value()), element.ref()));
+            }
+        }
+        return elements == null ? null : collection.withElements(elements);
+    }
+
+    /**
+     * @return the resolved values, or {@code null} if there was nothing to resolve
+     */
+    private static PropertyValues resolveValues(PropertyValues values, PlaceholderResolver resolver) {
+        PropertyValues.Builder builder = null;
+        for (int i = 0; i < values.size(); i++) {
+            if (PlaceholderResolver.hasPlaceholder(values.getValue(i))) {
+                if (builder == null) {
+                    builder = values.toBuilder();
+                }
+                builder.put(values.getName(i), resolver.resolve(values.getValue(i)));
+            }
+        }
+        return builder == null ? null : builder.build();
+    }
+}
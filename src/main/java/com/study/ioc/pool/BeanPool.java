@@ -0,0 +1,263 @@
+package com.study.ioc.pool;
+
+import com.study.ioc.exception.PoolExhaustedException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, lock-free pool of bean instances. Every instance the pool created owns one
+ * of {@code maxSize} slots for its lifetime and sits in that slot while it is idle;
+ * every thread starts probing at its own stripe, so borrowers on different threads
+ * rarely touch the same slot. Idle instances above {@code minSize} are evicted lazily
+ * by whichever thread returns an instance once the idle timeout has passed.
+ * <p>
+ * An instance can only be returned once per borrow: returning an object the pool
+ * didn't create, or one that is already idle, fails instead of pooling it twice.
+ */
+public class BeanPool {
+    private static final long MAX_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+
+    private final String beanName;
+    private final Class<?> beanClass;
+    private final Supplier<Object> factory;
+    private final PoolConfig config;
+    private final AtomicReferenceArray<Object> members;
+    private final AtomicIntegerArray borrowed;
+    private final AtomicReferenceArray<Object> idle;
+    private final AtomicLongArray idleSince;
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicLong lastEviction = new AtomicLong(System.nanoTime());
+    private final long idleTimeoutNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BeanPool(String beanName, Class<?> beanClass, Supplier<Object> factory, PoolConfig config) {
+        this.beanName = beanName;
+        this.beanClass = beanClass;
+        this.factory = factory;
+        this.config = config;
+        this.members = new AtomicReferenceArray<>(config.getMaxSize());
+        this.borrowed = new AtomicIntegerArray(config.getMaxSize());
+        this.idle = new AtomicReferenceArray<>(config.getMaxSize());
+        this.idleSince = new AtomicLongArray(config.getMaxSize());
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.getIdleTimeoutMillis());
+    }
+
+    public void prefill() {
+        while (created.get() < config.getMinSize()) {
+            Object object = tryCreate();
+            if (object == null) {
+                return;
+            }
+            release(object);
+        }
+    }
+
+    public Object borrow() {
+        Object object = pollIdle();
+        if (object != null) {
+            hits.increment();
+            return object;
+        }
+        object = tryCreate();
+        if (object != null) {
+            misses.increment();
+            return object;
+        }
+        return awaitIdle();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the object wasn't borrowed from this pool
+     * @throws IllegalStateException    if the object was already returned
+     */
+    public void release(Object object) {
+        int index = slotOf(object);
+        if (index < 0) {
+            throw new IllegalArgumentException("Object of " + object.getClass().getName() +
+                    " wasn't borrowed from pool " + beanName);
+        }
+        if (!borrowed.compareAndSet(index, 1, 0)) {
+            throw new IllegalStateException("Object was already returned to pool " + beanName);
+        }
+        long now = System.nanoTime();
+        idleSince.set(index, now);
+        idle.set(index, object);
+        evictIfDue(now);
+    }
+
+    public int evictIdle() {
+        return evictIdle(System.nanoTime());
+    }
+
+    public Class<?> getBeanClass() {
+        return beanClass;
+    }
+
+    public PoolStats getStats() {
+        int idleCount = 0;
+        for (int i = 0; i < idle.length(); i++) {
+            if (idle.get(i) != null) {
+                idleCount++;
+            }
+        }
+        return new PoolStats(hits.sum(), misses.sum(), waits.sum(), waitNanos.sum(), evictions.sum(),
+                idleCount, created.get());
+    }
+
+    private Object pollIdle() {
+        int length = idle.length();
+        int start = stripe(length);
+        for (int i = 0; i < length; i++) {
+            int index = (start + i) % length;
+            Object object = idle.get(index);
+            if (object != null && idle.compareAndSet(index, object, null)) {
+                borrowed.set(index, 1);
+                return object;
+            }
+        }
+        return null;
+    }
+
+    private int slotOf(Object object) {
+        int length = members.length();
+        int start = stripe(length);
+        for (int i = 0; i < length; i++) {
+            int index = (start + i) % length;
+            if (members.get(index) == object) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gives a new instance a slot. There is one for every instance counted in
+     * {@code created}; only while an evicting thread hasn't cleared the slot of the
+     * instance it just uncounted all of them can be taken for a moment.
+     */
+    private void addMember(Object object) {
+        int length = members.length();
+        int start = stripe(length);
+        while (true) {
+            for (int i = 0; i < length; i++) {
+                int index = (start + i) % length;
+                if (members.get(index) == null && members.compareAndSet(index, null, object)) {
+                    borrowed.set(index, 1);
+                    return;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private Object tryCreate() {
+        while (true) {
+            int count = created.get();
+            if (count >= config.getMaxSize()) {
+                return null;
+            }
+            if (created.compareAndSet(count, count + 1)) {
+                Object object;
+                try {
+                    object = factory.get();
+                } catch (RuntimeException | Error e) {
+                    created.decrementAndGet();
+                    throw e;
+                }
+                addMember(object);
+                return object;
+            }
+        }
+    }
+
+    private Object awaitIdle() {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(config.getMaxWaitMillis());
+        long parkNanos = 1_000;
+        waits.increment();
+        while (true) {
+            Object object = pollIdle();
+            if (object != null) {
+                hits.increment();
+                waitNanos.add(System.nanoTime() - start);
+                return object;
+            }
+            object = tryCreate();
+            if (object != null) {
+                misses.increment();
+                waitNanos.add(System.nanoTime() - start);
+                return object;
+            }
+            long now = System.nanoTime();
+            if (now - deadline >= 0) {
+                waitNanos.add(now - start);
+                throw new PoolExhaustedException(beanName, config.getMaxWaitMillis());
+            }
+            LockSupport.parkNanos(Math.min(parkNanos, deadline - now));
+            parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+        }
+    }
+
+    private void evictIfDue(long now) {
+        if (idleTimeoutNanos <= 0) {
+            return;
+        }
+        long last = lastEviction.get();
+        if (now - last >= idleTimeoutNanos && lastEviction.compareAndSet(last, now)) {
+            evictIdle(now);
+        }
+    }
+
+    /**
+     * Takes an expired instance out of its slot first, so no borrower can get it, and
+     * only then uncounts it if that keeps {@code minSize} instances; otherwise it goes
+     * back and eviction stops.
+     */
+    private int evictIdle(long now) {
+        int evicted = 0;
+        for (int i = 0; i < idle.length(); i++) {
+            Object object = idle.get(i);
+            if (object == null || now - idleSince.get(i) < idleTimeoutNanos || !idle.compareAndSet(i, object, null)) {
+                continue;
+            }
+            if (!decrementAboveMinSize()) {
+                idle.set(i, object);
+                break;
+            }
+            members.set(i, null);
+            evicted++;
+        }
+        evictions.add(evicted);
+        return evicted;
+    }
+
+    private boolean decrementAboveMinSize() {
+        while (true) {
+            int count = created.get();
+            if (count <= config.getMinSize()) {
+                return false;
+            }
+            if (created.compareAndSet(count, count - 1)) {
+                return true;
+            }
+        }
+    }
+
+    private static int stripe(int length) {
+        int hash = (int) Thread.currentThread().getId() * 0x9E3779B9;
+        return (hash >>> 1) % length;
+    }
+}
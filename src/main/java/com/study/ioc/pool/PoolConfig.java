@@ -0,0 +1,56 @@
+package com.study.ioc.pool;
+
+import com.study.ioc.entity.PropertyValues;
+import com.study.ioc.exception.BeanInstantiationException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Sizing of a {@link BeanPool}, read from the {@code pool-*} attributes of a
+ * {@code <bean scope="pooled">} element.
+ */
+@Getter
+@AllArgsConstructor
+public class PoolConfig {
+    public static final String MIN_SIZE = "pool-min-size";
+    public static final String MAX_SIZE = "pool-max-size";
+    public static final String IDLE_TIMEOUT = "pool-idle-timeout";
+    public static final String MAX_WAIT = "pool-max-wait";
+
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long maxWaitMillis;
+
+    public static PoolConfig from(String beanName, PropertyValues attributes) {
+        int maxSize = parseSize(beanName, attributes, MAX_SIZE, Runtime.getRuntime().availableProcessors() * 2);
+        int minSize = parseSize(beanName, attributes, MIN_SIZE, 0);
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new BeanInstantiationException("Invalid pool size " + minSize + ".." + maxSize +
+                    " for bean " + beanName, null);
+        }
+        return new PoolConfig(minSize, maxSize,
+                parse(beanName, attributes, IDLE_TIMEOUT, 60_000),
+                parse(beanName, attributes, MAX_WAIT, 1_000));
+    }
+
+    private static int parseSize(String beanName, PropertyValues attributes, String name, int defaultValue) {
+        long size = parse(beanName, attributes, name, defaultValue);
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            throw new BeanInstantiationException("Invalid " + name + " value " + size + " for bean " + beanName, null);
+        }
+        return (int) size;
+    }
+
+    private static long parse(String beanName, PropertyValues attributes, String name, long defaultValue) {
+        String value = attributes.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new BeanInstantiationException("Invalid " + name + " value " + value + " for bean " + beanName, e);
+        }
+    }
+}
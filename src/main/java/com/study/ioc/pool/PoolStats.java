@@ -0,0 +1,29 @@
+package com.study.ioc.pool;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Point-in-time counters of a {@link BeanPool}. A hit is a borrow served by an idle
+ * instance, a miss is a borrow that had to create one.
+ */
+@Getter
+@AllArgsConstructor
+public class PoolStats {
+    private final long hits;
+    private final long misses;
+    private final long waits;
+    private final long totalWaitNanos;
+    private final long evictions;
+    private final int idle;
+    private final int created;
+
+    public double getHitRate() {
+        long borrows = hits + misses;
+        return borrows == 0 ? 0 : (double) hits / borrows;
+    }
+
+    public double getAverageWaitNanos() {
+        return waits == 0 ? 0 : (double) totalWaitNanos / waits;
+    }
+}
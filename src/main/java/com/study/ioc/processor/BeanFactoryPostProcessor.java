@@ -4,6 +4,14 @@ import com.study.ioc.entity.BeanDefinition;
 
 import java.util.Map;
 
+/**
+ * Changes bean definitions before any bean is created. Factory post processors run in the
+ * order of their definitions, except that every
+ * {@link com.study.ioc.placeholder.PropertyPlaceholderBeanFactoryPostProcessor} runs
+ * before the others are created: placeholders in the properties of any bean, factory
+ * post processors and post processors included, are resolved by then. The properties of
+ * a placeholder processor itself only see system properties and environment variables.
+ */
 public interface BeanFactoryPostProcessor {
 
     void postProcessorBeanFactory(Map<String, BeanDefinition> beanDefinitions);
@@ -1,8 +1,8 @@
 package com.study.ioc.processor;
 
 import com.study.ioc.entity.BeanDefinition;
+import com.study.ioc.entity.PropertyValues;
 
-import java.util.HashMap;
 import java.util.Map;
 
 public class CustomBeanFactoryPostProcessor implements BeanFactoryPostProcessor{
@@ -13,11 +13,10 @@ public class CustomBeanFactoryPostProcessor implements BeanFactoryPostProcessor{
             BeanDefinition beanDefinition = entry.getValue();
 
             if (beanDefinition.getId().equals(("mailServicePOP"))){
-                Map<String, String> myMap = new HashMap<>() {{
-                    put("port", "1000");
-                    put("protocol", "TEST");
-                }};
-                beanDefinition.setValueDependencies(myMap);
+                beanDefinition.setValueDependencies(beanDefinition.getValueDependencies().toBuilder()
+                        .put("port", "1000")
+                        .put("protocol", "TEST")
+                        .build());
             }
         }
     }
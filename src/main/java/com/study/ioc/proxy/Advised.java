@@ -0,0 +1,16 @@
+package com.study.ioc.proxy;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implemented by every proxy created by {@link ProxyFactory}. Lets a post processor
+ * that runs after another one add its interceptors to the existing proxy instead of
+ * wrapping it again.
+ */
+public interface Advised {
+    Object getProxyTarget();
+
+    Map<Method, List<MethodInterceptor>> getProxyInterceptors();
+}
@@ -0,0 +1,71 @@
+package com.study.ioc.proxy;
+
+import com.study.ioc.entity.Bean;
+import com.study.ioc.processor.BeanPostProcessor;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base class for post processors that add advice to bean methods. Subclasses decide
+ * per method whether to intercept it; the bean is then replaced by a generated proxy.
+ * Several such processors on one bean share a single proxy.
+ */
+public abstract class InterceptingBeanPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessBeforeInitialization(Bean bean, String beanName) {
+        return bean.getValue();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Bean bean, String beanName) {
+        Object value = bean.getValue();
+        Object target = ProxyFactory.getTarget(value);
+        Map<Method, List<MethodInterceptor>> interceptors = new LinkedHashMap<>();
+        for (Method method : ProxyFactory.getInterceptableMethods(target.getClass())) {
+            MethodInterceptor interceptor = createInterceptor(beanName, target, method);
+            if (interceptor != null) {
+                interceptors.put(method, List.of(interceptor));
+            }
+        }
+        if (interceptors.isEmpty()) {
+            return value;
+        }
+        return ProxyFactory.createProxy(value, interceptors);
+    }
+
+    /**
+     * Returns the interceptor to apply to {@code method} of the bean or {@code null}
+     * to leave the method alone.
+     */
+    protected abstract MethodInterceptor createInterceptor(String beanName, Object target, Method method);
+
+    /**
+     * Finds an annotation on a method of the target class or on the same method of one
+     * of its interfaces.
+     */
+    protected static <A extends Annotation> A findAnnotation(Object target, Method method, Class<A> annotationType) {
+        A annotation = method.getAnnotation(annotationType);
+        if (annotation != null) {
+            return annotation;
+        }
+        for (Class<?> clazz = target.getClass(); clazz != null; clazz = clazz.getSuperclass()) {
+            for (Class<?> interfaceClass : clazz.getInterfaces()) {
+                try {
+                    annotation = interfaceClass.getMethod(method.getName(), method.getParameterTypes())
+                            .getAnnotation(annotationType);
+                    if (annotation != null) {
+                        return annotation;
+                    }
+                } catch (NoSuchMethodException e) {
+                    // not declared by this interface
+                }
+            }
+        }
+        return null;
+    }
+}
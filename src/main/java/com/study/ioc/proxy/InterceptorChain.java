@@ -0,0 +1,26 @@
+package com.study.ioc.proxy;
+
+import java.lang.reflect.Method;
+
+/**
+ * Interceptors of one proxied method of one proxy instance. Proxies of the same
+ * class share their generated code and differ only in their chains, which are
+ * handed to each instance when it is created.
+ */
+public final class InterceptorChain {
+    private final Method method;
+    private final MethodInterceptor[] interceptors;
+
+    InterceptorChain(Method method, MethodInterceptor[] interceptors) {
+        this.method = method;
+        this.interceptors = interceptors;
+    }
+
+    Method getMethod() {
+        return method;
+    }
+
+    MethodInterceptor[] getInterceptors() {
+        return interceptors;
+    }
+}
@@ -0,0 +1,10 @@
+package com.study.ioc.proxy;
+
+/**
+ * Advice around a proxied method. Implementations call {@link MethodInvocation#proceed()}
+ * to continue with the next interceptor and finally the target method.
+ */
+@FunctionalInterface
+public interface MethodInterceptor {
+    Object invoke(MethodInvocation invocation) throws Throwable;
+}
@@ -0,0 +1,80 @@
+package com.study.ioc.proxy;
+
+import java.lang.reflect.Method;
+
+/**
+ * One call travelling through an {@link InterceptorChain}. Every advised method gets a
+ * generated subclass that keeps the arguments in typed fields: a call through the proxy
+ * boxes nothing and allocates no array until an interceptor asks for
+ * {@link #getArguments()}; {@link #getArgument(int)} reads a single argument without
+ * building the array.
+ */
+public abstract class MethodInvocation {
+    private final InterceptorChain chain;
+    private final Object target;
+    private Object[] arguments;
+    private int index;
+
+    protected MethodInvocation(InterceptorChain chain, Object target) {
+        this.chain = chain;
+        this.target = target;
+    }
+
+    public Method getMethod() {
+        return chain.getMethod();
+    }
+
+    public Object getTarget() {
+        return target;
+    }
+
+    /**
+     * The arguments, boxed on first access. Changes to the array are passed on to the
+     * target.
+     */
+    public Object[] getArguments() {
+        if (arguments == null) {
+            arguments = createArguments();
+        }
+        return arguments;
+    }
+
+    /**
+     * One argument, boxed if it is primitive.
+     */
+    public Object getArgument(int index) {
+        return arguments != null ? arguments[index] : argument(index);
+    }
+
+    public int getArgumentCount() {
+        return chain.getMethod().getParameterCount();
+    }
+
+    public Object proceed() throws Throwable {
+        MethodInterceptor[] interceptors = chain.getInterceptors();
+        if (index < interceptors.length) {
+            return interceptors[index++].invoke(this);
+        }
+        if (arguments != null) {
+            applyArguments(arguments);
+        }
+        return invokeTarget(target);
+    }
+
+    /**
+     * @return a new array with the boxed arguments
+     */
+    protected abstract Object[] createArguments();
+
+    /**
+     * Copies arguments an interceptor may have changed back into the typed fields.
+     */
+    protected abstract void applyArguments(Object[] arguments);
+
+    protected abstract Object invokeTarget(Object target) throws Throwable;
+
+    /**
+     * @return the typed argument at {@code index}, boxed
+     */
+    protected abstract Object argument(int index);
+}
@@ -0,0 +1,283 @@
+package com.study.ioc.proxy;
+
+import com.study.ioc.exception.ProxyCreationException;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates interception proxies as hidden classes defined next to the target class.
+ * Beans whose class can be subclassed get a class proxy, so they stay assignable to
+ * their own class; other beans get a proxy implementing all of their interfaces.
+ * <p>
+ * A proxy class is generated once per target class and set of advised methods and
+ * shared by all proxies of that shape, so scoped, pooled and template-made contexts
+ * don't generate classes per instance; every proxy gets its own interceptor chains.
+ * <p>
+ * A class proxy is allocated without running a constructor, the target's state lives in
+ * the target only. Its own copy of the target class's fields stays at the defaults, so a
+ * class with public final methods, which the proxy can't override, gets an interface
+ * proxy instead, and can't be proxied if it has no interfaces. Protected methods
+ * inherited from a class in another package aren't overridden either: the proxy can't
+ * call them on the target, so they run on the proxy's own, uninitialized state. Class
+ * proxies need {@code sun.misc.Unsafe} for the allocation; without it every bean gets an
+ * interface proxy.
+ */
+public final class ProxyFactory {
+    private static final String PROXY_SUFFIX = "$$IocProxy";
+    private static final String INVOCATION_SUFFIX = "$$IocInvocation";
+    private static final MethodHandle ALLOCATE_INSTANCE = findAllocateInstance();
+    private static final ClassValue<Map<List<String>, ProxyClass>> PROXY_CLASSES = new ClassValue<>() {
+        @Override
+        protected Map<List<String>, ProxyClass> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private ProxyFactory() {
+    }
+
+    /**
+     * Creates a proxy around {@code target}. If {@code target} is already a proxy, the
+     * new interceptors run after the existing ones on a proxy of the original target.
+     */
+    public static Object createProxy(Object target, Map<Method, List<MethodInterceptor>> interceptors) {
+        Map<String, List<MethodInterceptor>> interceptorsBySignature = new LinkedHashMap<>();
+        if (target instanceof Advised advised) {
+            addInterceptors(interceptorsBySignature, advised.getProxyInterceptors());
+            target = advised.getProxyTarget();
+        }
+        addInterceptors(interceptorsBySignature, interceptors);
+        interceptorsBySignature.values().removeIf(List::isEmpty);
+
+        Class<?> targetClass = target.getClass();
+        List<String> advisedSignatures = interceptorsBySignature.keySet().stream().sorted().toList();
+        ProxyClass proxyClass = PROXY_CLASSES.get(targetClass).computeIfAbsent(advisedSignatures,
+                signatures -> defineProxyClass(targetClass, Set.copyOf(signatures)));
+
+        List<Method> advisedMethods = proxyClass.advisedMethods();
+        InterceptorChain[] chains = new InterceptorChain[advisedMethods.size()];
+        Map<Method, List<MethodInterceptor>> appliedInterceptors = new LinkedHashMap<>();
+        for (int i = 0; i < chains.length; i++) {
+            Method method = advisedMethods.get(i);
+            List<MethodInterceptor> methodInterceptors = interceptorsBySignature.get(signatureOf(method));
+            chains[i] = new InterceptorChain(method, methodInterceptors.toArray(new MethodInterceptor[0]));
+            appliedInterceptors.put(method, List.copyOf(methodInterceptors));
+        }
+        try {
+            Object proxy = proxyClass.allocator().invoke();
+            proxyClass.initializer().invoke(proxy, target, chains, Collections.unmodifiableMap(appliedInterceptors));
+            return proxy;
+        } catch (Throwable e) {
+            throw new ProxyCreationException("Proxy creation failed for " + targetClass.getName(), e);
+        }
+    }
+
+    public static boolean isProxy(Object bean) {
+        return bean instanceof Advised;
+    }
+
+    public static Object getTarget(Object bean) {
+        return bean instanceof Advised advised ? advised.getProxyTarget() : bean;
+    }
+
+    /**
+     * Public, overridable methods of a bean's target class, the ones a post processor
+     * can attach interceptors to.
+     */
+    public static List<Method> getInterceptableMethods(Class<?> targetClass) {
+        List<Method> methods = new ArrayList<>();
+        for (Method method : targetClass.getMethods()) {
+            if (isOverridable(method) && method.getDeclaringClass() != Object.class) {
+                methods.add(method);
+            }
+        }
+        return methods;
+    }
+
+    private static void addInterceptors(Map<String, List<MethodInterceptor>> interceptorsBySignature,
+                                        Map<Method, List<MethodInterceptor>> interceptors) {
+        interceptors.forEach((method, methodInterceptors) -> interceptorsBySignature
+                .computeIfAbsent(signatureOf(method), signature -> new ArrayList<>())
+                .addAll(methodInterceptors));
+    }
+
+    /**
+     * Generates the proxy class for a target class and the signatures of its advised
+     * methods, with one invocation class per advised method.
+     */
+    private static ProxyClass defineProxyClass(Class<?> targetClass, Set<String> advisedSignatures) {
+        Method finalMethod = findPublicFinalMethod(targetClass);
+        boolean classProxy = canSubclass(targetClass) && finalMethod == null;
+        List<Class<?>> interfaces = classProxy ? List.of() : collectInterfaces(targetClass);
+        if (!classProxy && interfaces.isEmpty()) {
+            throw new ProxyCreationException("Can't proxy " + targetClass.getName() + ": " + (finalMethod == null
+                    ? "class is final" : "method " + finalMethod.getName() + " is final")
+                    + " and the class implements no interfaces");
+        }
+        List<Method> methods = new ArrayList<>(classProxy ? collectClassMethods(targetClass)
+                : collectInterfaceMethods(interfaces));
+        Class<?> targetType = classProxy ? targetClass : Object.class;
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(targetClass, MethodHandles.lookup());
+            String internalName = Type.getInternalName(targetClass);
+            List<Method> advisedMethods = new ArrayList<>();
+            List<MethodHandle> invocationConstructors = new ArrayList<>();
+            int[] invocationIndexes = new int[methods.size()];
+            for (int i = 0; i < methods.size(); i++) {
+                Method method = methods.get(i);
+                if (!advisedSignatures.contains(signatureOf(method))) {
+                    invocationIndexes[i] = -1;
+                    continue;
+                }
+                invocationIndexes[i] = advisedMethods.size();
+                advisedMethods.add(method);
+                byte[] invocationBytes = ProxyGenerator.generateInvocation(internalName + INVOCATION_SUFFIX, targetType,
+                        method);
+                MethodHandles.Lookup invocationLookup = lookup.defineHiddenClass(invocationBytes, true);
+                MethodType constructorType = MethodType.fromMethodDescriptorString(
+                        ProxyGenerator.invocationConstructorDescriptor(targetType, method, Type.VOID_TYPE),
+                        targetClass.getClassLoader());
+                invocationConstructors.add(invocationLookup.findConstructor(invocationLookup.lookupClass(), constructorType)
+                        .asType(constructorType.changeReturnType(MethodInvocation.class)));
+            }
+
+            byte[] bytes = ProxyGenerator.generateProxy(internalName + PROXY_SUFFIX, targetType, targetType, interfaces,
+                    methods, invocationIndexes, !classProxy);
+            MethodHandles.Lookup proxyLookup = lookup.defineHiddenClassWithClassData(bytes,
+                    List.copyOf(invocationConstructors), true);
+            Class<?> proxyClass = proxyLookup.lookupClass();
+            MethodHandle allocator = classProxy ? ALLOCATE_INSTANCE.bindTo(proxyClass)
+                    : proxyLookup.findConstructor(proxyClass, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+            MethodHandle initializer = proxyLookup.findVirtual(proxyClass, ProxyGenerator.INIT_METHOD,
+                    MethodType.methodType(void.class, Object.class, InterceptorChain[].class, Map.class))
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class, InterceptorChain[].class,
+                            Map.class));
+            return new ProxyClass(List.copyOf(advisedMethods), allocator, initializer);
+        } catch (ProxyCreationException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ProxyCreationException("Proxy creation failed for " + targetClass.getName(), e);
+        }
+    }
+
+    private static boolean canSubclass(Class<?> targetClass) {
+        return ALLOCATE_INSTANCE != null && !Modifier.isFinal(targetClass.getModifiers()) && !targetClass.isHidden()
+                && !targetClass.isAnonymousClass() && !targetClass.getName().startsWith("java.");
+    }
+
+    /**
+     * A public final instance method a class proxy would inherit and run on its own
+     * uninitialized fields, or {@code null}.
+     */
+    private static Method findPublicFinalMethod(Class<?> targetClass) {
+        for (Method method : targetClass.getMethods()) {
+            int modifiers = method.getModifiers();
+            if (Modifier.isFinal(modifiers) && !Modifier.isStatic(modifiers) && method.getDeclaringClass() != Object.class) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * {@code Unsafe.allocateInstance}, which creates a class proxy without running the
+     * constructors of the target class, or {@code null} if it isn't available.
+     */
+    private static MethodHandle findAllocateInstance() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles.lookup().findVirtual(unsafeClass, "allocateInstance",
+                    MethodType.methodType(Object.class, Class.class)).bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static List<Class<?>> collectInterfaces(Class<?> targetClass) {
+        Set<Class<?>> interfaces = new LinkedHashSet<>();
+        for (Class<?> clazz = targetClass; clazz != null; clazz = clazz.getSuperclass()) {
+            for (Class<?> interfaceClass : clazz.getInterfaces()) {
+                if (interfaceClass != Advised.class) {
+                    interfaces.add(interfaceClass);
+                }
+            }
+        }
+        return List.copyOf(interfaces);
+    }
+
+    private static Collection<Method> collectClassMethods(Class<?> targetClass) {
+        Map<String, Method> methods = new LinkedHashMap<>();
+        for (Method method : targetClass.getMethods()) {
+            if (isOverridable(method)) {
+                methods.putIfAbsent(signatureOf(method), method);
+            }
+        }
+        for (Class<?> clazz = targetClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Method method : clazz.getDeclaredMethods()) {
+                int modifiers = method.getModifiers();
+                boolean samePackage = clazz.getPackageName().equals(targetClass.getPackageName());
+                if (isOverridable(method) && !Modifier.isPrivate(modifiers)
+                        && (Modifier.isPublic(modifiers) || samePackage)) {
+                    methods.putIfAbsent(signatureOf(method), method);
+                }
+            }
+        }
+        return methods.values();
+    }
+
+    private static Collection<Method> collectInterfaceMethods(List<Class<?>> interfaces) {
+        Map<String, Method> methods = new LinkedHashMap<>();
+        for (Class<?> interfaceClass : interfaces) {
+            for (Method method : interfaceClass.getMethods()) {
+                if (!Modifier.isStatic(method.getModifiers())) {
+                    methods.putIfAbsent(signatureOf(method), method);
+                }
+            }
+        }
+        for (String name : List.of("equals", "hashCode", "toString")) {
+            for (Method method : Object.class.getMethods()) {
+                if (method.getName().equals(name)) {
+                    methods.putIfAbsent(signatureOf(method), method);
+                }
+            }
+        }
+        return methods.values();
+    }
+
+    private static boolean isOverridable(Method method) {
+        int modifiers = method.getModifiers();
+        return !Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers) && !method.isBridge()
+                && !method.isSynthetic();
+    }
+
+    private static String signatureOf(Method method) {
+        return method.getName() + Type.getMethodDescriptor(method);
+    }
+
+    /**
+     * A generated proxy class. The allocator takes no arguments; the initializer takes
+     * the proxy, the target, the chains in the order of {@code advisedMethods} and the
+     * interceptor map.
+     */
+    private record ProxyClass(List<Method> advisedMethods, MethodHandle allocator, MethodHandle initializer) {
+    }
+}
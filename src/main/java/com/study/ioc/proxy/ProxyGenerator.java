@@ -0,0 +1,404 @@
+package com.study.ioc.proxy;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.ConstantDynamic;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+/**
+ * Writes the bytecode of proxy classes and of their {@link MethodInvocation} subclasses.
+ * <p>
+ * A proxy class has no constructor that runs code of the target class: a class proxy is
+ * allocated without any constructor and every proxy is set up by a private init method
+ * with its target, its {@link InterceptorChain}s and the interceptor map returned by
+ * {@link Advised}. Methods without interceptors delegate to the target with a plain
+ * virtual or interface call. An intercepted method passes its typed arguments to the
+ * constructor of its invocation class, a method handle loaded as a dynamic constant from
+ * the hidden class data, and calls {@link MethodInvocation#proceed()} on the result.
+ */
+final class ProxyGenerator {
+    static final String INIT_METHOD = "$$init";
+    private static final String INIT_DESCRIPTOR = "(Ljava/lang/Object;[" + Type.getDescriptor(InterceptorChain.class)
+            + "Ljava/util/Map;)V";
+
+    private static final String TARGET_FIELD = "target";
+    private static final String CHAIN_FIELD = "chain";
+    private static final String INTERCEPTORS_FIELD = "interceptors";
+    private static final String ARGUMENT_FIELD = "argument";
+    private static final String CHAIN_DESCRIPTOR = Type.getDescriptor(InterceptorChain.class);
+    private static final String INVOCATION_INTERNAL_NAME = Type.getInternalName(MethodInvocation.class);
+    private static final String METHOD_HANDLE_DESCRIPTOR = "Ljava/lang/invoke/MethodHandle;";
+    private static final Handle CLASS_DATA_AT = new Handle(Opcodes.H_INVOKESTATIC, "java/lang/invoke/MethodHandles",
+            "classDataAt", "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;I)Ljava/lang/Object;",
+            false);
+
+    private ProxyGenerator() {
+    }
+
+    /**
+     * @param methods          methods to override, in the order of {@code invocationIndexes}
+     * @param invocationIndexes index of each method's chain and invocation constructor in the
+     *                          class data, {@code -1} for plain delegation
+     * @param constructor      whether to write a no-arg constructor; a class proxy has none
+     *                          and is allocated without one
+     */
+    static byte[] generateProxy(String internalName, Class<?> superClass, Class<?> targetType, List<Class<?>> interfaces,
+                                List<Method> methods, int[] invocationIndexes, boolean constructor) {
+        ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        String[] interfaceNames = new String[interfaces.size() + 1];
+        for (int i = 0; i < interfaces.size(); i++) {
+            interfaceNames[i] = Type.getInternalName(interfaces.get(i));
+        }
+        interfaceNames[interfaces.size()] = Type.getInternalName(Advised.class);
+        String superName = Type.getInternalName(superClass);
+        String targetDescriptor = Type.getDescriptor(targetType);
+
+        classWriter.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER,
+                internalName, null, superName, interfaceNames);
+        classWriter.visitField(Opcodes.ACC_PRIVATE, TARGET_FIELD, targetDescriptor, null, null).visitEnd();
+        classWriter.visitField(Opcodes.ACC_PRIVATE, INTERCEPTORS_FIELD, "Ljava/util/Map;", null, null).visitEnd();
+        int chains = 0;
+        for (int invocationIndex : invocationIndexes) {
+            if (invocationIndex >= 0) {
+                classWriter.visitField(Opcodes.ACC_PRIVATE, CHAIN_FIELD + invocationIndex, CHAIN_DESCRIPTOR, null, null)
+                        .visitEnd();
+                chains++;
+            }
+        }
+
+        if (constructor) {
+            writeConstructor(classWriter, superName);
+        }
+        writeInitMethod(classWriter, internalName, targetType, targetDescriptor, chains);
+        for (int i = 0; i < methods.size(); i++) {
+            Method method = methods.get(i);
+            if (invocationIndexes[i] < 0) {
+                writeDelegatingMethod(classWriter, internalName, targetType, targetDescriptor, method);
+            } else {
+                writeInterceptedMethod(classWriter, internalName, targetType, targetDescriptor, method,
+                        invocationIndexes[i]);
+            }
+        }
+        writeAdvisedMethods(classWriter, internalName, targetDescriptor);
+
+        classWriter.visitEnd();
+        return classWriter.toByteArray();
+    }
+
+    /**
+     * Writes the invocation class of one method. Its constructor takes the chain, the
+     * target and the typed arguments, which stay in typed fields until an interceptor
+     * asks for them.
+     */
+    static byte[] generateInvocation(String internalName, Class<?> targetType, Method method) {
+        ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+            @Override
+            protected String getCommonSuperClass(String first, String second) {
+                return "java/lang/Object";
+            }
+        };
+        classWriter.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER,
+                internalName, null, INVOCATION_INTERNAL_NAME, null);
+        Type[] argumentTypes = Type.getArgumentTypes(method);
+        for (int i = 0; i < argumentTypes.length; i++) {
+            classWriter.visitField(Opcodes.ACC_PRIVATE, ARGUMENT_FIELD + i, argumentTypes[i].getDescriptor(), null, null)
+                    .visitEnd();
+        }
+
+        MethodVisitor mv = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "<init>",
+                invocationConstructorDescriptor(targetType, method, Type.VOID_TYPE), null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, INVOCATION_INTERNAL_NAME, "<init>",
+                "(" + CHAIN_DESCRIPTOR + "Ljava/lang/Object;)V", false);
+        int slot = 3;
+        for (int i = 0; i < argumentTypes.length; i++) {
+            mv.visitVarInsn(Opcodes.ALOAD, 0);
+            mv.visitVarInsn(argumentTypes[i].getOpcode(Opcodes.ILOAD), slot);
+            mv.visitFieldInsn(Opcodes.PUTFIELD, internalName, ARGUMENT_FIELD + i, argumentTypes[i].getDescriptor());
+            slot += argumentTypes[i].getSize();
+        }
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        mv = classWriter.visitMethod(Opcodes.ACC_PROTECTED, "createArguments", "()[Ljava/lang/Object;", null, null);
+        mv.visitCode();
+        pushInt(mv, argumentTypes.length);
+        mv.visitTypeInsn(Opcodes.ANEWARRAY, "java/lang/Object");
+        for (int i = 0; i < argumentTypes.length; i++) {
+            mv.visitInsn(Opcodes.DUP);
+            pushInt(mv, i);
+            loadArgument(mv, internalName, argumentTypes, i);
+            box(mv, argumentTypes[i]);
+            mv.visitInsn(Opcodes.AASTORE);
+        }
+        mv.visitInsn(Opcodes.ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        mv = classWriter.visitMethod(Opcodes.ACC_PROTECTED, "applyArguments", "([Ljava/lang/Object;)V", null, null);
+        mv.visitCode();
+        for (int i = 0; i < argumentTypes.length; i++) {
+            mv.visitVarInsn(Opcodes.ALOAD, 0);
+            mv.visitVarInsn(Opcodes.ALOAD, 1);
+            pushInt(mv, i);
+            mv.visitInsn(Opcodes.AALOAD);
+            unbox(mv, argumentTypes[i]);
+            mv.visitFieldInsn(Opcodes.PUTFIELD, internalName, ARGUMENT_FIELD + i, argumentTypes[i].getDescriptor());
+        }
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        mv = classWriter.visitMethod(Opcodes.ACC_PROTECTED, "invokeTarget", "(Ljava/lang/Object;)Ljava/lang/Object;",
+                null, new String[]{"java/lang/Throwable"});
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        Class<?> owner = method.getDeclaringClass();
+        boolean interfaceCall = targetType == Object.class && owner.isInterface();
+        if (interfaceCall) {
+            mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(owner));
+        } else if (targetType != Object.class) {
+            mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(targetType));
+        }
+        for (int i = 0; i < argumentTypes.length; i++) {
+            loadArgument(mv, internalName, argumentTypes, i);
+        }
+        invokeTarget(mv, targetType, method);
+        Type returnType = Type.getType(method.getReturnType());
+        if (returnType.getSort() == Type.VOID) {
+            mv.visitInsn(Opcodes.ACONST_NULL);
+        } else {
+            box(mv, returnType);
+        }
+        mv.visitInsn(Opcodes.ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        mv = classWriter.visitMethod(Opcodes.ACC_PROTECTED, "argument", "(I)Ljava/lang/Object;", null, null);
+        mv.visitCode();
+        for (int i = 0; i < argumentTypes.length; i++) {
+            Label next = new Label();
+            mv.visitVarInsn(Opcodes.ILOAD, 1);
+            pushInt(mv, i);
+            mv.visitJumpInsn(Opcodes.IF_ICMPNE, next);
+            loadArgument(mv, internalName, argumentTypes, i);
+            box(mv, argumentTypes[i]);
+            mv.visitInsn(Opcodes.ARETURN);
+            mv.visitLabel(next);
+        }
+        mv.visitTypeInsn(Opcodes.NEW, "java/lang/IndexOutOfBoundsException");
+        mv.visitInsn(Opcodes.DUP);
+        mv.visitVarInsn(Opcodes.ILOAD, 1);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/IndexOutOfBoundsException", "<init>", "(I)V", false);
+        mv.visitInsn(Opcodes.ATHROW);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        classWriter.visitEnd();
+        return classWriter.toByteArray();
+    }
+
+    /**
+     * @return the descriptor of an invocation constructor, or of the method handle the
+     * proxy calls it through when {@code returnType} is {@link MethodInvocation}
+     */
+    static String invocationConstructorDescriptor(Class<?> targetType, Method method, Type returnType) {
+        StringBuilder descriptor = new StringBuilder("(").append(CHAIN_DESCRIPTOR).append(Type.getDescriptor(targetType));
+        for (Type argumentType : Type.getArgumentTypes(method)) {
+            descriptor.append(argumentType.getDescriptor());
+        }
+        return descriptor.append(')').append(returnType.getDescriptor()).toString();
+    }
+
+    private static void writeConstructor(ClassWriter classWriter, String superName) {
+        MethodVisitor mv = classWriter.visitMethod(Opcodes.ACC_PRIVATE, "<init>", "()V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, superName, "<init>", "()V", false);
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void writeInitMethod(ClassWriter classWriter, String internalName, Class<?> targetType,
+                                        String targetDescriptor, int chains) {
+        MethodVisitor mv = classWriter.visitMethod(Opcodes.ACC_PRIVATE, INIT_METHOD, INIT_DESCRIPTOR, null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(targetType));
+        mv.visitFieldInsn(Opcodes.PUTFIELD, internalName, TARGET_FIELD, targetDescriptor);
+        for (int i = 0; i < chains; i++) {
+            mv.visitVarInsn(Opcodes.ALOAD, 0);
+            mv.visitVarInsn(Opcodes.ALOAD, 2);
+            pushInt(mv, i);
+            mv.visitInsn(Opcodes.AALOAD);
+            mv.visitFieldInsn(Opcodes.PUTFIELD, internalName, CHAIN_FIELD + i, CHAIN_DESCRIPTOR);
+        }
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitVarInsn(Opcodes.ALOAD, 3);
+        mv.visitFieldInsn(Opcodes.PUTFIELD, internalName, INTERCEPTORS_FIELD, "Ljava/util/Map;");
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void writeDelegatingMethod(ClassWriter classWriter, String internalName, Class<?> targetType,
+                                              String targetDescriptor, Method method) {
+        String descriptor = Type.getMethodDescriptor(method);
+        MethodVisitor mv = visitMethod(classWriter, method, descriptor);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitFieldInsn(Opcodes.GETFIELD, internalName, TARGET_FIELD, targetDescriptor);
+
+        Class<?> owner = method.getDeclaringClass();
+        if (targetType == Object.class && owner.isInterface()) {
+            mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(owner));
+        }
+        loadParameters(mv, method, 1);
+        invokeTarget(mv, targetType, method);
+        mv.visitInsn(Type.getType(method.getReturnType()).getOpcode(Opcodes.IRETURN));
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void writeInterceptedMethod(ClassWriter classWriter, String internalName, Class<?> targetType,
+                                               String targetDescriptor, Method method, int invocationIndex) {
+        String descriptor = Type.getMethodDescriptor(method);
+        MethodVisitor mv = visitMethod(classWriter, method, descriptor);
+        mv.visitCode();
+        mv.visitLdcInsn(new ConstantDynamic("_", METHOD_HANDLE_DESCRIPTOR, CLASS_DATA_AT, invocationIndex));
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitFieldInsn(Opcodes.GETFIELD, internalName, CHAIN_FIELD + invocationIndex, CHAIN_DESCRIPTOR);
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitFieldInsn(Opcodes.GETFIELD, internalName, TARGET_FIELD, targetDescriptor);
+        loadParameters(mv, method, 1);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/invoke/MethodHandle", "invokeExact",
+                invocationConstructorDescriptor(targetType, method, Type.getType(MethodInvocation.class)), false);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, INVOCATION_INTERNAL_NAME, "proceed", "()Ljava/lang/Object;", false);
+
+        Type returnType = Type.getType(method.getReturnType());
+        if (returnType.getSort() == Type.VOID) {
+            mv.visitInsn(Opcodes.POP);
+            mv.visitInsn(Opcodes.RETURN);
+        } else {
+            unbox(mv, returnType);
+            mv.visitInsn(returnType.getOpcode(Opcodes.IRETURN));
+        }
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void writeAdvisedMethods(ClassWriter classWriter, String internalName, String targetDescriptor) {
+        MethodVisitor mv = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "getProxyTarget", "()Ljava/lang/Object;",
+                null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitFieldInsn(Opcodes.GETFIELD, internalName, TARGET_FIELD, targetDescriptor);
+        mv.visitInsn(Opcodes.ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        mv = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "getProxyInterceptors", "()Ljava/util/Map;", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitFieldInsn(Opcodes.GETFIELD, internalName, INTERCEPTORS_FIELD, "Ljava/util/Map;");
+        mv.visitInsn(Opcodes.ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void invokeTarget(MethodVisitor mv, Class<?> targetType, Method method) {
+        String descriptor = Type.getMethodDescriptor(method);
+        Class<?> owner = method.getDeclaringClass();
+        if (targetType == Object.class && owner.isInterface()) {
+            mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, Type.getInternalName(owner), method.getName(), descriptor, true);
+        } else {
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, Type.getInternalName(targetType), method.getName(), descriptor, false);
+        }
+    }
+
+    private static void loadParameters(MethodVisitor mv, Method method, int firstSlot) {
+        int slot = firstSlot;
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            Type type = Type.getType(parameterType);
+            mv.visitVarInsn(type.getOpcode(Opcodes.ILOAD), slot);
+            slot += type.getSize();
+        }
+    }
+
+    private static void loadArgument(MethodVisitor mv, String internalName, Type[] argumentTypes, int index) {
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitFieldInsn(Opcodes.GETFIELD, internalName, ARGUMENT_FIELD + index, argumentTypes[index].getDescriptor());
+    }
+
+    private static MethodVisitor visitMethod(ClassWriter classWriter, Method method, String descriptor) {
+        int access = method.getModifiers() & (Modifier.PUBLIC | Modifier.PROTECTED);
+        if (method.isVarArgs()) {
+            access |= Opcodes.ACC_VARARGS;
+        }
+        Class<?>[] exceptionTypes = method.getExceptionTypes();
+        String[] exceptions = new String[exceptionTypes.length];
+        for (int i = 0; i < exceptionTypes.length; i++) {
+            exceptions[i] = Type.getInternalName(exceptionTypes[i]);
+        }
+        return classWriter.visitMethod(access, method.getName(), descriptor, null, exceptions);
+    }
+
+    private static void box(MethodVisitor mv, Type type) {
+        if (type.getSort() == Type.OBJECT || type.getSort() == Type.ARRAY) {
+            return;
+        }
+        Type wrapper = wrapperOf(type);
+        mv.visitMethodInsn(Opcodes.INVOKESTATIC, wrapper.getInternalName(), "valueOf",
+                Type.getMethodDescriptor(wrapper, type), false);
+    }
+
+    private static void unbox(MethodVisitor mv, Type type) {
+        if (type.getSort() == Type.OBJECT || type.getSort() == Type.ARRAY) {
+            if (!type.getDescriptor().equals("Ljava/lang/Object;")) {
+                mv.visitTypeInsn(Opcodes.CHECKCAST, type.getInternalName());
+            }
+            return;
+        }
+        Type wrapper = wrapperOf(type);
+        mv.visitTypeInsn(Opcodes.CHECKCAST, wrapper.getInternalName());
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, wrapper.getInternalName(), type.getClassName() + "Value",
+                Type.getMethodDescriptor(type), false);
+    }
+
+    private static Type wrapperOf(Type type) {
+        return switch (type.getSort()) {
+            case Type.BOOLEAN -> Type.getType(Boolean.class);
+            case Type.BYTE -> Type.getType(Byte.class);
+            case Type.CHAR -> Type.getType(Character.class);
+            case Type.SHORT -> Type.getType(Short.class);
+            case Type.INT -> Type.getType(Integer.class);
+            case Type.LONG -> Type.getType(Long.class);
+            case Type.FLOAT -> Type.getType(Float.class);
+            case Type.DOUBLE -> Type.getType(Double.class);
+            default -> throw new IllegalArgumentException("Not a primitive type: " + type);
+        };
+    }
+
+    private static void pushInt(MethodVisitor mv, int value) {
+        if (value <= 5) {
+            mv.visitInsn(Opcodes.ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(Opcodes.BIPUSH, value);
+        } else {
+            mv.visitIntInsn(Opcodes.SIPUSH, value);
+        }
+    }
+}
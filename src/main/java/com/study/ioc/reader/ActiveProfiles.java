@@ -0,0 +1,60 @@
+package com.study.ioc.reader;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The deployment profiles a context is read for. A {@code profile="..."} expression is a
+ * comma separated list of profile names, each optionally negated with {@code !}; it
+ * accepts if any of them matches, so {@code profile="dev,test"} is active in either
+ * profile and {@code profile="!edge"} everywhere except on edge nodes.
+ */
+public final class ActiveProfiles {
+    public static final String PROPERTY = "ioc.profiles.active";
+
+    private final Set<String> profiles;
+
+    private ActiveProfiles(Set<String> profiles) {
+        this.profiles = profiles;
+    }
+
+    public static ActiveProfiles of(String... profiles) {
+        Set<String> names = new TreeSet<>();
+        for (String profile : profiles) {
+            Arrays.stream(profile.split(",")).map(String::trim).filter(name -> !name.isEmpty()).forEach(names::add);
+        }
+        return new ActiveProfiles(Collections.unmodifiableSet(names));
+    }
+
+    /**
+     * @return the profiles listed in the {@value #PROPERTY} system property
+     */
+    public static ActiveProfiles fromSystemProperties() {
+        return of(System.getProperty(PROPERTY, ""));
+    }
+
+    public boolean accepts(String expression) {
+        for (String term : expression.split(",")) {
+            String name = term.trim();
+            if (name.startsWith("!")) {
+                if (!profiles.contains(name.substring(1).trim())) {
+                    return true;
+                }
+            } else if (profiles.contains(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Set<String> getProfiles() {
+        return profiles;
+    }
+
+    @Override
+    public String toString() {
+        return String.join(",", profiles);
+    }
+}
@@ -0,0 +1,41 @@
+package com.study.ioc.reader.resource;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * In-memory resource. Every stream reads from its own view of the buffer, so the
+ * resource can be read any number of times without copying.
+ */
+public class ByteBufferResource implements Resource {
+    private final ByteBuffer buffer;
+    private final String description;
+
+    public ByteBufferResource(ByteBuffer buffer) {
+        this(buffer, "byte buffer resource");
+    }
+
+    public ByteBufferResource(byte[] content) {
+        this(ByteBuffer.wrap(content));
+    }
+
+    public ByteBufferResource(ByteBuffer buffer, String description) {
+        this.buffer = buffer;
+        this.description = description;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new ByteBufferInputStream(buffer.duplicate());
+    }
+
+    @Override
+    public ByteBuffer getByteBuffer() {
+        return buffer.asReadOnlyBuffer();
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,37 @@
+package com.study.ioc.reader.resource;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Resource resolved through a class loader. The content is read from whatever the
+ * class loader points at, including entries of (fat) jars.
+ */
+public class ClassPathResource implements Resource {
+    private final String path;
+    private final ClassLoader classLoader;
+
+    public ClassPathResource(String path) {
+        this(path, ClassPathResource.class.getClassLoader());
+    }
+
+    public ClassPathResource(String path, ClassLoader classLoader) {
+        this.path = path.startsWith("/") ? path.substring(1) : path;
+        this.classLoader = classLoader;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        InputStream inputStream = classLoader.getResourceAsStream(path);
+        if (inputStream == null) {
+            throw new FileNotFoundException("Class path resource " + path + " does not exist");
+        }
+        return inputStream;
+    }
+
+    @Override
+    public String getDescription() {
+        return "class path resource " + path;
+    }
+}
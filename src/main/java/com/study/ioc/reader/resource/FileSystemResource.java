@@ -0,0 +1,62 @@
+package com.study.ioc.reader.resource;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * File system resource. Files of at least {@link #MAPPING_THRESHOLD} bytes are
+ * memory-mapped and read straight from the page cache; smaller files use a
+ * buffered stream, where the cost of setting up a mapping does not pay off.
+ */
+public class FileSystemResource implements Resource {
+    public static final long MAPPING_THRESHOLD = 1024 * 1024;
+
+    private final Path path;
+
+    public FileSystemResource(Path path) {
+        this.path = path;
+    }
+
+    public FileSystemResource(String path) {
+        this(Path.of(path));
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size >= MAPPING_THRESHOLD && size <= Integer.MAX_VALUE) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                return new ByteBufferInputStream(buffer);
+            }
+        }
+        return new BufferedInputStream(Files.newInputStream(path));
+    }
+
+    /**
+     * Maps the whole file regardless of its size; the caller reads it in one pass
+     * instead of copying it through a stream.
+     */
+    @Override
+    public ByteBuffer getByteBuffer() throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File " + path + " is too large to map: " + size + " bytes");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "file " + path;
+    }
+}
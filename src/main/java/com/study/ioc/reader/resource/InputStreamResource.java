@@ -0,0 +1,35 @@
+package com.study.ioc.reader.resource;
+
+import java.io.InputStream;
+
+/**
+ * Wraps a caller-supplied stream. The stream can be consumed only once.
+ */
+public class InputStreamResource implements Resource {
+    private final String description;
+    private InputStream inputStream;
+
+    public InputStreamResource(InputStream inputStream) {
+        this(inputStream, "input stream resource");
+    }
+
+    public InputStreamResource(InputStream inputStream, String description) {
+        this.inputStream = inputStream;
+        this.description = description;
+    }
+
+    @Override
+    public synchronized InputStream getInputStream() {
+        if (inputStream == null) {
+            throw new IllegalStateException(description + " has already been read");
+        }
+        InputStream result = inputStream;
+        inputStream = null;
+        return result;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+}
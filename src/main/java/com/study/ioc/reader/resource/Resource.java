@@ -0,0 +1,25 @@
+package com.study.ioc.reader.resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Source of context configuration. Implementations stream their content directly,
+ * so nothing has to be unpacked to the file system first.
+ */
+public interface Resource {
+
+    InputStream getInputStream() throws IOException;
+
+    String getDescription();
+
+    /**
+     * The whole content as a read-only buffer, for parsers that work on bytes directly.
+     */
+    default ByteBuffer getByteBuffer() throws IOException {
+        try (InputStream inputStream = getInputStream()) {
+            return ByteBuffer.wrap(inputStream.readAllBytes()).asReadOnlyBuffer();
+        }
+    }
+}
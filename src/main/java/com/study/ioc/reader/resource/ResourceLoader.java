@@ -0,0 +1,30 @@
+package com.study.ioc.reader.resource;
+
+/**
+ * Resolves configuration locations: {@code file:} prefixes point at the file system,
+ * {@code classpath:} prefixes and plain paths at the class path.
+ */
+public class ResourceLoader {
+    public static final String FILE_PREFIX = "file:";
+    public static final String CLASSPATH_PREFIX = "classpath:";
+
+    private final ClassLoader classLoader;
+
+    public ResourceLoader() {
+        this(ResourceLoader.class.getClassLoader());
+    }
+
+    public ResourceLoader(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    public Resource getResource(String location) {
+        if (location.startsWith(FILE_PREFIX)) {
+            return new FileSystemResource(location.substring(FILE_PREFIX.length()));
+        }
+        if (location.startsWith(CLASSPATH_PREFIX)) {
+            return new ClassPathResource(location.substring(CLASSPATH_PREFIX.length()), classLoader);
+        }
+        return new ClassPathResource(location, classLoader);
+    }
+}
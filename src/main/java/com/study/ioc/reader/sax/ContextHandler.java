@@ -1,29 +1,66 @@
 package com.study.ioc.reader.sax;
 
 import com.study.ioc.entity.BeanDefinition;
+import com.study.ioc.entity.CollectionValue;
+import com.study.ioc.entity.PropertyValues;
 import com.study.ioc.exception.ParseContextException;
+import com.study.ioc.reader.ActiveProfiles;
 import org.xml.sax.Attributes;
 import org.xml.sax.helpers.DefaultHandler;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
+/**
+ * Builds bean definitions from SAX events. Elements whose {@code profile} isn't active
+ * and {@code <if-class-present name="...">} sections whose class isn't on the class path
+ * are skipped with everything inside them: no definitions are built and no classes are
+ * loaded for them, the class check only looks up the class file.
+ */
 public class ContextHandler extends DefaultHandler {
 
+    private final ActiveProfiles activeProfiles;
+    private final ClassLoader classLoader;
     private Map<String, BeanDefinition> beanDefinitions;
     private BeanDefinition beanDefinition;
-    private Map<String, String> valueDependencies;
-    private Map<String, String> refDependencies;
+    private final PropertyValues.Builder valueDependencies = PropertyValues.builder();
+    private final PropertyValues.Builder refDependencies = PropertyValues.builder();
+    private final PropertyValues.Builder beanAttributes = PropertyValues.builder();
+    private final Map<String, CollectionValue> collectionDependencies = new LinkedHashMap<>();
+    private final List<CollectionValue.Element> collectionElements = new ArrayList<>();
+    private final StringBuilder text = new StringBuilder();
 
     private boolean bBean;
+    private String propertyName;
+    private CollectionValue.Kind collectionKind;
+    private String collectionElementType;
+    private String collectionBeansOfType;
+    private boolean bValue;
+    private int skippedDepth;
+
+    public ContextHandler() {
+        this(ActiveProfiles.fromSystemProperties(), ContextHandler.class.getClassLoader());
+    }
+
+    public ContextHandler(ActiveProfiles activeProfiles, ClassLoader classLoader) {
+        this.activeProfiles = activeProfiles;
+        this.classLoader = classLoader;
+    }
 
     @Override
     public void startDocument() {
-        beanDefinitions = new HashMap<>();
+        beanDefinitions = new LinkedHashMap<>();
     }
 
     @Override
     public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        if (skippedDepth > 0 || !isActive(qName, attributes)) {
+            skippedDepth++;
+            return;
+        }
         if (qName.equalsIgnoreCase("bean")) {
             bBean = true;
             String id = attributes.getValue("id");
@@ -35,13 +72,20 @@ public class ContextHandler extends DefaultHandler {
                 throw new ParseContextException("No specified class for bean");
             }
             beanDefinition = new BeanDefinition(id, clazzName);
-            valueDependencies = new HashMap<>();
-            refDependencies = new HashMap<>();
+            beanDefinition.setScope(attributes.getValue("scope"));
+            for (int i = 0; i < attributes.getLength(); i++) {
+                String attributeName = attributes.getQName(i);
+                if (!attributeName.equals("id") && !attributeName.equals("class") && !attributeName.equals("scope")
+                        && !attributeName.equals("profile")) {
+                    beanAttributes.put(attributeName, attributes.getValue(i));
+                }
+            }
+            beanDefinition.setAttributes(beanAttributes.build());
         } else if (qName.equalsIgnoreCase("property")) {
             if (!bBean) {
                 throw new ParseContextException("No specified bean for property");
             }
-            String propertyName = attributes.getValue("name");
+            propertyName = attributes.getValue("name");
             if (propertyName == null) {
                 throw new ParseContextException("No specified name for property");
             }
@@ -51,23 +95,113 @@ public class ContextHandler extends DefaultHandler {
                 valueDependencies.put(propertyName, propertyValue);
             }
             if (propertyRef != null) {
-                refDependencies.put(propertyName, propertyRef);
+                refDependencies.put(propertyName, propertyRef.intern());
+            }
+        } else if (isCollection(qName)) {
+            startCollection(qName, attributes);
+        } else if (qName.equalsIgnoreCase("value")) {
+            checkInCollection(qName);
+            bValue = true;
+            text.setLength(0);
+        } else if (qName.equalsIgnoreCase("ref")) {
+            checkInCollection(qName);
+            String bean = attributes.getValue("bean");
+            if (bean == null) {
+                throw new ParseContextException("No specified bean for ref in property " + propertyName);
+            }
+            collectionElements.add(CollectionValue.Element.ref(bean));
+        } else if (qName.equalsIgnoreCase("entry")) {
+            checkInCollection(qName);
+            if (collectionKind != CollectionValue.Kind.MAP) {
+                throw new ParseContextException("Entry outside of map in property " + propertyName);
             }
+            String key = attributes.getValue("key");
+            String value = attributes.getValue("value");
+            String ref = attributes.getValue("ref");
+            if (key == null || (value == null) == (ref == null)) {
+                throw new ParseContextException("Map entry in property " + propertyName +
+                        " needs a key and either a value or a ref");
+            }
+            collectionElements.add(new CollectionValue.Element(key, value, ref == null ? null : ref.intern()));
         }
+    }
 
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        if (bValue && skippedDepth == 0) {
+            text.append(ch, start, length);
+        }
     }
 
     @Override
     public void endElement(String uri,
                            String localName, String qName) {
+        if (skippedDepth > 0) {
+            skippedDepth--;
+            return;
+        }
         if (qName.equalsIgnoreCase("bean")) {
             bBean = false;
-            beanDefinition.setValueDependencies(valueDependencies);
-            beanDefinition.setRefDependencies(refDependencies);
+            beanDefinition.setValueDependencies(valueDependencies.build());
+            beanDefinition.setRefDependencies(refDependencies.build());
+            beanDefinition.setCollectionDependencies(collectionDependencies);
+            collectionDependencies.clear();
             beanDefinitions.put(beanDefinition.getId(), beanDefinition);
+        } else if (qName.equalsIgnoreCase("property")) {
+            propertyName = null;
+        } else if (qName.equalsIgnoreCase("value") && bValue) {
+            bValue = false;
+            collectionElements.add(CollectionValue.Element.value(text.toString()));
+        } else if (isCollection(qName)) {
+            if (collectionBeansOfType != null && !collectionElements.isEmpty()) {
+                throw new ParseContextException("Collection property " + propertyName +
+                        " can't have both beans-of-type and elements");
+            }
+            collectionDependencies.put(propertyName, new CollectionValue(collectionKind, collectionElementType,
+                    collectionBeansOfType, collectionElements));
+            collectionElements.clear();
+            collectionKind = null;
         }
     }
 
+    private boolean isActive(String qName, Attributes attributes) {
+        if (qName.equalsIgnoreCase("if-class-present")) {
+            String className = attributes.getValue("name");
+            if (className == null) {
+                throw new ParseContextException("No specified name for if-class-present");
+            }
+            return classLoader.getResource(className.replace('.', '/') + ".class") != null;
+        }
+        if (qName.equalsIgnoreCase("beans") || qName.equalsIgnoreCase("bean")) {
+            String profile = attributes.getValue("profile");
+            return profile == null || activeProfiles.accepts(profile);
+        }
+        return true;
+    }
+
+    private void startCollection(String qName, Attributes attributes) {
+        if (!bBean || propertyName == null) {
+            throw new ParseContextException("No specified property for " + qName);
+        }
+        if (collectionKind != null) {
+            throw new ParseContextException("Nested collections are not supported in property " + propertyName);
+        }
+        collectionKind = CollectionValue.Kind.valueOf(qName.toUpperCase(Locale.ROOT));
+        collectionElementType = attributes.getValue("type");
+        collectionBeansOfType = attributes.getValue("beans-of-type");
+    }
+
+    private void checkInCollection(String qName) {
+        if (collectionKind == null) {
+            throw new ParseContextException("Element " + qName + " outside of a collection property");
+        }
+    }
+
+    private static boolean isCollection(String qName) {
+        return qName.equalsIgnoreCase("list") || qName.equalsIgnoreCase("set")
+                || qName.equalsIgnoreCase("map") || qName.equalsIgnoreCase("array");
+    }
+
     public Map<String, BeanDefinition> getBeanDefinitions() {
         return beanDefinitions;
     }
@@ -2,35 +2,55 @@ package com.study.ioc.reader.sax;
 
 import com.study.ioc.entity.BeanDefinition;
 import com.study.ioc.exception.ParseContextException;
+import com.study.ioc.reader.ActiveProfiles;
 import com.study.ioc.reader.BeanDefinitionReader;
+import com.study.ioc.reader.resource.Resource;
+import com.study.ioc.reader.resource.ResourceLoader;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
-import java.io.BufferedInputStream;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 public class XmlBeanDefinitionReader implements BeanDefinitionReader {
-    private String[] paths;
+    private final List<Resource> resources;
+    private final SAXParserFactory saxParserFactory = SAXParserFactory.newInstance();
+    private ActiveProfiles activeProfiles = ActiveProfiles.fromSystemProperties();
 
     public XmlBeanDefinitionReader(String... paths) {
-        this.paths = paths;
+        ResourceLoader resourceLoader = new ResourceLoader(getClass().getClassLoader());
+        this.resources = Arrays.stream(paths).map(resourceLoader::getResource).toList();
+    }
+
+    public XmlBeanDefinitionReader(Resource resource) {
+        this(List.of(resource));
+    }
+
+    public XmlBeanDefinitionReader(List<Resource> resources) {
+        this.resources = List.copyOf(resources);
+    }
+
+    /**
+     * Replaces the profiles from the {@value ActiveProfiles#PROPERTY} system property.
+     */
+    public void setActiveProfiles(ActiveProfiles activeProfiles) {
+        this.activeProfiles = activeProfiles;
     }
 
     @Override
     public Map<String, BeanDefinition> getBeanDefinition() {
-        Map<String, BeanDefinition> beanDefinitionMap = new HashMap<>();
-        for (String path : paths) {
-            ClassLoader classLoader = getClass().getClassLoader();
-            try (InputStream inputStream = new BufferedInputStream(new FileInputStream(classLoader.getResource(path).getFile()))) {
+        Map<String, BeanDefinition> beanDefinitionMap = new LinkedHashMap<>();
+        for (Resource resource : resources) {
+            try (InputStream inputStream = resource.getInputStream()) {
                 beanDefinitionMap.putAll(getBeanDefinitionMap(inputStream));
             } catch (IOException | ParserConfigurationException | SAXException e) {
-                throw new ParseContextException("Context parse failed for " + path);
+                throw new ParseContextException("Context parse failed for " + resource.getDescription(), e);
             }
         }
         return beanDefinitionMap;
@@ -38,9 +58,8 @@ public class XmlBeanDefinitionReader implements BeanDefinitionReader {
 
 
     Map<String, BeanDefinition> getBeanDefinitionMap(InputStream inputStream) throws ParserConfigurationException, SAXException, IOException {
-        SAXParserFactory saxParserFactory = SAXParserFactory.newInstance();
         SAXParser saxParser = saxParserFactory.newSAXParser();
-        ContextHandler handler = new ContextHandler();
+        ContextHandler handler = new ContextHandler(activeProfiles, getClass().getClassLoader());
         saxParser.parse(inputStream, handler);
         return handler.getBeanDefinitions();
     }
@@ -0,0 +1,71 @@
+package com.study.ioc.scope;
+
+import com.study.ioc.exception.ScopeNotActiveException;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * Scope whose instances live in an explicit {@link ScopeCarrier}, e.g. one per
+ * request or per session. The carrier is bound only while {@link #run} or
+ * {@link #call} executes and the previous binding is restored afterwards.
+ */
+public class CarrierScope implements Scope {
+
+    private final String name;
+    private final ThreadLocal<ScopeCarrier> current = new ThreadLocal<>();
+
+    public CarrierScope(String name) {
+        this.name = name;
+    }
+
+    public void run(Runnable task) {
+        run(new ScopeCarrier(), task);
+    }
+
+    public void run(ScopeCarrier carrier, Runnable task) {
+        ScopeCarrier previous = current.get();
+        current.set(carrier);
+        try {
+            task.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public <V> V call(ScopeCarrier carrier, Callable<V> task) throws Exception {
+        ScopeCarrier previous = current.get();
+        current.set(carrier);
+        try {
+            return task.call();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    @Override
+    public Object get(int slot, String beanName, Supplier<?> objectFactory) {
+        return currentCarrier(beanName).get(slot, beanName, objectFactory);
+    }
+
+    @Override
+    public Object remove(int slot, String beanName) {
+        return currentCarrier(beanName).remove(slot);
+    }
+
+    private ScopeCarrier currentCarrier(String beanName) {
+        ScopeCarrier carrier = current.get();
+        if (carrier == null) {
+            throw new ScopeNotActiveException(name, beanName);
+        }
+        return carrier;
+    }
+
+    private void restore(ScopeCarrier previous) {
+        if (previous == null) {
+            current.remove();
+        } else {
+            current.set(previous);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.study.ioc.scope;
+
+import java.util.function.Supplier;
+
+/**
+ * Storage strategy for non-singleton beans. Every scoped bean gets a slot number
+ * when the context is built, so an implementation can keep its instances in a
+ * plain array indexed by slot instead of a map keyed by bean name.
+ */
+public interface Scope {
+
+    /**
+     * Returns the instance stored in the given slot of the current scope,
+     * creating it with {@code objectFactory} if the slot is empty.
+     */
+    Object get(int slot, String beanName, Supplier<?> objectFactory);
+
+    /**
+     * Removes the instance stored in the given slot of the current scope.
+     *
+     * @return the removed instance or {@code null} if there was none
+     */
+    Object remove(int slot, String beanName);
+
+    /**
+     * Releases the instances the scope still holds. Called when the context is closed.
+     */
+    default void close() {
+    }
+}
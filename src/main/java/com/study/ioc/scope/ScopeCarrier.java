@@ -0,0 +1,130 @@
+package com.study.ioc.scope;
+
+import com.study.ioc.exception.BeanInstantiationException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Slot array holding the scoped instances of one request, session or any other
+ * unit of work. A carrier is bound to the running thread by {@link CarrierScope}
+ * only for the duration of a task, so nothing stays attached to pooled or
+ * virtual threads afterwards.
+ * <p>
+ * A session carrier is shared by the concurrent requests of the session. Created
+ * instances are read without a lock. A missing instance is claimed by putting a
+ * {@link Creation} into its slot under the carrier's lock; the claiming thread then
+ * runs the bean factory outside the lock and publishes the instance, while other
+ * threads asking for that slot wait for it. So a bean is created once, and lookups of
+ * other beans, also from within the factory, don't wait for it.
+ */
+public final class ScopeCarrier {
+    private static final AtomicReferenceArray<Object> NO_SLOTS = new AtomicReferenceArray<>(0);
+
+    private volatile AtomicReferenceArray<Object> slots = NO_SLOTS;
+
+    Object get(int slot, String beanName, Supplier<?> objectFactory) {
+        while (true) {
+            AtomicReferenceArray<Object> slots = this.slots;
+            Object value = slot < slots.length() ? slots.get(slot) : null;
+            if (value != null && !(value instanceof Creation)) {
+                return value;
+            }
+            Creation creation;
+            synchronized (this) {
+                value = slot < this.slots.length() ? this.slots.get(slot) : null;
+                if (value == null) {
+                    creation = new Creation();
+                    ensureCapacity(slot);
+                    this.slots.set(slot, creation);
+                } else if (value instanceof Creation pending) {
+                    creation = null;
+                    value = pending;
+                } else {
+                    return value;
+                }
+            }
+            if (creation != null) {
+                return create(slot, creation, objectFactory);
+            }
+            Object created = ((Creation) value).await(beanName);
+            if (created != null) {
+                return created;
+            }
+        }
+    }
+
+    synchronized Object remove(int slot) {
+        if (slot >= slots.length()) {
+            return null;
+        }
+        Object object = slots.getAndSet(slot, null);
+        return object instanceof Creation ? null : object;
+    }
+
+    /**
+     * Drops all instances.
+     */
+    synchronized void clear() {
+        slots = NO_SLOTS;
+    }
+
+    private Object create(int slot, Creation creation, Supplier<?> objectFactory) {
+        Object object;
+        try {
+            object = objectFactory.get();
+        } catch (RuntimeException | Error e) {
+            release(slot, creation, null);
+            throw e;
+        }
+        release(slot, creation, object);
+        return object;
+    }
+
+    /**
+     * Replaces the claim with the created instance, or empties the slot if creation
+     * failed, unless the slot was removed or cleared meanwhile; then wakes the waiters.
+     */
+    private void release(int slot, Creation creation, Object object) {
+        synchronized (this) {
+            if (slot < slots.length() && slots.get(slot) == creation) {
+                slots.set(slot, object);
+            }
+        }
+        creation.result.complete(object);
+    }
+
+    private void ensureCapacity(int slot) {
+        AtomicReferenceArray<Object> slots = this.slots;
+        if (slot < slots.length()) {
+            return;
+        }
+        AtomicReferenceArray<Object> grown = new AtomicReferenceArray<>(Math.max(slot + 1, slots.length() * 2));
+        for (int i = 0; i < slots.length(); i++) {
+            grown.set(i, slots.get(i));
+        }
+        this.slots = grown;
+    }
+
+    /**
+     * Claim on a slot whose instance is being created. Completes with the instance, or
+     * with {@code null} if the factory failed and the slot is free again.
+     */
+    private static final class Creation {
+        private final Thread creator = Thread.currentThread();
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private Object await(String beanName) {
+            if (creator == Thread.currentThread()) {
+                throw new BeanInstantiationException("Scoped bean " + beanName + " depends on itself", null);
+            }
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.study.ioc.scope;
+
+import com.study.ioc.exception.ScopeNotActiveException;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+/**
+ * One instance per thread, kept in a {@link ScopeCarrier} per thread held by a
+ * {@code ThreadLocal} of this scope. A thread's {@code ThreadLocalMap} keeps its value
+ * strongly reachable until the stale entry is expunged, even after the scope itself is
+ * gone, so {@link #close()} empties the carriers of all threads and leaves only empty
+ * carriers behind. {@link #clear()} releases the instances of the calling thread.
+ */
+public class ThreadScope implements Scope {
+
+    private final Set<ScopeCarrier> carriers = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<>()));
+    private final ThreadLocal<ScopeCarrier> carrier = ThreadLocal.withInitial(this::newCarrier);
+    private volatile boolean closed;
+
+    @Override
+    public Object get(int slot, String beanName, Supplier<?> objectFactory) {
+        if (closed) {
+            throw new ScopeNotActiveException("thread", beanName);
+        }
+        return carrier.get().get(slot, beanName, objectFactory);
+    }
+
+    @Override
+    public Object remove(int slot, String beanName) {
+        return carrier.get().remove(slot);
+    }
+
+    public void clear() {
+        ScopeCarrier current = carrier.get();
+        carrier.remove();
+        current.clear();
+        carriers.remove(current);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (carriers) {
+            carriers.forEach(ScopeCarrier::clear);
+            carriers.clear();
+        }
+        carrier.remove();
+    }
+
+    /**
+     * Carriers are tracked weakly, so the carrier of a thread that ended can still be
+     * collected with the thread.
+     */
+    private ScopeCarrier newCarrier() {
+        ScopeCarrier newCarrier = new ScopeCarrier();
+        carriers.add(newCarrier);
+        return newCarrier;
+    }
+}
@@ -0,0 +1,32 @@
+package com.study.entity;
+
+import com.study.ioc.event.ContextRefreshedEvent;
+import com.study.ioc.event.EventListener;
+import lombok.Getter;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Getter
+public class AuditService {
+    private final AtomicInteger audited = new AtomicInteger();
+    private volatile CountDownLatch auditedLatch = new CountDownLatch(1);
+    private volatile String auditThread;
+    private volatile boolean refreshed;
+
+    public void expect(int events) {
+        auditedLatch = new CountDownLatch(events);
+    }
+
+    @EventListener(async = true)
+    public void audit(UserRegisteredEvent event) {
+        auditThread = Thread.currentThread().getName();
+        audited.incrementAndGet();
+        auditedLatch.countDown();
+    }
+
+    @EventListener
+    public void onRefresh(ContextRefreshedEvent event) {
+        refreshed = true;
+    }
+}
@@ -0,0 +1,45 @@
+package com.study.entity;
+
+import com.study.ioc.cache.Cacheable;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Getter
+public class DefaultPriceService implements PriceService {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Cacheable(maxSize = 16)
+    @Override
+    public long getPrice(String product) {
+        calls.incrementAndGet();
+        return product.length() * 100L;
+    }
+
+    @Cacheable(maxSize = 16)
+    @Override
+    public long getPrice(String product, int quantity) {
+        calls.incrementAndGet();
+        return product.length() * 100L * quantity;
+    }
+
+    @Cacheable(maxSize = 16)
+    public long getPrice(long productId) {
+        calls.incrementAndGet();
+        return productId * 10;
+    }
+
+    @Cacheable(maxSize = 16)
+    public long getTotal(long[] prices) {
+        calls.incrementAndGet();
+        return Arrays.stream(prices).sum();
+    }
+
+    @Override
+    public String getCurrency() {
+        calls.incrementAndGet();
+        return "EUR";
+    }
+}
@@ -4,12 +4,13 @@ import lombok.Getter;
 import lombok.Setter;
 
 import javax.annotation.PostConstruct;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
 @Setter
 @Getter
-public class DefaultUserService implements UserService {
+public class DefaultUserService implements UserService, Serializable {
 
     private IMailService mailService;
 
@@ -0,0 +1,12 @@
+package com.study.entity;
+
+public class DescribedEntity {
+
+    public String getDescription() {
+        return describe();
+    }
+
+    protected String describe() {
+        return "entity";
+    }
+}
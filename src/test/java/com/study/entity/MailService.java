@@ -4,10 +4,11 @@ import lombok.Getter;
 import lombok.Setter;
 
 import javax.annotation.PostConstruct;
+import java.io.Serializable;
 
 @Getter
 @Setter
-public class MailService implements IMailService {
+public class MailService implements IMailService, Serializable {
     private String protocol;
     private int port;
 
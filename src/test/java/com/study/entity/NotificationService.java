@@ -0,0 +1,40 @@
+package com.study.entity;
+
+import com.study.ioc.async.Async;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Getter
+public class NotificationService {
+    private final List<String> sentBy = new CopyOnWriteArrayList<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private volatile CountDownLatch sent = new CountDownLatch(1);
+
+    public void expect(int notifications) {
+        sent = new CountDownLatch(notifications);
+    }
+
+    @Async(executor = "mailExecutor", maxConcurrency = 2)
+    public void send(String message) throws InterruptedException {
+        int current = running.incrementAndGet();
+        maxRunning.accumulateAndGet(current, Math::max);
+        Thread.sleep(20);
+        sentBy.add(Thread.currentThread().getName());
+        running.decrementAndGet();
+        sent.countDown();
+    }
+
+    @Async
+    public CompletableFuture<String> render(String message) {
+        if (message == null) {
+            throw new IllegalArgumentException("No message");
+        }
+        return CompletableFuture.completedFuture("<p>" + message + "</p>");
+    }
+}
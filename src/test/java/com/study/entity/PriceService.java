@@ -0,0 +1,9 @@
+package com.study.entity;
+
+public interface PriceService {
+    long getPrice(String product);
+
+    long getPrice(String product, int quantity);
+
+    String getCurrency();
+}
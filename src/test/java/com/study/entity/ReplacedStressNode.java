@@ -0,0 +1,18 @@
+package com.study.entity;
+
+import lombok.Getter;
+
+@Getter
+public class ReplacedStressNode extends StressNode {
+    private final StressNode target;
+
+    public ReplacedStressNode(StressNode target) {
+        this.target = target;
+        setName(target.getName());
+        setWeight(target.getWeight());
+        setDependency(target.getDependency());
+        setPeers(target.getPeers());
+        setInitCount(target.getInitCount());
+        setInitializedName(target.getInitializedName());
+    }
+}
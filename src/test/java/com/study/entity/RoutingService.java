@@ -0,0 +1,21 @@
+package com.study.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Getter
+@Setter
+public class RoutingService {
+    private int[] ports;
+    private List<String> protocols;
+    private Set<String> tags;
+    private Map<String, Integer> timeouts;
+    private Map<String, IMailService> routes;
+    private IMailService[] fallbacks;
+    private List<IMailService> mailServices;
+    private Map<String, IMailService> mailServicesByName;
+}
@@ -0,0 +1,24 @@
+package com.study.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+
+@Getter
+@Setter
+public class StressNode {
+    private String name;
+    private int weight;
+    private StressNode dependency;
+    private List<StressNode> peers;
+    private int initCount;
+    private String initializedName;
+
+    @PostConstruct
+    private void init() {
+        initCount++;
+        initializedName = name;
+    }
+}
@@ -0,0 +1,14 @@
+package com.study.entity;
+
+import com.study.ioc.event.ApplicationEvent;
+import lombok.Getter;
+
+@Getter
+public class UserRegisteredEvent extends ApplicationEvent {
+    private final User user;
+
+    public UserRegisteredEvent(Object source, User user) {
+        super(source);
+        this.user = user;
+    }
+}
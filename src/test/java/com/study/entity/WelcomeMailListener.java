@@ -0,0 +1,17 @@
+package com.study.entity;
+
+import com.study.ioc.event.ApplicationListener;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Getter
+public class WelcomeMailListener implements ApplicationListener<UserRegisteredEvent> {
+    private final List<User> welcomed = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void onApplicationEvent(UserRegisteredEvent event) {
+        welcomed.add(event.getUser());
+    }
+}
@@ -0,0 +1,152 @@
+package com.study.ioc.async;
+
+import com.study.entity.NotificationService;
+import com.study.ioc.context.impl.GenericApplicationContext;
+import com.study.ioc.exception.BeanInstantiationException;
+import com.study.ioc.proxy.ProxyFactory;
+import com.study.ioc.reader.resource.ByteBufferResource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AsyncBeanPostProcessorTest {
+
+    private static final String CONTEXT_XML = """
+            <beans>
+                <bean id="mailExecutor" class="com.study.ioc.async.AsyncExecutor">
+                    <property name="threads" value="4"/>
+                    <property name="threadNamePrefix" value="mail-"/>
+                </bean>
+                <bean id="asyncBeanPostProcessor" class="com.study.ioc.async.AsyncBeanPostProcessor"/>
+                <bean id="notificationService" class="com.study.entity.NotificationService"/>
+            </beans>
+            """;
+
+    private GenericApplicationContext context;
+
+    @Before
+    public void before() throws Exception {
+        context = new GenericApplicationContext(new ByteBufferResource(CONTEXT_XML.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @After
+    public void after() {
+        context.close();
+    }
+
+    @Test
+    public void testVoidMethodRunsOnExecutorBeanWithBoundedConcurrency() throws InterruptedException {
+        NotificationService notificationService = context.getBean("notificationService", NotificationService.class);
+        NotificationService target = (NotificationService) ProxyFactory.getTarget(notificationService);
+        assertTrue(ProxyFactory.isProxy(notificationService));
+
+        target.expect(8);
+        for (int i = 0; i < 8; i++) {
+            notificationService.send("message " + i);
+        }
+
+        assertTrue(target.getSent().await(5, TimeUnit.SECONDS));
+        assertEquals(8, target.getSentBy().size());
+        assertTrue(target.getSentBy().stream().allMatch(name -> name.startsWith("mail-")));
+        assertTrue(target.getMaxRunning().get() <= 2);
+    }
+
+    @Test
+    public void testFutureMethodCompletesWithResultOfTarget() throws Exception {
+        NotificationService notificationService = context.getBean("notificationService", NotificationService.class);
+
+        assertEquals("<p>hi</p>", notificationService.render("hi").get(5, TimeUnit.SECONDS));
+
+        CompletableFuture<String> failed = notificationService.render(null);
+        try {
+            failed.get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    @Test
+    public void testCloseStopsExecutors() {
+        AsyncExecutor mailExecutor = context.getBean("mailExecutor", AsyncExecutor.class);
+        mailExecutor.execute(() -> {
+        });
+
+        context.close();
+
+        assertNull(mailExecutor.getExecutorService());
+        try {
+            mailExecutor.execute(() -> {
+            });
+            fail();
+        } catch (RejectedExecutionException e) {
+            assertNull(mailExecutor.getExecutorService());
+        }
+    }
+
+    @Test(expected = BeanInstantiationException.class)
+    public void testMissingExecutorBean() throws Exception {
+        new GenericApplicationContext(new ByteBufferResource(CONTEXT_XML
+                .replace("id=\"mailExecutor\"", "id=\"otherExecutor\"")
+                .getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testConcurrencyLimiterQueuesTasks() throws InterruptedException {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+        AsyncExecutor executor = new AsyncExecutor();
+        NotificationService target = new NotificationService();
+        target.expect(4);
+        for (int i = 0; i < 4; i++) {
+            limiter.execute(executor, () -> {
+                try {
+                    target.send("message");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, e -> fail());
+        }
+
+        assertTrue(target.getSent().await(5, TimeUnit.SECONDS));
+        assertEquals(1, target.getMaxRunning().get());
+        executor.close();
+    }
+
+    @Test
+    public void testConcurrencyLimiterFailsRejectedTaskInsteadOfThrowing() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+        AsyncExecutor executor = new AsyncExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        limiter.execute(executor, () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, e -> fail());
+        CompletableFuture<Void> queued = new CompletableFuture<>();
+        limiter.execute(executor, () -> queued.complete(null), queued::completeExceptionally);
+
+        executor.close();
+        release.countDown();
+
+        try {
+            queued.get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.study.ioc.cache;
+
+import com.study.entity.DefaultPriceService;
+import com.study.entity.MailService;
+import com.study.entity.PriceService;
+import com.study.ioc.entity.Bean;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CacheableBeanPostProcessorTest {
+
+    private final CacheableBeanPostProcessor cacheableBeanPostProcessor = new CacheableBeanPostProcessor();
+
+    @Test
+    public void testCacheableMethodsAreCached() throws Exception {
+        DefaultPriceService target = new DefaultPriceService();
+        PriceService priceService = (PriceService) cacheableBeanPostProcessor
+                .postProcessAfterInitialization(new Bean("priceService", target), "priceService");
+
+        assertEquals(500, priceService.getPrice("apple"));
+        assertEquals(500, priceService.getPrice("apple"));
+        assertEquals(1500, priceService.getPrice("apple", 3));
+        assertEquals(1500, priceService.getPrice("apple", 3));
+        assertEquals(1000, priceService.getPrice("apple", 2));
+        assertEquals(3, target.getCalls().get());
+
+        priceService.getCurrency();
+        priceService.getCurrency();
+        assertEquals(5, target.getCalls().get());
+
+        CacheStats stats = cacheableBeanPostProcessor.getCacheStats("priceService")
+                .get(DefaultPriceService.class.getMethod("getPrice", String.class));
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.5, stats.getHitRate(), 0.0001);
+    }
+
+    @Test
+    public void testOverloadsOfSameArityHaveSeparateCaches() throws Exception {
+        DefaultPriceService target = new DefaultPriceService();
+        DefaultPriceService priceService = (DefaultPriceService) cacheableBeanPostProcessor
+                .postProcessAfterInitialization(new Bean("priceService", target), "priceService");
+
+        assertEquals(500, priceService.getPrice("apple"));
+        assertEquals(70, priceService.getPrice(7L));
+        assertEquals(70, priceService.getPrice(7L));
+        assertEquals(2, target.getCalls().get());
+
+        Map<Method, CacheStats> stats = cacheableBeanPostProcessor.getCacheStats("priceService");
+        assertEquals(0, stats.get(DefaultPriceService.class.getMethod("getPrice", String.class)).getHits());
+        assertEquals(1, stats.get(DefaultPriceService.class.getMethod("getPrice", long.class)).getHits());
+    }
+
+    @Test
+    public void testChangingArrayArgumentAfterCallKeepsCachedKey() {
+        DefaultPriceService target = new DefaultPriceService();
+        DefaultPriceService priceService = (DefaultPriceService) cacheableBeanPostProcessor
+                .postProcessAfterInitialization(new Bean("priceService", target), "priceService");
+        long[] prices = {1, 2};
+
+        assertEquals(3, priceService.getTotal(prices));
+        prices[0] = 5;
+        assertEquals(7, priceService.getTotal(prices));
+        assertEquals(3, priceService.getTotal(new long[]{1, 2}));
+        assertEquals(2, target.getCalls().get());
+    }
+
+    @Test
+    public void testBeanWithoutCacheableMethodsIsNotWrapped() {
+        MailService mailService = new MailService();
+        assertSame(mailService, cacheableBeanPostProcessor
+                .postProcessAfterInitialization(new Bean("mailService", mailService), "mailService"));
+        assertTrue(cacheableBeanPostProcessor.getCacheStats("mailService").isEmpty());
+    }
+
+    @Test
+    public void testLruEviction() {
+        MethodCache cache = new MethodCache(1, 0, Eviction.LRU);
+        cache.put("a", 1);
+        cache.put("b", 2);
+
+        assertSame(MethodCache.MISS, cache.get("a"));
+        assertEquals(2, cache.get("b"));
+        assertEquals(1, cache.getStats().getEvictions());
+    }
+
+    @Test
+    public void testTinyLfuKeepsFrequentEntry() {
+        MethodCache cache = new MethodCache(1, 0, Eviction.W_TINY_LFU);
+        cache.put("hot", 1);
+        for (int i = 0; i < 5; i++) {
+            cache.get("hot");
+        }
+        cache.get("cold");
+        cache.put("cold", 2);
+
+        assertEquals(1, cache.get("hot"));
+        assertSame(MethodCache.MISS, cache.get("cold"));
+    }
+
+    @Test
+    public void testSmallCacheEvictsByWholeSize() {
+        MethodCache cache = new MethodCache(16, 0, Eviction.LRU);
+        for (int i = 0; i < 16; i++) {
+            cache.put(i, i);
+        }
+
+        for (int i = 0; i < 16; i++) {
+            assertEquals(i, cache.get(i));
+        }
+        assertEquals(0, cache.getStats().getEvictions());
+        assertEquals(16, cache.getStats().getSize());
+    }
+
+    @Test
+    public void testWTinyLfuKeepsHotEntriesThroughScan() {
+        MethodCache cache = new MethodCache(64, 0, Eviction.W_TINY_LFU);
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 32; i++) {
+                if (cache.get("hot" + i) == MethodCache.MISS) {
+                    cache.put("hot" + i, i);
+                }
+            }
+        }
+        for (int i = 0; i < 300; i++) {
+            cache.get("scan" + i);
+            cache.put("scan" + i, i);
+        }
+
+        for (int i = 0; i < 32; i++) {
+            assertEquals(i, cache.get("hot" + i));
+        }
+        assertEquals(299, cache.get("scan299"));
+        assertEquals(64, cache.getStats().getSize());
+    }
+
+    @Test
+    public void testNullResultsAndTtl() {
+        AtomicLong nanos = new AtomicLong();
+        MethodCache cache = new MethodCache(8, 1, Eviction.LRU, nanos::get);
+        cache.put("key", null);
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(1) - 1);
+        assertNull(cache.get("key"));
+
+        nanos.incrementAndGet();
+        assertSame(MethodCache.MISS, cache.get("key"));
+    }
+}
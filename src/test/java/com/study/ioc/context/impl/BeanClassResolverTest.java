@@ -0,0 +1,65 @@
+package com.study.ioc.context.impl;
+
+import com.study.entity.DefaultUserService;
+import com.study.entity.MailService;
+import com.study.ioc.entity.BeanDefinition;
+import com.study.ioc.exception.BeanInstantiationException;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BeanClassResolverTest {
+
+    private final BeanClassResolver beanClassResolver = new BeanClassResolver();
+
+    @Test
+    public void testResolveAllInParallel() {
+        List<BeanDefinition> beanDefinitions = new ArrayList<>();
+        for (int i = 0; i < BeanClassResolver.PARALLEL_THRESHOLD * 2; i++) {
+            String className = i % 2 == 0 ? "com.study.entity.MailService" : "com.study.entity.DefaultUserService";
+            beanDefinitions.add(new BeanDefinition("bean" + i, className));
+        }
+
+        beanClassResolver.resolveAll(beanDefinitions);
+
+        for (int i = 0; i < beanDefinitions.size(); i++) {
+            Class<?> expected = i % 2 == 0 ? MailService.class : DefaultUserService.class;
+            assertSame(expected, beanDefinitions.get(i).getBeanClass());
+        }
+    }
+
+    @Test
+    public void testChangedClassNameIsResolvedAgain() {
+        BeanDefinition beanDefinition = new BeanDefinition("bean", "com.study.entity.MailService");
+        beanClassResolver.resolveAll(List.of(beanDefinition));
+        beanDefinition.setClassName("com.study.entity.DefaultUserService");
+
+        assertSame(DefaultUserService.class, beanClassResolver.resolve(beanDefinition));
+    }
+
+    @Test(expected = BeanInstantiationException.class)
+    public void testResolveMissingClass() {
+        beanClassResolver.resolveAll(List.of(new BeanDefinition("bean", "com.study.entity.Missing")));
+    }
+
+    @Test
+    public void testWriteClassList() throws Exception {
+        Path classList = Files.createTempFile("beans", ".classlist");
+        try {
+            beanClassResolver.writeClassList(List.of(new BeanDefinition("bean", "com.study.entity.MailService")), classList);
+
+            List<String> lines = Files.readAllLines(classList);
+            assertEquals(List.of("com/study/entity/IMailService", "com/study/entity/MailService"), lines);
+            assertTrue(lines.stream().noneMatch(line -> line.startsWith("java/")));
+        } finally {
+            Files.delete(classList);
+        }
+    }
+}
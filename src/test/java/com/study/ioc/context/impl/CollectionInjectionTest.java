@@ -0,0 +1,126 @@
+package com.study.ioc.context.impl;
+
+import com.study.entity.IMailService;
+import com.study.entity.RoutingService;
+import com.study.ioc.entity.BeanDefinition;
+import com.study.ioc.entity.CollectionValue;
+import com.study.ioc.exception.BeanInstantiationException;
+import com.study.ioc.reader.resource.ByteBufferResource;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class CollectionInjectionTest {
+
+    private static final String CONTEXT_XML = """
+            <beans>
+                <bean id="mailServicePOP" class="com.study.entity.MailService"/>
+                <bean id="mailServiceIMAP" class="com.study.entity.MailService"/>
+                <bean id="routingService" class="com.study.entity.RoutingService">
+                    <property name="ports">
+                        <array type="int">
+                            <value>110</value>
+                            <value>143</value>
+                        </array>
+                    </property>
+                    <property name="protocols">
+                        <list>
+                            <value>POP3</value>
+                            <value>IMAP</value>
+                        </list>
+                    </property>
+                    <property name="tags">
+                        <set>
+                            <value>mail</value>
+                            <value>mail</value>
+                        </set>
+                    </property>
+                    <property name="timeouts">
+                        <map>
+                            <entry key="pop" value="30"/>
+                            <entry key="imap" value="60"/>
+                        </map>
+                    </property>
+                    <property name="routes">
+                        <map>
+                            <entry key="pop" ref="mailServicePOP"/>
+                            <entry key="imap" ref="mailServiceIMAP"/>
+                        </map>
+                    </property>
+                    <property name="fallbacks">
+                        <array>
+                            <ref bean="mailServiceIMAP"/>
+                        </array>
+                    </property>
+                    <property name="mailServices">
+                        <list beans-of-type="com.study.entity.IMailService"/>
+                    </property>
+                    <property name="mailServicesByName">
+                        <map beans-of-type="com.study.entity.IMailService"/>
+                    </property>
+                </bean>
+            </beans>
+            """;
+
+    @Test
+    public void testCollectionsAreInjected() {
+        ContextTemplate template = new ContextTemplate(new ByteBufferResource(CONTEXT_XML.getBytes(StandardCharsets.UTF_8)));
+        GenericApplicationContext context = template.newContext();
+        RoutingService routingService = context.getBean("routingService", RoutingService.class);
+        IMailService pop = context.getBean("mailServicePOP", IMailService.class);
+        IMailService imap = context.getBean("mailServiceIMAP", IMailService.class);
+
+        assertArrayEquals(new int[]{110, 143}, routingService.getPorts());
+        assertEquals(List.of("POP3", "IMAP"), routingService.getProtocols());
+        assertEquals(Set.of("mail"), routingService.getTags());
+        assertEquals(Map.of("pop", 30, "imap", 60), routingService.getTimeouts());
+        assertSame(pop, routingService.getRoutes().get("pop"));
+        assertSame(imap, routingService.getRoutes().get("imap"));
+        assertArrayEquals(new IMailService[]{imap}, routingService.getFallbacks());
+        assertEquals(2, routingService.getMailServices().size());
+        assertEquals(Set.of("mailServicePOP", "mailServiceIMAP"), routingService.getMailServicesByName().keySet());
+
+        RoutingService otherRoutingService = template.newContext().getBean("routingService", RoutingService.class);
+        assertSame(routingService.getProtocols(), otherRoutingService.getProtocols());
+        assertNotSame(routingService.getPorts(), otherRoutingService.getPorts());
+        assertNotSame(routingService.getRoutes(), otherRoutingService.getRoutes());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testCollectionsAreImmutable() {
+        ContextTemplate template = new ContextTemplate(new ByteBufferResource(CONTEXT_XML.getBytes(StandardCharsets.UTF_8)));
+        template.newContext().getBean("routingService", RoutingService.class).getMailServices().clear();
+    }
+
+    @Test(expected = BeanInstantiationException.class)
+    public void testCollectionKindMustMatchSetter() {
+        BeanDefinition definition = new BeanDefinition("routingService", RoutingService.class.getName());
+        definition.setCollectionDependencies(Map.of("protocols",
+                new CollectionValue(CollectionValue.Kind.MAP, null, null, List.of())));
+        BeanRecipe.compile(definition, RoutingService.class);
+    }
+
+    @Test(expected = BeanInstantiationException.class)
+    public void testRefInPrimitiveArray() {
+        BeanDefinition definition = new BeanDefinition("routingService", RoutingService.class.getName());
+        definition.setCollectionDependencies(Map.of("ports", new CollectionValue(CollectionValue.Kind.ARRAY, null, null,
+                List.of(CollectionValue.Element.ref("mailServicePOP")))));
+        BeanRecipe.compile(definition, RoutingService.class);
+    }
+
+    @Test(expected = BeanInstantiationException.class)
+    public void testBeansOfTypeMustMatchElementType() {
+        BeanDefinition definition = new BeanDefinition("routingService", RoutingService.class.getName());
+        definition.setCollectionDependencies(Map.of("mailServices", new CollectionValue(CollectionValue.Kind.LIST, null,
+                RoutingService.class.getName(), List.of())));
+        BeanRecipe.compile(definition, RoutingService.class);
+    }
+}
@@ -0,0 +1,200 @@
+package com.study.ioc.context.impl;
+
+import com.study.entity.DefaultUserService;
+import com.study.entity.MailService;
+import com.study.ioc.reader.resource.ByteBufferResource;
+import com.study.ioc.reader.resource.Resource;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ContextImageTest {
+    private static final String CONTEXT = """
+            <beans>
+                <bean id="mailServicePOP" class="com.study.entity.MailService">
+                    <property name="port" value="%d"/>
+                    <property name="protocol" value="POP3"/>
+                </bean>
+                <bean id="userService" class="com.study.entity.DefaultUserService">
+                    <property name="mailService" ref="mailServicePOP"/>
+                </bean>
+            </beans>
+            """;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRestoresSingletonsAndRefsFromImage() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("context.img");
+        ContextImage image = new ContextImage(file, context(995));
+        assertFalse(image.isUpToDate());
+
+        GenericApplicationContext built = image.load();
+        assertTrue(image.isUpToDate());
+        assertFalse(built.getBeanDefinitions().isEmpty());
+
+        GenericApplicationContext restored = new ContextImage(file, context(995)).load();
+        assertTrue("Restored contexts skip parsing", restored.getBeanDefinitions().isEmpty());
+        MailService mailService = restored.getBean("mailServicePOP", MailService.class);
+        assertEquals("Init methods don't run again", 1995, mailService.getPort());
+        assertEquals("TEST", mailService.getProtocol());
+        assertSame(mailService, restored.getBean("userService", DefaultUserService.class).getMailService());
+        assertSame(mailService, restored.getBean(MailService.class));
+    }
+
+    @Test
+    public void testRebuildsWhenContextChanges() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("context.img");
+        new ContextImage(file, context(995)).load();
+
+        ContextImage changed = new ContextImage(file, context(110));
+        assertFalse(changed.isUpToDate());
+        GenericApplicationContext context = changed.load();
+        assertFalse(context.getBeanDefinitions().isEmpty());
+        assertEquals(1110, context.getBean("mailServicePOP", MailService.class).getPort());
+        assertTrue(changed.isUpToDate());
+    }
+
+    @Test
+    public void testRebuildsWhenImageIsCorrupt() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("context.img");
+        new ContextImage(file, context(995)).load();
+        byte[] content = Files.readAllBytes(file);
+        for (int i = 38; i < content.length; i++) {
+            content[i] ^= 0x5A;
+        }
+        Files.write(file, content);
+
+        GenericApplicationContext context = new ContextImage(file, context(995)).load();
+        assertFalse(context.getBeanDefinitions().isEmpty());
+        assertEquals(1995, context.getBean("mailServicePOP", MailService.class).getPort());
+        assertTrue(new ContextImage(file, context(995)).load().getBeanDefinitions().isEmpty());
+    }
+
+    @Test
+    public void testContextWithPostProcessorsGetsNoImage() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("context.img");
+        ContextImage image = new ContextImage(file, "context.xml");
+
+        image.load();
+        assertFalse(Files.exists(file));
+        assertFalse(image.isUpToDate());
+    }
+
+    @Test
+    public void testReadsOnlyRecordedClasses() throws Exception {
+        byte[] image = deflate(new LinkedHashMap<>(Map.of("gadget", new Gadget())));
+        try {
+            ContextImage.readSingletons(new ByteArrayInputStream(image), Set.of());
+            fail();
+        } catch (InvalidClassException e) {
+            assertFalse(Gadget.deserialized);
+        }
+
+        Map<String, Object> singletons =
+                ContextImage.readSingletons(new ByteArrayInputStream(image), Set.of(Gadget.class.getName()));
+        assertTrue(singletons.get("gadget") instanceof Gadget);
+    }
+
+    @Test(expected = InvalidClassException.class)
+    public void testRejectsDeepGraphs() throws Exception {
+        List<Object> nested = new ArrayList<>();
+        for (int i = 0; i < ContextImage.MAX_DEPTH; i++) {
+            nested = new ArrayList<>(List.of(nested));
+        }
+        ContextImage.readSingletons(new ByteArrayInputStream(deflate(new HashMap<>(Map.of("nested", nested)))),
+                Set.of());
+    }
+
+    @Test(timeout = 10_000, expected = InvalidClassException.class)
+    public void testRejectsNestedHashSets() throws Exception {
+        Set<Object> root = new HashSet<>();
+        Set<Object> left = root;
+        Set<Object> right = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            Set<Object> nextLeft = new HashSet<>();
+            Set<Object> nextRight = new HashSet<>();
+            nextLeft.add("left");
+            left.add(nextLeft);
+            left.add(nextRight);
+            right.add(nextLeft);
+            right.add(nextRight);
+            left = nextLeft;
+            right = nextRight;
+        }
+        ContextImage.readSingletons(new ByteArrayInputStream(deflate(new HashMap<>(Map.of("root", root)))), Set.of());
+    }
+
+    @Test(expected = InvalidClassException.class)
+    public void testRejectsManyReferences() throws Exception {
+        List<Object> values = new ArrayList<>();
+        for (int i = 0; i <= ContextImage.MAX_REFERENCES; i++) {
+            values.add((long) i);
+        }
+        ContextImage.readSingletons(new ByteArrayInputStream(deflate(new HashMap<>(Map.of("values", values)))),
+                Set.of());
+    }
+
+    @Test(expected = InvalidClassException.class)
+    public void testRejectsLargeImages() throws Exception {
+        List<Object> arrays = new ArrayList<>();
+        for (int i = 0; i <= ContextImage.MAX_BYTES / ContextImage.MAX_ARRAY_LENGTH; i++) {
+            arrays.add(new byte[ContextImage.MAX_ARRAY_LENGTH]);
+        }
+        ContextImage.readSingletons(new ByteArrayInputStream(deflate(new HashMap<>(Map.of("arrays", arrays)))),
+                Set.of());
+    }
+
+    @Test(expected = InvalidClassException.class)
+    public void testRejectsLongArrays() throws Exception {
+        byte[] image = deflate(new HashMap<>(Map.of("array", new byte[ContextImage.MAX_ARRAY_LENGTH + 1])));
+        ContextImage.readSingletons(new ByteArrayInputStream(image), Set.of());
+    }
+
+    private static byte[] deflate(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(new DeflaterOutputStream(bytes))) {
+            output.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Resource context(int port) {
+        return new ByteBufferResource(String.format(CONTEXT, port).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static class Gadget implements Serializable {
+        private static volatile boolean deserialized;
+
+        private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+            input.defaultReadObject();
+            deserialized = true;
+        }
+    }
+}
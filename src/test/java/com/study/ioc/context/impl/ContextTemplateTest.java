@@ -0,0 +1,79 @@
+package com.study.ioc.context.impl;
+
+import com.study.entity.DefaultUserService;
+import com.study.entity.MailService;
+import com.study.ioc.entity.BeanDefinition;
+import com.study.ioc.processor.TestClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ContextTemplateTest {
+
+    private final ContextTemplate template = new ContextTemplate("context.xml");
+
+    @Test
+    public void testContextsAreIndependent() {
+        GenericApplicationContext first = template.newContext();
+        GenericApplicationContext second = template.newContext();
+
+        MailService firstMailService = first.getBean("mailServicePOP", MailService.class);
+        MailService secondMailService = second.getBean("mailServicePOP", MailService.class);
+        assertNotSame(firstMailService, secondMailService);
+        assertSame(firstMailService, first.getBean("userService", DefaultUserService.class).getMailService());
+        assertSame(secondMailService, second.getBean("userService", DefaultUserService.class).getMailService());
+        assertNotSame(first.getServiceBeans().get("beanPostProcessor").getValue(),
+                second.getServiceBeans().get("beanPostProcessor").getValue());
+    }
+
+    @Test
+    public void testFactoryPostProcessorsRunOnceAndInitMethodsOncePerBean() {
+        for (BeanDefinition beanDefinition : template.getBeanDefinitions().values()) {
+            assertTrue(beanDefinition.isFrozen());
+        }
+        for (int i = 0; i < 3; i++) {
+            GenericApplicationContext context = template.newContext();
+
+            MailService mailServicePOP = context.getBean("mailServicePOP", MailService.class);
+            assertEquals(2000, mailServicePOP.getPort());
+            assertEquals("TEST", mailServicePOP.getProtocol());
+            assertEquals(1143, context.getBean("mailServiceIMAP", MailService.class).getPort());
+            assertEquals("AfterInitialization", context.getBean("testClass", TestClass.class).getText());
+        }
+    }
+
+    @Test
+    public void testManyContexts() {
+        GenericApplicationContext previous = template.newContext();
+        for (int i = 0; i < 1000; i++) {
+            GenericApplicationContext context = template.newContext();
+            assertNotSame(previous.getBean("userService"), context.getBean("userService"));
+            previous = context;
+        }
+    }
+
+    @Test
+    public void testNewContextIsCheaperThanBuildingFromXml() throws Exception {
+        long fromTemplate = Long.MAX_VALUE;
+        long fromXml = Long.MAX_VALUE;
+        for (int round = 0; round < 30; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < 20; i++) {
+                template.newContext();
+            }
+            fromTemplate = Math.min(fromTemplate, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int i = 0; i < 20; i++) {
+                new GenericApplicationContext("context.xml");
+            }
+            fromXml = Math.min(fromXml, System.nanoTime() - start);
+        }
+
+        assertTrue("newContext took " + fromTemplate + "ns, building from XML " + fromXml + "ns",
+                fromTemplate * 2 < fromXml);
+    }
+}
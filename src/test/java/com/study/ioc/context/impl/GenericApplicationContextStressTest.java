@@ -0,0 +1,347 @@
+package com.study.ioc.context.impl;
+
+import com.study.entity.ReplacedStressNode;
+import com.study.entity.StressNode;
+import com.study.ioc.async.VirtualThreads;
+import com.study.ioc.pool.PoolStats;
+import com.study.ioc.processor.ReplacingBeanPostProcessor;
+import com.study.ioc.processor.TestClass;
+import com.study.ioc.scope.CarrierScope;
+import com.study.ioc.scope.ScopeCarrier;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Hammers a context built from a {@link RandomBeanGraph} from many threads. Excluded from
+ * the default build, run with {@code mvn test -Pstress}. The graph seed is printed and can
+ * be fixed with {@code -Dstress.seed}; {@code -Dstress.beans}, {@code -Dstress.threads}
+ * and {@code -Dstress.iterations} size the run.
+ */
+public class GenericApplicationContextStressTest {
+    private static final long SEED = Long.getLong("stress.seed", System.nanoTime());
+    private static final int BEANS = Integer.getInteger("stress.beans", 200);
+    private static final int THREADS = Integer.getInteger("stress.threads",
+            Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+    private static final int ITERATIONS = Integer.getInteger("stress.iterations", 100_000);
+
+    private static RandomBeanGraph graph;
+
+    @BeforeClass
+    public static void generateGraph() {
+        System.out.println("Stress test seed " + SEED + ", " + BEANS + " beans, " + THREADS + " threads");
+        graph = new RandomBeanGraph(SEED, BEANS);
+    }
+
+    @Test
+    public void testConcurrentLookups() throws Exception {
+        GenericApplicationContext context = new GenericApplicationContext(graph.toResource());
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            runConcurrently(executor, THREADS, task -> lookup(context, task, ITERATIONS));
+        } finally {
+            executor.shutdownNow();
+        }
+        verifyPostProcessedOnce(context);
+    }
+
+    @Test
+    public void testConcurrentLookupsOnVirtualThreads() throws Exception {
+        Assume.assumeTrue("Virtual threads are not available", VirtualThreads.isSupported());
+        GenericApplicationContext context = new GenericApplicationContext(graph.toResource());
+        ExecutorService executor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+        try {
+            runConcurrently(executor, THREADS * 64, task -> lookup(context, task, ITERATIONS / 64));
+        } finally {
+            executor.shutdownNow();
+        }
+        verifyPostProcessedOnce(context);
+    }
+
+    @Test
+    public void testThreadScopeCreatesOneInitializedInstancePerThread() throws Exception {
+        GenericApplicationContext context = new GenericApplicationContext(graph.toResource());
+        Set<StressNode> instances = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            runConcurrently(executor, THREADS, task -> {
+                StressNode first = context.getBean(RandomBeanGraph.PER_THREAD, StressNode.class);
+                for (int i = 0; i < ITERATIONS / 10; i++) {
+                    assertSame(first, context.getBean(RandomBeanGraph.PER_THREAD));
+                }
+                instances.add(first);
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(THREADS, instances.size());
+        for (StressNode instance : instances) {
+            assertEquals(RandomBeanGraph.PER_THREAD, instance.getName());
+            assertEquals(1, instance.getInitCount());
+        }
+    }
+
+    @Test
+    public void testRacilyPublishedContext() throws Exception {
+        ContextTemplate template = new ContextTemplate(graph.toResource());
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < Math.max(1, ITERATIONS / 1000); round++) {
+                RacyHolder holder = new RacyHolder();
+                runConcurrently(executor, THREADS, task -> {
+                    if (task == 0) {
+                        holder.context = template.newContext();
+                        return;
+                    }
+                    GenericApplicationContext context;
+                    while ((context = holder.context) == null) {
+                        Thread.yield();
+                    }
+                    verifyPostProcessedOnce(context);
+                    lookup(context, task, 1000);
+                });
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSharedRequestAndSessionCarriersCreateEachBeanOnce() throws Exception {
+        GenericApplicationContext context = new GenericApplicationContext(graph.toResource());
+        CarrierScope requestScope = (CarrierScope) context.getScope("request");
+        CarrierScope sessionScope = (CarrierScope) context.getScope("session");
+        ScopeCarrier request = new ScopeCarrier();
+        ScopeCarrier session = new ScopeCarrier();
+        Set<StressNode> instances = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            runConcurrently(executor, THREADS, task -> sessionScope.call(session, () -> requestScope.call(request, () -> {
+                StressNode perRequest = context.getBean(RandomBeanGraph.PER_REQUEST, StressNode.class);
+                StressNode perSession = context.getBean(RandomBeanGraph.PER_SESSION, StressNode.class);
+                for (int i = 0; i < ITERATIONS / 10; i++) {
+                    assertSame(perRequest, context.getBean(RandomBeanGraph.PER_REQUEST));
+                    assertSame(perSession, context.handle(RandomBeanGraph.PER_SESSION, StressNode.class).get());
+                }
+                instances.add(perRequest);
+                instances.add(perSession);
+                return null;
+            })));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(2, instances.size());
+        for (StressNode instance : instances) {
+            assertEquals(instance.getName(), instance.getInitializedName());
+            assertEquals(1, instance.getInitCount());
+        }
+    }
+
+    @Test
+    public void testBorrowAndReturnNeverShareAnInstance() throws Exception {
+        GenericApplicationContext context = new GenericApplicationContext(graph.toResource());
+        Set<StressNode> borrowed = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        Set<StressNode> instances = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        int borrowsPerTask = ITERATIONS / 10;
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            runConcurrently(executor, THREADS, task -> {
+                for (int i = 0; i < borrowsPerTask; i++) {
+                    StressNode node = context.borrowBean(RandomBeanGraph.POOLED, StressNode.class);
+                    assertTrue("Instance borrowed twice", borrowed.add(node));
+                    if ((i & 255) == 0) {
+                        instances.add(node);
+                    }
+                    assertTrue(borrowed.remove(node));
+                    context.returnBean(RandomBeanGraph.POOLED, node);
+                }
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+        PoolStats stats = context.getPoolStats(RandomBeanGraph.POOLED);
+        assertTrue(stats.getCreated() <= RandomBeanGraph.POOL_SIZE);
+        assertEquals((long) THREADS * borrowsPerTask, stats.getHits() + stats.getMisses());
+        assertEquals(stats.getCreated(), stats.getIdle());
+        for (StressNode instance : instances) {
+            assertEquals(RandomBeanGraph.POOLED, instance.getInitializedName());
+            assertEquals(1, instance.getInitCount());
+        }
+    }
+
+    @Test
+    public void testConcurrentContextConstruction() throws Exception {
+        ContextTemplate template = new ContextTemplate(graph.toResource());
+        int contextsPerThread = 4;
+        Set<Object> beans = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            runConcurrently(executor, THREADS, task -> {
+                for (int i = 0; i < contextsPerThread; i++) {
+                    GenericApplicationContext context = i % 2 == 0
+                            ? template.newContext()
+                            : new GenericApplicationContext(graph.toResource());
+                    verifyPostProcessedOnce(context);
+                    for (String name : graph.getNames()) {
+                        StressNode node = context.getBean(name, StressNode.class);
+                        verifyNode(context, name, node);
+                        beans.add(node);
+                    }
+                    context.close();
+                }
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals("Contexts must not share singletons", THREADS * contextsPerThread * BEANS, beans.size());
+    }
+
+    @Test
+    public void testThroughputScaling() throws Exception {
+        GenericApplicationContext context = new GenericApplicationContext(graph.toResource());
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        double singleThreaded = 0;
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            double opsPerSecond = measureThroughput(context, Executors.newFixedThreadPool(threads), threads);
+            if (threads == 1) {
+                singleThreaded = opsPerSecond;
+            }
+            System.out.printf(Locale.ROOT, "getBean %3d platform threads: %,14.0f ops/s, scaling %.2f%n",
+                    threads, opsPerSecond, opsPerSecond / singleThreaded);
+            if (threads == maxThreads) {
+                break;
+            }
+        }
+        if (VirtualThreads.isSupported()) {
+            double opsPerSecond = measureThroughput(context, VirtualThreads.newVirtualThreadPerTaskExecutor(),
+                    maxThreads * 16);
+            System.out.printf(Locale.ROOT, "getBean %3d virtual threads:  %,14.0f ops/s, scaling %.2f%n",
+                    maxThreads * 16, opsPerSecond, opsPerSecond / singleThreaded);
+        }
+    }
+
+    private static double measureThroughput(GenericApplicationContext context, ExecutorService executor,
+                                            int threads) throws Exception {
+        int iterations = Math.max(1, ITERATIONS * 10 / threads);
+        try {
+            runConcurrently(executor, threads, task -> lookup(context, task, iterations / 10));
+            long start = System.nanoTime();
+            runConcurrently(executor, threads, task -> lookup(context, task, iterations));
+            long elapsed = System.nanoTime() - start;
+            return (double) iterations * threads * TimeUnit.SECONDS.toNanos(1) / elapsed;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void lookup(GenericApplicationContext context, int task, int iterations) {
+        Random random = new Random(SEED + task);
+        List<String> names = graph.getNames();
+        for (int i = 0; i < iterations; i++) {
+            String name = names.get(random.nextInt(names.size()));
+            switch (i & 3) {
+                case 0 -> verifyNode(context, name, (StressNode) context.getBean(name));
+                case 1 -> verifyNode(context, name, context.getBean(name, StressNode.class));
+                case 2 -> assertEquals("stress", context.getBean(TestClass.class).getText());
+                default -> {
+                    if ((i & 255) == 3) {
+                        assertEquals(BEANS, context.getBeansOfType(StressNode.class).size());
+                    }
+                }
+            }
+        }
+    }
+
+    private static void verifyNode(GenericApplicationContext context, String name, StressNode node) {
+        assertNotNull(name, node);
+        assertEquals(name, node.getName());
+        assertEquals(name, node.getInitializedName());
+        assertEquals(name, 1, node.getInitCount());
+        assertEquals(name, name.startsWith(ReplacingBeanPostProcessor.PREFIX), node instanceof ReplacedStressNode);
+
+        String dependency = graph.getDependencies().get(name);
+        if (dependency == null) {
+            assertEquals(null, node.getDependency());
+        } else {
+            assertSame(unwrap(context.getBean(dependency)), unwrap(node.getDependency()));
+        }
+        List<String> peers = graph.getPeers().get(name);
+        if (peers != null) {
+            assertEquals(peers.size(), node.getPeers().size());
+            for (int i = 0; i < peers.size(); i++) {
+                assertSame(unwrap(context.getBean(peers.get(i))), unwrap(node.getPeers().get(i)));
+            }
+        }
+    }
+
+    private static void verifyPostProcessedOnce(GenericApplicationContext context) {
+        ReplacingBeanPostProcessor postProcessor = (ReplacingBeanPostProcessor)
+                context.getServiceBeans().get(RandomBeanGraph.POST_PROCESSOR).getValue();
+        Map<String, AtomicInteger> calls = postProcessor.getAfterInitializationCalls();
+        for (String name : graph.getNames()) {
+            assertEquals(name, 1, calls.get(name).get());
+        }
+    }
+
+    private static Object unwrap(Object bean) {
+        return bean instanceof ReplacedStressNode replaced ? replaced.getTarget() : bean;
+    }
+
+    /**
+     * Runs {@code tasks} tasks that all wait for each other before starting, so with a
+     * pool of {@code tasks} threads every task gets its own thread, and rethrows the
+     * first failure.
+     */
+    private static void runConcurrently(ExecutorService executor, int tasks, StressTask task) throws Exception {
+        CountDownLatch ready = new CountDownLatch(tasks);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            int taskId = i;
+            futures.add(executor.submit(() -> {
+                ready.countDown();
+                start.await();
+                task.run(taskId);
+                return null;
+            }));
+        }
+        assertTrue("Tasks did not start", ready.await(1, TimeUnit.MINUTES));
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Hands a context to other threads through a plain field, without a happens-before
+     * edge between building the context and reading it.
+     */
+    private static final class RacyHolder {
+        private GenericApplicationContext context;
+    }
+
+    @FunctionalInterface
+    private interface StressTask {
+        void run(int task) throws Exception;
+    }
+}
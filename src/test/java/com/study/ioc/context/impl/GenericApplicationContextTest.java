@@ -1,8 +1,10 @@
 package com.study.ioc.context.impl;
 
 import com.study.entity.DefaultUserService;
+import com.study.entity.IMailService;
 import com.study.entity.MailService;
 import com.study.entity.UserService;
+import com.study.ioc.context.BeanHandle;
 import com.study.ioc.entity.Bean;
 import com.study.ioc.entity.BeanDefinition;
 import com.study.ioc.exception.BeanInstantiationException;
@@ -13,18 +15,24 @@ import com.study.ioc.processor.BeanPostProcessor;
 import com.study.ioc.processor.CustomBeanFactoryPostProcessor;
 import com.study.ioc.processor.CustomBeanPostProcessor;
 import com.study.ioc.processor.TestClass;
+import com.study.ioc.reader.resource.ByteBufferResource;
+import com.study.ioc.scope.CarrierScope;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class GenericApplicationContextTest {
@@ -343,4 +351,233 @@ public class GenericApplicationContextTest {
     }
 
 
+    @Test
+    public void testThreadScopedBean() throws Exception {
+        Map<String, BeanDefinition> beanDefinitionMap = new HashMap<>();
+        BeanDefinition beanDefinitionMailService = new BeanDefinition("mailService", "com.study.entity.MailService");
+        beanDefinitionMailService.setScope("thread");
+        beanDefinitionMailService.setValueDependencies(Map.of("port", "110"));
+        beanDefinitionMap.put("mailService", beanDefinitionMailService);
+
+        genericApplicationContext.createAllServiceBeans(beanDefinitionMap);
+        genericApplicationContext.createBeans(beanDefinitionMap);
+
+        MailService mailService = genericApplicationContext.getBean("mailService", MailService.class);
+        assertEquals(1110, mailService.getPort());
+        assertSame(mailService, genericApplicationContext.getBean(MailService.class));
+
+        AtomicReference<Object> otherThreadBean = new AtomicReference<>();
+        Thread thread = new Thread(() -> otherThreadBean.set(genericApplicationContext.getBean("mailService")));
+        thread.start();
+        thread.join();
+        assertNotNull(otherThreadBean.get());
+        assertNotSame(mailService, otherThreadBean.get());
+    }
+
+    @Test
+    public void testRequestScopedBean() throws InstantiationException, IllegalAccessException {
+        Map<String, BeanDefinition> beanDefinitionMap = new HashMap<>();
+        BeanDefinition beanDefinitionUserService = new BeanDefinition("userService", "com.study.entity.DefaultUserService");
+        beanDefinitionUserService.setScope("request");
+        beanDefinitionUserService.setRefDependencies(Map.of("mailService", "mailServicePOP"));
+        beanDefinitionMap.put("userService", beanDefinitionUserService);
+        beanDefinitionMap.put("mailServicePOP", new BeanDefinition("mailServicePOP", "com.study.entity.MailService"));
+
+        genericApplicationContext.createAllServiceBeans(beanDefinitionMap);
+        genericApplicationContext.createBeans(beanDefinitionMap);
+        CarrierScope requestScope = (CarrierScope) genericApplicationContext.getScope("request");
+
+        AtomicReference<Object> firstRequestBean = new AtomicReference<>();
+        requestScope.run(() -> {
+            DefaultUserService userService = genericApplicationContext.getBean("userService", DefaultUserService.class);
+            assertSame(genericApplicationContext.getBean("mailServicePOP"), userService.getMailService());
+            assertSame(userService, genericApplicationContext.getBean("userService"));
+            firstRequestBean.set(userService);
+        });
+        requestScope.run(() -> assertNotSame(firstRequestBean.get(), genericApplicationContext.getBean("userService")));
+    }
+
+    @Test(expected = BeanInstantiationException.class)
+    public void testSingletonCanNotReferenceScopedBean() throws InstantiationException, IllegalAccessException {
+        Map<String, BeanDefinition> beanDefinitionMap = new HashMap<>();
+        BeanDefinition beanDefinitionUserService = new BeanDefinition("userService", "com.study.entity.DefaultUserService");
+        beanDefinitionUserService.setRefDependencies(Map.of("mailService", "mailService"));
+        beanDefinitionMap.put("userService", beanDefinitionUserService);
+        BeanDefinition beanDefinitionMailService = new BeanDefinition("mailService", "com.study.entity.MailService");
+        beanDefinitionMailService.setScope("thread");
+        beanDefinitionMap.put("mailService", beanDefinitionMailService);
+
+        Map<String, Bean> beans = genericApplicationContext.createBeans(beanDefinitionMap);
+        genericApplicationContext.injectRefDependencies(beanDefinitionMap, beans);
+    }
+
+    @Test
+    public void testPooledBean() throws InstantiationException, IllegalAccessException {
+        Map<String, BeanDefinition> beanDefinitionMap = new HashMap<>();
+        BeanDefinition beanDefinitionMailService = new BeanDefinition("mailService", "com.study.entity.MailService");
+        beanDefinitionMailService.setScope("pooled");
+        beanDefinitionMailService.setAttributes(Map.of("pool-max-size", "2"));
+        beanDefinitionMap.put("mailService", beanDefinitionMailService);
+
+        genericApplicationContext.createAllServiceBeans(beanDefinitionMap);
+        genericApplicationContext.createBeans(beanDefinitionMap);
+
+        MailService mailService = genericApplicationContext.borrowBean("mailService", MailService.class);
+        assertNotNull(mailService);
+        genericApplicationContext.returnBean("mailService", mailService);
+        assertSame(mailService, genericApplicationContext.borrowBean("mailService", MailService.class));
+        assertEquals(1, genericApplicationContext.getPoolStats("mailService").getHits());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testGetPooledBeanById() throws InstantiationException, IllegalAccessException {
+        Map<String, BeanDefinition> beanDefinitionMap = new HashMap<>();
+        BeanDefinition beanDefinitionMailService = new BeanDefinition("mailService", "com.study.entity.MailService");
+        beanDefinitionMailService.setScope("pooled");
+        beanDefinitionMap.put("mailService", beanDefinitionMailService);
+
+        genericApplicationContext.createBeans(beanDefinitionMap);
+        genericApplicationContext.getBean("mailService");
+    }
+
+    @Test
+    public void testHandle() {
+        Map<String, Bean> beanMap = new HashMap<>();
+        DefaultUserService userService = new DefaultUserService();
+        Bean userServiceBean = new Bean("userService", userService);
+        beanMap.put("userService", userServiceBean);
+        beanMap.put("mailService", new Bean("mailService", new MailService()));
+        genericApplicationContext.setBeans(beanMap);
+
+        BeanHandle<UserService> handle = genericApplicationContext.handle("userService", UserService.class);
+        assertEquals("userService", handle.getName());
+        assertSame(userService, handle.get());
+
+        DefaultUserService replacement = new DefaultUserService();
+        genericApplicationContext.callPostProcessAfterInitialization(userServiceBean, new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Bean bean, String beanName) {
+                return bean.getValue();
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Bean bean, String beanName) {
+                return replacement;
+            }
+        });
+        assertSame(replacement, handle.get());
+    }
+
+    @Test(expected = NoSuchBeanDefinitionException.class)
+    public void testHandleRejectsReplacementOfAnotherType() {
+        Map<String, Bean> beanMap = new HashMap<>();
+        Bean userServiceBean = new Bean("userService", new DefaultUserService());
+        beanMap.put("userService", userServiceBean);
+        genericApplicationContext.setBeans(beanMap);
+        BeanHandle<UserService> handle = genericApplicationContext.handle("userService", UserService.class);
+
+        beanMap.put("userService", new Bean("userService", new MailService()));
+        genericApplicationContext.setBeans(beanMap);
+        handle.get();
+    }
+
+    @Test(expected = NoSuchBeanDefinitionException.class)
+    public void testHandleOfRemovedBeanThrows() {
+        Map<String, Bean> beanMap = new HashMap<>();
+        beanMap.put("userService", new Bean("userService", new DefaultUserService()));
+        genericApplicationContext.setBeans(beanMap);
+        BeanHandle<UserService> handle = genericApplicationContext.handle("userService", UserService.class);
+        handle.get();
+
+        genericApplicationContext.setBeans(Map.of("mailService", new Bean("mailService", new MailService())));
+        handle.get();
+    }
+
+    @Test(expected = NoSuchBeanDefinitionException.class)
+    public void testHandleWithWrongType() {
+        Map<String, Bean> beanMap = new HashMap<>();
+        beanMap.put("userService", new Bean("userService", new DefaultUserService()));
+        genericApplicationContext.setBeans(beanMap);
+        genericApplicationContext.handle("userService", MailService.class);
+    }
+
+    @Test
+    public void testGetBeansOfType() {
+        Map<String, Bean> beanMap = new HashMap<>();
+        DefaultUserService userService = new DefaultUserService();
+        MailService mailServicePOP = new MailService();
+        MailService mailServiceIMAP = new MailService();
+        beanMap.put("userService", new Bean("userService", userService));
+        beanMap.put("mailServicePOP", new Bean("mailServicePOP", mailServicePOP));
+        beanMap.put("mailServiceIMAP", new Bean("mailServiceIMAP", mailServiceIMAP));
+        genericApplicationContext.setBeans(beanMap);
+
+        Map<String, IMailService> mailServices = genericApplicationContext.getBeansOfType(IMailService.class);
+        assertEquals(2, mailServices.size());
+        assertSame(mailServicePOP, mailServices.get("mailServicePOP"));
+        assertSame(mailServiceIMAP, mailServices.get("mailServiceIMAP"));
+        assertSame(mailServices, genericApplicationContext.getBeansOfType(IMailService.class));
+        assertEquals(List.copyOf(mailServices.keySet()), genericApplicationContext.getBeanNamesForType(IMailService.class));
+        assertEquals(List.of("userService"), genericApplicationContext.getBeanNamesForType(UserService.class));
+        assertTrue(genericApplicationContext.getBeansOfType(String.class).isEmpty());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testGetBeansOfTypeIsImmutable() {
+        Map<String, Bean> beanMap = new HashMap<>();
+        beanMap.put("userService", new Bean("userService", new DefaultUserService()));
+        genericApplicationContext.setBeans(beanMap);
+        genericApplicationContext.getBeansOfType(UserService.class).clear();
+    }
+
+    @Test
+    public void testTypeIndexFollowsBeanChanges() {
+        Map<String, Bean> beanMap = new HashMap<>();
+        beanMap.put("userService", new Bean("userService", new DefaultUserService()));
+        genericApplicationContext.setBeans(beanMap);
+        assertEquals(List.of("userService"), genericApplicationContext.getBeanNames());
+        assertTrue(genericApplicationContext.getBeanNamesForType(MailService.class).isEmpty());
+
+        Map<String, Bean> newBeanMap = new HashMap<>();
+        newBeanMap.put("mailService", new Bean("mailService", new MailService()));
+        genericApplicationContext.setBeans(newBeanMap);
+        assertEquals(List.of("mailService"), genericApplicationContext.getBeanNames());
+        assertEquals(List.of("mailService"), genericApplicationContext.getBeanNamesForType(MailService.class));
+        assertTrue(genericApplicationContext.getBeanNamesForType(UserService.class).isEmpty());
+    }
+
+    @Test
+    public void testBeanNamesFollowDocumentOrderAndIncludePooledBeans() throws Exception {
+        String xml = """
+                <beans>
+                    <bean id="zMailService" class="com.study.entity.MailService"/>
+                    <bean id="userService" class="com.study.entity.DefaultUserService"/>
+                    <bean id="aMailService" class="com.study.entity.MailService"/>
+                    <bean id="pooledMailService" class="com.study.entity.MailService" scope="pooled"/>
+                </beans>
+                """;
+        GenericApplicationContext context = new GenericApplicationContext(
+                new ByteBufferResource(xml.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(List.of("zMailService", "userService", "aMailService", "pooledMailService"), context.getBeanNames());
+        assertEquals(List.of("zMailService", "aMailService", "pooledMailService"),
+                context.getBeanNamesForType(MailService.class));
+        assertEquals(List.of("zMailService", "aMailService"), List.copyOf(context.getBeansOfType(MailService.class).keySet()));
+    }
+
+    @Test
+    public void testGetBeanByTypeSkipsPooledBeans() throws Exception {
+        String xml = """
+                <beans>
+                    <bean id="mailService" class="com.study.entity.MailService"/>
+                    <bean id="pooledMailService" class="com.study.entity.MailService" scope="pooled"/>
+                    <bean id="pooledUserService" class="com.study.entity.DefaultUserService" scope="pooled"/>
+                </beans>
+                """;
+        GenericApplicationContext context = new GenericApplicationContext(
+                new ByteBufferResource(xml.getBytes(StandardCharsets.UTF_8)));
+
+        assertSame(context.getBean("mailService"), context.getBean(MailService.class));
+        assertNull(context.getBean(DefaultUserService.class));
+    }
 }
@@ -0,0 +1,95 @@
+package com.study.ioc.context.impl;
+
+import com.study.entity.StressNode;
+import com.study.ioc.processor.ReplacingBeanPostProcessor;
+import com.study.ioc.processor.TestClass;
+import com.study.ioc.reader.resource.ByteBufferResource;
+import com.study.ioc.reader.resource.Resource;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A random acyclic graph of {@link StressNode} singletons: every node may reference an
+ * earlier node and hold a list of refs to earlier nodes, every fifth node is replaced
+ * by {@link ReplacingBeanPostProcessor}. The graph also has a thread, a request and a
+ * session scoped node, a pool of {@link #POOL_SIZE} nodes and a single {@link TestClass}
+ * bean to look up by type.
+ */
+@Getter
+final class RandomBeanGraph {
+    static final String PER_THREAD = "perThread";
+    static final String PER_REQUEST = "perRequest";
+    static final String PER_SESSION = "perSession";
+    static final String POOLED = "pooled";
+    static final int POOL_SIZE = 4;
+    static final String POST_PROCESSOR = "replacingPostProcessor";
+
+    private final long seed;
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, String> dependencies = new HashMap<>();
+    private final Map<String, List<String>> peers = new HashMap<>();
+    private final byte[] xml;
+
+    RandomBeanGraph(long seed, int size) {
+        this.seed = seed;
+        Random random = new Random(seed);
+        StringBuilder xml = new StringBuilder("<beans>\n");
+        xml.append("    <bean id=\"").append(POST_PROCESSOR).append("\" class=\"")
+                .append(ReplacingBeanPostProcessor.class.getName()).append("\"/>\n");
+        xml.append("    <bean id=\"testClass\" class=\"").append(TestClass.class.getName()).append("\">\n")
+                .append("        <property name=\"text\" value=\"stress\"/>\n    </bean>\n");
+        for (int i = 0; i < size; i++) {
+            String name = (i % 5 == 4 ? ReplacingBeanPostProcessor.PREFIX + "Node" : "node") + i;
+            xml.append("    <bean id=\"").append(name).append("\" class=\"").append(StressNode.class.getName())
+                    .append("\">\n");
+            appendProperty(xml, "name", name);
+            appendProperty(xml, "weight", String.valueOf(random.nextInt(1000)));
+            if (i > 0 && random.nextBoolean()) {
+                String dependency = names.get(random.nextInt(i));
+                dependencies.put(name, dependency);
+                xml.append("        <property name=\"dependency\" ref=\"").append(dependency).append("\"/>\n");
+            }
+            if (i > 0 && random.nextInt(4) == 0) {
+                List<String> nodePeers = new ArrayList<>();
+                xml.append("        <property name=\"peers\">\n            <list>\n");
+                for (int j = random.nextInt(4); j >= 0; j--) {
+                    String peer = names.get(random.nextInt(i));
+                    nodePeers.add(peer);
+                    xml.append("                <ref bean=\"").append(peer).append("\"/>\n");
+                }
+                xml.append("            </list>\n        </property>\n");
+                peers.put(name, nodePeers);
+            }
+            xml.append("    </bean>\n");
+            names.add(name);
+        }
+        appendScopedNode(xml, PER_THREAD, "scope=\"thread\"");
+        appendScopedNode(xml, PER_REQUEST, "scope=\"request\"");
+        appendScopedNode(xml, PER_SESSION, "scope=\"session\"");
+        appendScopedNode(xml, POOLED, "scope=\"pooled\" pool-max-size=\"" + POOL_SIZE + "\" pool-max-wait=\"60000\"");
+        xml.append("</beans>\n");
+        this.xml = xml.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    Resource toResource() {
+        return new ByteBufferResource(ByteBuffer.wrap(xml), "random bean graph, seed " + seed);
+    }
+
+    private static void appendScopedNode(StringBuilder xml, String name, String attributes) {
+        xml.append("    <bean id=\"").append(name).append("\" class=\"").append(StressNode.class.getName())
+                .append("\" ").append(attributes).append(">\n");
+        appendProperty(xml, "name", name);
+        xml.append("    </bean>\n");
+    }
+
+    private static void appendProperty(StringBuilder xml, String name, String value) {
+        xml.append("        <property name=\"").append(name).append("\" value=\"").append(value).append("\"/>\n");
+    }
+}
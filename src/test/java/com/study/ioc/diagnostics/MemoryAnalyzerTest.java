@@ -0,0 +1,114 @@
+package com.study.ioc.diagnostics;
+
+import com.study.entity.DefaultUserService;
+import com.study.ioc.context.impl.GenericApplicationContext;
+import com.study.ioc.reader.resource.ByteBufferResource;
+import com.study.ioc.reader.sax.XmlBeanDefinitionReader;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MemoryAnalyzerTest {
+    private static final String CONTEXT = """
+            <beans>
+                <bean id="mailServicePOP" class="com.study.entity.MailService">
+                    <property name="port" value="995"/>
+                    <property name="protocol" value="POP3"/>
+                </bean>
+                <bean id="userService" class="com.study.entity.DefaultUserService">
+                    <property name="mailService" ref="mailServicePOP"/>
+                </bean>
+                <bean id="routingService" class="com.study.entity.RoutingService">
+                    <property name="ports"><array type="int">%s</array></property>
+                    <property name="routes"><map><entry key="pop" ref="mailServicePOP"/></map></property>
+                </bean>
+            </beans>
+            """;
+
+    @Test
+    public void testEstimatesRetainedSizePerBean() throws Exception {
+        GenericApplicationContext context = newContext();
+
+        MemoryReport report = MemoryAnalyzer.analyze(context);
+
+        Map<String, MemoryReport.BeanFootprint> beans = byName(report);
+        assertEquals("routingService", report.getBeans().get(0).name());
+        assertTrue(beans.get("routingService").retainedBytes() >= 1000 * Integer.BYTES);
+        assertTrue("Other beans are not entered", beans.get("userService").retainedBytes() < 64);
+        assertEquals(1, beans.get("userService").objectCount());
+        assertTrue(beans.get("mailServicePOP").retainedBytes() > 0);
+        assertTrue(beans.get("routingService").reachableBytes() >= beans.get("routingService").retainedBytes());
+        assertFalse(beans.get("routingService").truncated());
+        assertTrue(report.getUnusedBeans().isEmpty());
+    }
+
+    @Test
+    public void testStopsAtDepthLimit() throws Exception {
+        MemoryReport report = MemoryAnalyzer.analyze(newContext(), 0);
+
+        MemoryReport.BeanFootprint routingService = byName(report).get("routingService");
+        assertTrue(routingService.truncated());
+        assertEquals(1, routingService.objectCount());
+        assertTrue(routingService.retainedBytes() < 1000);
+    }
+
+    @Test
+    public void testFlagsBeansNeverLookedUp() throws Exception {
+        GenericApplicationContext context = newContext();
+        context.setLookupTracker(new LookupTracker());
+
+        context.getBean("userService", DefaultUserService.class);
+        context.getBean(DefaultUserService.class);
+
+        MemoryReport report = MemoryAnalyzer.analyze(context);
+        assertEquals(List.of("routingService", "mailServicePOP"), report.getUnusedBeans());
+        assertEquals(2, byName(report).get("userService").lookups());
+        assertTrue(report.toString().contains("Never looked up: routingService, mailServicePOP"));
+    }
+
+    @Test
+    public void testReportsAllocatedBytesPerPhase() throws Exception {
+        MemoryReport report = MemoryAnalyzer.analyze(newContext(new StartupRecorder()));
+
+        assertEquals(List.of("read", "compile", "create", "inject", "init", "refresh"),
+                List.copyOf(report.getAllocatedBytes().keySet()));
+        assertEquals(AllocationCounter.isSupported(), report.isAllocationSupported());
+        if (report.isAllocationSupported()) {
+            assertTrue(report.getAllocatedBytes().get("read") > 0);
+            assertTrue(report.getAllocatedBytes().get("inject") > 1000 * Integer.BYTES);
+            assertTrue(report.toString().contains("Allocated during startup"));
+        }
+    }
+
+    @Test
+    public void testReportsNoAllocationsWithoutRecorder() throws Exception {
+        MemoryReport report = MemoryAnalyzer.analyze(newContext());
+
+        assertFalse(report.isAllocationSupported());
+        assertFalse(report.toString().contains("Allocated during startup"));
+    }
+
+    private static GenericApplicationContext newContext() {
+        return newContext(StartupRecorder.disabled());
+    }
+
+    private static GenericApplicationContext newContext(StartupRecorder startupRecorder) {
+        String ports = IntStream.range(0, 1000).mapToObj(port -> "<value>" + port + "</value>")
+                .collect(Collectors.joining());
+        return new GenericApplicationContext(new XmlBeanDefinitionReader(List.of(new ByteBufferResource(
+                String.format(CONTEXT, ports).getBytes(StandardCharsets.UTF_8)))), startupRecorder);
+    }
+
+    private static Map<String, MemoryReport.BeanFootprint> byName(MemoryReport report) {
+        return report.getBeans().stream()
+                .collect(Collectors.toMap(MemoryReport.BeanFootprint::name, bean -> bean));
+    }
+}
@@ -0,0 +1,95 @@
+package com.study.ioc.diagnostics;
+
+import com.study.ioc.context.impl.GenericApplicationContext;
+import com.study.ioc.reader.sax.XmlBeanDefinitionReader;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StartupAnalyzerTest {
+
+    @Test
+    public void testRecordsSingletonPhases() throws Exception {
+        GenericApplicationContext context = new GenericApplicationContext(
+                new XmlBeanDefinitionReader("context.xml"), new StartupRecorder());
+        StartupStats recorder = context.getStartupStats();
+
+        assertFalse(recorder instanceof StartupRecorder);
+        assertTrue(recorder.isEnabled());
+
+        assertTrue(recorder.getBeanNames().contains("userService"));
+        assertTrue(recorder.getBeanNames().contains("mailServicePOP"));
+        assertTrue(recorder.getNanos("userService", StartupRecorder.Phase.CREATE) > 0);
+        assertEquals(recorder.getNanos("userService", StartupRecorder.Phase.CREATE)
+                        + recorder.getNanos("userService", StartupRecorder.Phase.INJECT)
+                        + recorder.getNanos("userService", StartupRecorder.Phase.INIT),
+                recorder.getTotalNanos("userService"));
+    }
+
+    @Test
+    public void testRecordsNothingByDefault() throws Exception {
+        StartupStats recorder = new GenericApplicationContext("context.xml").getStartupStats();
+
+        assertFalse(recorder.isEnabled());
+        assertTrue(recorder.getBeanNames().isEmpty());
+        assertEquals(0, recorder.getNanos(StartupRecorder.ContainerPhase.READ));
+    }
+
+    @Test
+    public void testCriticalPathFollowsSlowestChain() throws Exception {
+        GenericApplicationContext context = new GenericApplicationContext("context.xml");
+        StartupRecorder recorder = recordEveryBean(context);
+        recorder.record("userServiceImap", StartupRecorder.Phase.INIT, TimeUnit.SECONDS.toNanos(1));
+
+        StartupReport report = StartupAnalyzer.analyze(context, recorder);
+
+        assertEquals(List.of("mailServiceIMAP", "userServiceImap"), report.getCriticalPath());
+        assertEquals(TimeUnit.SECONDS.toNanos(1) + 2 * TimeUnit.MILLISECONDS.toNanos(1), report.getCriticalPathNanos());
+        assertTrue(report.getTotalNanos() >= report.getCriticalPathNanos());
+        assertTrue(report.getParallelism() >= 1);
+        assertTrue(report.getCycleEdges().isEmpty());
+        for (StartupReport.BeanNode bean : report.getBeans()) {
+            assertTrue(bean.slackNanos() >= 0);
+            if (report.getCriticalPath().contains(bean.name())) {
+                assertEquals(0, bean.slackNanos());
+            }
+            if (bean.name().equals("userService")) {
+                assertEquals(List.of("mailServicePOP"), bean.dependencies());
+                assertTrue(bean.slackNanos() > 0);
+            }
+        }
+    }
+
+    @Test
+    public void testExportsDotAndJson() throws Exception {
+        GenericApplicationContext context = new GenericApplicationContext("context.xml");
+        StartupRecorder recorder = recordEveryBean(context);
+        recorder.record("userService", StartupRecorder.Phase.INIT, TimeUnit.SECONDS.toNanos(1));
+        StartupReport report = StartupAnalyzer.analyze(context, recorder);
+
+        String dot = report.toDot();
+        assertTrue(dot.startsWith("digraph startup {"));
+        assertTrue(dot.contains("\"userService\" -> \"mailServicePOP\" [color=red, penwidth=2];"));
+        assertTrue(dot.contains("\"userServiceImap\" -> \"mailServiceIMAP\";"));
+
+        String json = report.toJson();
+        assertTrue(json.contains("\"criticalPath\": [\"mailServicePOP\", \"userService\"]"));
+        assertTrue(json.contains("\"name\": \"testClass\""));
+    }
+
+    /**
+     * A recorder in which every singleton of the context took a millisecond to create.
+     */
+    private static StartupRecorder recordEveryBean(GenericApplicationContext context) {
+        StartupRecorder recorder = new StartupRecorder();
+        for (String name : context.getBeans().keySet()) {
+            recorder.record(name, StartupRecorder.Phase.CREATE, TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return recorder;
+    }
+}
@@ -0,0 +1,55 @@
+package com.study.ioc.entity;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PropertyValuesTest {
+
+    @Test
+    public void testEmptyIsShared() {
+        assertSame(PropertyValues.EMPTY, PropertyValues.of(new HashMap<>()));
+        assertSame(PropertyValues.EMPTY, PropertyValues.builder().build());
+        assertSame(PropertyValues.EMPTY, new BeanDefinition("bean", "com.study.entity.User").getValueDependencies());
+    }
+
+    @Test
+    public void testBuilderReplacesAndInternsNames() {
+        PropertyValues propertyValues = PropertyValues.builder()
+                .put(new String("port"), "110")
+                .put("protocol", "POP3")
+                .put("port", "995")
+                .build();
+
+        assertEquals(2, propertyValues.size());
+        assertEquals("995", propertyValues.get("port"));
+        assertEquals("POP3", propertyValues.get("protocol"));
+        assertNull(propertyValues.get("host"));
+        assertSame("port", propertyValues.getName(0));
+    }
+
+    @Test
+    public void testEqualsRegularMap() {
+        Map<String, String> expected = new HashMap<>();
+        expected.put("port", "110");
+        expected.put("protocol", "POP3");
+
+        PropertyValues propertyValues = PropertyValues.of(expected);
+        assertEquals(expected, propertyValues);
+        assertEquals(propertyValues, PropertyValues.of(expected).toBuilder().remove("host").build());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFrozenDefinitionRejectsChanges() {
+        BeanDefinition beanDefinition = new BeanDefinition("mailService", "com.study.entity.MailService");
+        beanDefinition.freeze();
+        assertTrue(beanDefinition.isFrozen());
+        beanDefinition.setValueDependencies(Map.of("port", "110"));
+    }
+}
@@ -0,0 +1,199 @@
+package com.study.ioc.event;
+
+import com.study.entity.AuditService;
+import com.study.entity.User;
+import com.study.entity.UserRegisteredEvent;
+import com.study.entity.WelcomeMailListener;
+import com.study.ioc.context.impl.GenericApplicationContext;
+import com.study.ioc.reader.resource.ByteBufferResource;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ApplicationEventMulticasterTest {
+
+    private static final String CONTEXT_XML = """
+            <beans>
+                <bean id="welcomeMailListener" class="com.study.entity.WelcomeMailListener"/>
+                <bean id="auditService" class="com.study.entity.AuditService"/>
+            </beans>
+            """;
+
+    @Test
+    public void testContextDispatchesToListenerBeansAndMethods() throws Exception {
+        GenericApplicationContext context =
+                new GenericApplicationContext(new ByteBufferResource(CONTEXT_XML.getBytes(StandardCharsets.UTF_8)));
+        WelcomeMailListener welcomeMailListener = context.getBean("welcomeMailListener", WelcomeMailListener.class);
+        AuditService auditService = context.getBean("auditService", AuditService.class);
+        assertTrue(auditService.isRefreshed());
+
+        User user = new User();
+        auditService.expect(1);
+        context.publishEvent(new UserRegisteredEvent(this, user));
+
+        assertEquals(1, welcomeMailListener.getWelcomed().size());
+        assertSame(user, welcomeMailListener.getWelcomed().get(0));
+        assertTrue(auditService.getAuditedLatch().await(5, TimeUnit.SECONDS));
+        assertNotEquals(Thread.currentThread().getName(), auditService.getAuditThread());
+
+        context.publishEvent(new ApplicationEvent(this));
+        assertEquals(1, welcomeMailListener.getWelcomed().size());
+        context.close();
+    }
+
+    @Test
+    public void testSubtypeListenersAndLateRegistration() {
+        ApplicationEventMulticaster multicaster = new ApplicationEventMulticaster();
+        List<ApplicationEvent> allEvents = new ArrayList<>();
+        List<ApplicationEvent> userEvents = new ArrayList<>();
+        multicaster.addListener(ApplicationEvent.class, allEvents::add, false);
+
+        multicaster.publishEvent(new UserRegisteredEvent(this, new User()));
+        multicaster.addListener(UserRegisteredEvent.class, userEvents::add, false);
+        multicaster.publishEvent(new UserRegisteredEvent(this, new User()));
+        multicaster.publishEvent(new ApplicationEvent(this));
+
+        assertEquals(3, allEvents.size());
+        assertEquals(1, userEvents.size());
+        multicaster.close();
+    }
+
+    @Test
+    public void testListenerAddedWhilePublishingIsNeverLost() throws InterruptedException {
+        for (int round = 0; round < 200; round++) {
+            ApplicationEventMulticaster multicaster = new ApplicationEventMulticaster();
+            AtomicInteger received = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            Thread publisher = new Thread(() -> {
+                start.countDown();
+                multicaster.publishEvent(new SequenceEvent(0, 0));
+            });
+            publisher.start();
+            start.await();
+            multicaster.addListener(SequenceEvent.class, event -> received.incrementAndGet(), false);
+            publisher.join();
+
+            multicaster.publishEvent(new SequenceEvent(0, 1));
+            assertTrue(received.get() >= 1);
+            multicaster.close();
+        }
+    }
+
+    @Test
+    public void testAsyncDispatchDeliversEveryEventInOrderPerPublisher() throws InterruptedException {
+        ApplicationEventMulticaster multicaster = new ApplicationEventMulticaster(64);
+        int publishers = 4;
+        int eventsPerPublisher = 10_000;
+        AtomicInteger received = new AtomicInteger();
+        AtomicInteger outOfOrder = new AtomicInteger();
+        long[] lastSequence = new long[publishers];
+        multicaster.addListener(SequenceEvent.class, event -> {
+            if (event.sequence <= lastSequence[event.publisher] && event.sequence != 0) {
+                outOfOrder.incrementAndGet();
+            }
+            lastSequence[event.publisher] = event.sequence;
+            received.incrementAndGet();
+        }, true);
+
+        CountDownLatch done = new CountDownLatch(publishers);
+        for (int p = 0; p < publishers; p++) {
+            int publisher = p;
+            new Thread(() -> {
+                for (int i = 0; i < eventsPerPublisher; i++) {
+                    multicaster.publishEvent(new SequenceEvent(publisher, i));
+                }
+                done.countDown();
+            }).start();
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        multicaster.close();
+
+        assertEquals(publishers * eventsPerPublisher, received.get());
+        assertEquals(0, outOfOrder.get());
+    }
+
+    @Test
+    public void testEventsPublishedWhileClosingAreDeliveredBeforePublishReturns() throws InterruptedException {
+        for (int round = 0; round < 50; round++) {
+            ApplicationEventMulticaster multicaster = new ApplicationEventMulticaster(64);
+            AtomicInteger received = new AtomicInteger();
+            AtomicInteger gaps = new AtomicInteger();
+            multicaster.addListener(SequenceEvent.class, event -> {
+                if (event.sequence != received.getAndIncrement()) {
+                    gaps.incrementAndGet();
+                }
+            }, true);
+
+            Thread publisher = new Thread(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    multicaster.publishEvent(new SequenceEvent(0, i));
+                }
+            });
+            publisher.start();
+            multicaster.close();
+            publisher.join(10_000);
+            int delivered = received.get();
+            Thread.sleep(2);
+
+            assertEquals(0, gaps.get());
+            assertEquals(delivered, received.get());
+        }
+    }
+
+    @Test
+    public void testParkedDispatcherIsWokenByNextEvent() throws InterruptedException {
+        ApplicationEventMulticaster multicaster = new ApplicationEventMulticaster(64);
+        AtomicInteger received = new AtomicInteger();
+        CountDownLatch[] latches = {new CountDownLatch(1), new CountDownLatch(2)};
+        multicaster.addListener(SequenceEvent.class, event -> {
+            received.incrementAndGet();
+            latches[0].countDown();
+            latches[1].countDown();
+        }, true);
+
+        multicaster.publishEvent(new SequenceEvent(0, 0));
+        assertTrue(latches[0].await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        multicaster.publishEvent(new SequenceEvent(0, 1));
+        assertTrue(latches[1].await(5, TimeUnit.SECONDS));
+        multicaster.close();
+        assertEquals(2, received.get());
+    }
+
+    @Test
+    public void testRingBufferIsBounded() {
+        EventRingBuffer ringBuffer = new EventRingBuffer(2);
+        ApplicationEvent first = new ApplicationEvent(this);
+        assertTrue(ringBuffer.offer(first));
+        assertTrue(ringBuffer.offer(new ApplicationEvent(this)));
+        assertFalse(ringBuffer.offer(new ApplicationEvent(this)));
+
+        ApplicationEvent[] batch = new ApplicationEvent[4];
+        assertEquals(2, ringBuffer.drainTo(batch));
+        assertSame(first, batch[0]);
+        assertTrue(ringBuffer.isEmpty());
+        assertTrue(ringBuffer.offer(new ApplicationEvent(this)));
+    }
+
+    private static class SequenceEvent extends ApplicationEvent {
+        private final int publisher;
+        private final long sequence;
+
+        SequenceEvent(int publisher, long sequence) {
+            super(publisher);
+            this.publisher = publisher;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.study.ioc.placeholder;
+
+import com.study.ioc.context.impl.GenericApplicationContext;
+import com.study.ioc.entity.BeanDefinition;
+import com.study.ioc.entity.PropertyValues;
+import com.study.ioc.exception.PostProcessBeanFactoryException;
+import com.study.ioc.processor.BeanFactoryPostProcessor;
+import com.study.ioc.processor.TestClass;
+import com.study.ioc.reader.resource.ByteBufferResource;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class PropertyPlaceholderBeanFactoryPostProcessorTest {
+
+    @Test
+    public void testContextResolvesPlaceholdersFromClassPathProperties() throws Exception {
+        String xml = """
+                <beans>
+                    <bean id="placeholders" class="com.study.ioc.placeholder.PropertyPlaceholderBeanFactoryPostProcessor">
+                        <property name="locations" value="classpath:mail.properties"/>
+                    </bean>
+                    <bean id="testClass" class="com.study.ioc.processor.TestClass">
+                        <property name="text" value="${mail.protocol:POP3} over ${mail.transport:TLS}"/>
+                        <property name="id" value="${mail.port}"/>
+                    </bean>
+                </beans>
+                """;
+        GenericApplicationContext context =
+                new GenericApplicationContext(new ByteBufferResource(xml.getBytes(StandardCharsets.UTF_8)));
+
+        TestClass testClass = context.getBean("testClass", TestClass.class);
+        assertEquals("IMAP over TLS", testClass.getText());
+        assertEquals(143, testClass.getId());
+        context.close();
+    }
+
+    @Test
+    public void testPlaceholdersRunBeforeOtherFactoryPostProcessorsAreCreated() throws Exception {
+        String xml = """
+                <beans>
+                    <bean id="override" class="com.study.ioc.placeholder.PropertyPlaceholderBeanFactoryPostProcessorTest$TextOverride">
+                        <property name="text" value="${mail.protocol}"/>
+                    </bean>
+                    <bean id="placeholders" class="com.study.ioc.placeholder.PropertyPlaceholderBeanFactoryPostProcessor">
+                        <property name="locations" value="classpath:mail.properties"/>
+                    </bean>
+                    <bean id="testClass" class="com.study.ioc.processor.TestClass">
+                        <property name="text" value="${mail.transport:TLS}"/>
+                    </bean>
+                </beans>
+                """;
+        GenericApplicationContext context =
+                new GenericApplicationContext(new ByteBufferResource(xml.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("IMAP SLT", context.getBean("testClass", TestClass.class).getText());
+        context.close();
+    }
+
+    @Test
+    public void testPropertiesFileIsParsedFromMappedFile() throws Exception {
+        Path file = Files.createTempFile("placeholders", ".properties");
+        try {
+            Files.writeString(file, "! comment\nkey\\ with\\ spaces=a\\tb\nunicode=\\u00e9t\u00e9\nempty\n",
+                    StandardCharsets.UTF_8);
+            PropertyPlaceholderBeanFactoryPostProcessor processor = new PropertyPlaceholderBeanFactoryPostProcessor();
+            processor.setLocations("classpath:mail.properties, file:" + file);
+
+            Map<String, String> properties = processor.loadProperties();
+
+            assertEquals("IMAP", properties.get("mail.protocol"));
+            assertEquals("4", properties.get("mail.pool.max"));
+            assertEquals("Hello, world", properties.get("greeting"));
+            assertEquals("a\tb", properties.get("key with spaces"));
+            assertEquals("\u00e9t\u00e9", properties.get("unicode"));
+            assertEquals("", properties.get("empty"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testDefaultsNestingAndSourcePrecedence() {
+        Map<String, String> first = Map.of("host", "localhost", "url", "http://${host}:${port:8080}/${path:}");
+        Map<String, String> second = Map.of("host", "remote", "port", "9090");
+        PlaceholderResolver resolver = new PlaceholderResolver(List.of(first::get, second::get));
+
+        assertEquals("http://localhost:9090/", resolver.resolve("${url}"));
+        assertEquals("x-remote-y", resolver.resolve("x-${missing:${missing2:remote}}-y"));
+        assertEquals("no placeholders", resolver.resolve("no placeholders"));
+        assertSame(resolver.resolve("${url}"), resolver.resolve("${url}"));
+    }
+
+    @Test(expected = PostProcessBeanFactoryException.class)
+    public void testCircularPlaceholder() {
+        Map<String, String> properties = Map.of("a", "${b}", "b", "${a}");
+        new PlaceholderResolver(List.of(properties::get)).resolve("${a}");
+    }
+
+    @Test(expected = PostProcessBeanFactoryException.class)
+    public void testUnresolvablePlaceholder() {
+        new PlaceholderResolver(List.of(key -> null)).resolve("${missing}");
+    }
+
+    @Test
+    public void testDefinitionWithoutPlaceholdersIsKept() {
+        BeanDefinition definition = new BeanDefinition("mailService", "com.study.entity.MailService");
+        definition.setValueDependencies(Map.of("port", "25"));
+        definition.setAttributes(Map.of("pool-max-size", "${pool.max:2}"));
+        PropertyValues valueDependencies = definition.getValueDependencies();
+        Map<String, BeanDefinition> definitions = new HashMap<>();
+        definitions.put("mailService", definition);
+
+        new PropertyPlaceholderBeanFactoryPostProcessor().postProcessorBeanFactory(definitions);
+
+        assertSame(valueDependencies, definition.getValueDependencies());
+        assertEquals("2", definition.getAttributes().get("pool-max-size"));
+    }
+
+    public static class TextOverride implements BeanFactoryPostProcessor {
+        private String text;
+
+        public void setText(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public void postProcessorBeanFactory(Map<String, BeanDefinition> beanDefinitions) {
+            BeanDefinition definition = beanDefinitions.get("testClass");
+            String reversed = new StringBuilder(definition.getValueDependencies().get("text")).reverse().toString();
+            definition.setValueDependencies(definition.getValueDependencies().toBuilder()
+                    .put("text", text + " " + reversed).build());
+        }
+    }
+
+    @Test
+    public void testParserReadsBufferFromItsPosition() {
+        ByteBuffer buffer = ByteBuffer.wrap("skip\nname=value".getBytes(StandardCharsets.UTF_8));
+        buffer.position(5);
+        Map<String, String> properties = new HashMap<>();
+
+        PropertiesParser.parse(buffer, properties);
+
+        assertEquals(Map.of("name", "value"), properties);
+    }
+}
@@ -0,0 +1,148 @@
+package com.study.ioc.pool;
+
+import com.study.ioc.entity.PropertyValues;
+import com.study.ioc.exception.BeanInstantiationException;
+import com.study.ioc.exception.PoolExhaustedException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BeanPoolTest {
+
+    private final AtomicInteger createdCount = new AtomicInteger();
+
+    @Test
+    public void testReturnedInstanceIsReused() {
+        BeanPool pool = new BeanPool("parser", Object.class, this::create, new PoolConfig(0, 2, 60_000, 100));
+
+        Object first = pool.borrow();
+        pool.release(first);
+        Object second = pool.borrow();
+
+        assertSame(first, second);
+        PoolStats stats = pool.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.5, stats.getHitRate(), 0.0001);
+    }
+
+    @Test
+    public void testPrefillCreatesMinSize() {
+        BeanPool pool = new BeanPool("parser", Object.class, this::create, new PoolConfig(3, 5, 60_000, 100));
+        pool.prefill();
+
+        assertEquals(3, createdCount.get());
+        assertEquals(3, pool.getStats().getIdle());
+    }
+
+    @Test(expected = PoolExhaustedException.class)
+    public void testBorrowFailsWhenExhausted() {
+        BeanPool pool = new BeanPool("parser", Object.class, this::create, new PoolConfig(0, 1, 60_000, 5));
+        pool.borrow();
+        pool.borrow();
+    }
+
+    @Test
+    public void testDuplicateReturnIsRejected() {
+        BeanPool pool = new BeanPool("parser", Object.class, this::create, new PoolConfig(0, 2, 60_000, 100));
+        Object object = pool.borrow();
+        pool.release(object);
+        try {
+            pool.release(object);
+            fail();
+        } catch (IllegalStateException e) {
+            // returned twice
+        }
+
+        assertSame(object, pool.borrow());
+        assertNotSame(object, pool.borrow());
+        assertEquals(2, pool.getStats().getCreated());
+    }
+
+    @Test
+    public void testForeignObjectIsRejected() {
+        BeanPool pool = new BeanPool("parser", Object.class, this::create, new PoolConfig(0, 1, 60_000, 100));
+        pool.release(pool.borrow());
+        try {
+            pool.release(new Object());
+            fail();
+        } catch (IllegalArgumentException e) {
+            // never borrowed
+        }
+
+        assertEquals(1, pool.getStats().getCreated());
+        assertEquals(1, pool.getStats().getIdle());
+    }
+
+    @Test
+    public void testIdleInstancesAboveMinSizeAreEvicted() throws InterruptedException {
+        BeanPool pool = new BeanPool("parser", Object.class, this::create, new PoolConfig(1, 3, 1, 100));
+        Object first = pool.borrow();
+        Object second = pool.borrow();
+        pool.release(first);
+        pool.release(second);
+        Thread.sleep(5);
+
+        assertEquals(1, pool.evictIdle());
+        assertEquals(1, pool.getStats().getCreated());
+        assertEquals(1, pool.getStats().getEvictions());
+    }
+
+    @Test
+    public void testConcurrentBorrowNeverSharesInstance() throws Exception {
+        BeanPool pool = new BeanPool("parser", Object.class, this::create, new PoolConfig(0, 4, 60_000, 5_000));
+        Set<Object> borrowed = ConcurrentHashMap.newKeySet();
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executorService.submit(() -> {
+                    for (int j = 0; j < 2_000; j++) {
+                        Object object = pool.borrow();
+                        assertTrue(borrowed.add(object));
+                        assertTrue(borrowed.remove(object));
+                        pool.release(object);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        assertTrue(createdCount.get() <= 4);
+        assertEquals(16_000, pool.getStats().getHits() + pool.getStats().getMisses());
+    }
+
+    @Test
+    public void testSizeOutOfIntRangeIsRejected() {
+        try {
+            PoolConfig.from("parser", PropertyValues.of(Map.of(PoolConfig.MAX_SIZE, "4294967298")));
+            fail();
+        } catch (BeanInstantiationException e) {
+            assertTrue(e.getMessage().contains("parser"));
+            assertTrue(e.getMessage().contains(PoolConfig.MAX_SIZE));
+        }
+    }
+
+    private Object create() {
+        createdCount.incrementAndGet();
+        return new Object();
+    }
+}
@@ -0,0 +1,31 @@
+package com.study.ioc.processor;
+
+import com.study.entity.ReplacedStressNode;
+import com.study.entity.StressNode;
+import com.study.ioc.entity.Bean;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Getter
+public class ReplacingBeanPostProcessor implements BeanPostProcessor {
+    public static final String PREFIX = "replaced";
+
+    private final Map<String, AtomicInteger> afterInitializationCalls = new ConcurrentHashMap<>();
+
+    @Override
+    public Object postProcessBeforeInitialization(Bean bean, String beanName) {
+        return bean.getValue();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Bean bean, String beanName) {
+        afterInitializationCalls.computeIfAbsent(beanName, name -> new AtomicInteger()).incrementAndGet();
+        if (beanName.startsWith(PREFIX) && bean.getValue() instanceof StressNode node) {
+            return new ReplacedStressNode(node);
+        }
+        return bean.getValue();
+    }
+}
@@ -0,0 +1,250 @@
+package com.study.ioc.proxy;
+
+import com.study.entity.DefaultUserService;
+import com.study.entity.DescribedEntity;
+import com.study.entity.IMailService;
+import com.study.entity.MailService;
+import com.study.entity.User;
+import com.study.entity.UserService;
+import com.study.ioc.exception.ProxyCreationException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ProxyFactoryTest {
+
+    @Test
+    public void testClassProxyKeepsBeanClass() throws Exception {
+        MailService target = new MailService();
+        List<String> calls = new ArrayList<>();
+        Method setPort = MailService.class.getMethod("setPort", int.class);
+        Method getPort = MailService.class.getMethod("getPort");
+
+        MailService proxy = (MailService) ProxyFactory.createProxy(target, Map.of(
+                setPort, List.of(invocation -> {
+                    calls.add("setPort " + invocation.getArguments()[0]);
+                    return invocation.proceed();
+                }),
+                getPort, List.of(invocation -> (int) invocation.proceed() + 1)));
+
+        assertNotSame(MailService.class, proxy.getClass());
+        assertTrue(ProxyFactory.isProxy(proxy));
+        proxy.setPort(110);
+        proxy.setProtocol("POP3");
+        assertEquals(110, target.getPort());
+        assertEquals(111, proxy.getPort());
+        assertEquals("POP3", proxy.getProtocol());
+        assertEquals(List.of("setPort 110"), calls);
+        assertSame(target, ProxyFactory.getTarget(proxy));
+    }
+
+    @Test
+    public void testInterfaceProxyForFinalClass() throws Exception {
+        FinalMailService target = new FinalMailService();
+        Method sendEmail = IMailService.class.getMethod("sendEmail", User.class, String.class);
+
+        IMailService proxy = (IMailService) ProxyFactory.createProxy(target, Map.of(
+                sendEmail, List.of(invocation -> {
+                    invocation.getArguments()[1] = "[proxy] " + invocation.getArguments()[1];
+                    return invocation.proceed();
+                })));
+
+        assertFalse(proxy instanceof FinalMailService);
+        proxy.sendEmail(new User(), "hello");
+        assertEquals("[proxy] hello", target.lastMessage);
+        assertEquals(target.toString(), proxy.toString());
+    }
+
+    @Test
+    public void testInterceptorsOfLaterProxyRunAfterExistingOnes() throws Exception {
+        DefaultUserService target = new DefaultUserService();
+        Method activateUsers = UserService.class.getMethod("activateUsers");
+        List<String> calls = new ArrayList<>();
+
+        Object first = ProxyFactory.createProxy(target, Map.of(activateUsers, List.of(invocation -> {
+            calls.add("first");
+            return invocation.proceed();
+        })));
+        UserService second = (UserService) ProxyFactory.createProxy(first, Map.of(activateUsers, List.of(invocation -> {
+            calls.add("second");
+            return invocation.proceed();
+        })));
+
+        second.activateUsers();
+        assertEquals(List.of("first", "second"), calls);
+        assertSame(target, ProxyFactory.getTarget(second));
+        assertEquals(2, ((Advised) second).getProxyInterceptors().values().iterator().next().size());
+    }
+
+    @Test
+    public void testCheckedExceptionPassesThrough() throws Exception {
+        FailingService target = new FailingService();
+        Method load = FailingService.class.getMethod("load", long.class, double.class);
+        FailingService proxy = (FailingService) ProxyFactory.createProxy(target, Map.of(load, List.of(MethodInvocation::proceed)));
+
+        assertEquals(3.5, proxy.load(1, 2.5), 0.0001);
+        try {
+            proxy.load(-1, 0);
+            fail();
+        } catch (IOException e) {
+            assertEquals("negative id", e.getMessage());
+        }
+        assertEquals("package", proxy.packageMethod());
+    }
+
+    @Test
+    public void testProxiesOfSameShapeShareClassButNotInterceptors() throws Exception {
+        Method getPort = MailService.class.getMethod("getPort");
+        MailService first = (MailService) ProxyFactory.createProxy(new MailService(), Map.of(
+                getPort, List.of(invocation -> (int) invocation.proceed() + 1)));
+        MailService second = (MailService) ProxyFactory.createProxy(new MailService(), Map.of(
+                getPort, List.of(invocation -> (int) invocation.proceed() + 2)));
+
+        assertSame(first.getClass(), second.getClass());
+        assertEquals(1, first.getPort());
+        assertEquals(2, second.getPort());
+    }
+
+    @Test
+    public void testClassProxyDoesNotRunTargetConstructor() throws Exception {
+        int constructed = CountingService.constructed.get();
+        CountingService target = new CountingService("counter");
+        Method name = CountingService.class.getMethod("name");
+
+        CountingService proxy = (CountingService) ProxyFactory.createProxy(target, Map.of(
+                name, List.of(invocation -> "[" + invocation.proceed() + "]")));
+
+        assertEquals(constructed + 1, CountingService.constructed.get());
+        assertEquals("[counter]", proxy.name());
+    }
+
+    @Test
+    public void testGetArgumentReadsTypedArguments() throws Exception {
+        FailingService target = new FailingService();
+        Method load = FailingService.class.getMethod("load", long.class, double.class);
+        List<Object> arguments = new ArrayList<>();
+        FailingService proxy = (FailingService) ProxyFactory.createProxy(target, Map.of(load, List.of(invocation -> {
+            arguments.add(invocation.getArgument(0));
+            invocation.getArguments()[1] = 0.5;
+            arguments.add(invocation.getArgument(1));
+            arguments.add(invocation.getArgumentCount());
+            return invocation.proceed();
+        })));
+
+        assertEquals(2.5, proxy.load(2, 2.5), 0.0001);
+        assertEquals(List.of(2L, 0.5, 2), arguments);
+    }
+
+    @Test
+    public void testProtectedMethodsInheritedFromOtherPackageAreNotOverridden() throws Exception {
+        DescribedService target = new DescribedService();
+        Method name = DescribedService.class.getMethod("name");
+
+        DescribedService proxy = (DescribedService) ProxyFactory.createProxy(target, Map.of(
+                name, List.of(invocation -> "[" + invocation.proceed() + "]")));
+
+        assertEquals("[described]", proxy.name());
+        assertEquals("entity", proxy.getDescription());
+    }
+
+    @Test
+    public void testClassWithFinalMethodGetsInterfaceProxy() throws Exception {
+        FinalMethodMailService target = new FinalMethodMailService();
+        Method sendEmail = IMailService.class.getMethod("sendEmail", User.class, String.class);
+
+        IMailService proxy = (IMailService) ProxyFactory.createProxy(target, Map.of(
+                sendEmail, List.of(MethodInvocation::proceed)));
+
+        assertFalse(proxy instanceof FinalMethodMailService);
+        proxy.sendEmail(new User(), "hello");
+        assertEquals("hello", target.getLastMessage());
+    }
+
+    @Test(expected = ProxyCreationException.class)
+    public void testClassWithFinalMethodAndNoInterfacesIsRejected() throws Exception {
+        CountingService target = new FinalNameService("counter");
+        Method name = CountingService.class.getMethod("name");
+
+        ProxyFactory.createProxy(target, Map.of(name, List.of(MethodInvocation::proceed)));
+    }
+
+    public static class CountingService {
+        static final AtomicInteger constructed = new AtomicInteger();
+
+        private final String name;
+
+        public CountingService(String name) {
+            this.name = name;
+            constructed.incrementAndGet();
+        }
+
+        public String name() {
+            return name;
+        }
+    }
+
+    public static class FinalNameService extends CountingService {
+
+        public FinalNameService(String name) {
+            super(name);
+        }
+
+        public final String upperName() {
+            return name().toUpperCase();
+        }
+    }
+
+    public static class DescribedService extends DescribedEntity {
+
+        public String name() {
+            return "described";
+        }
+    }
+
+    public static class FinalMethodMailService implements IMailService {
+        private String lastMessage;
+
+        @Override
+        public void sendEmail(User user, String message) {
+            lastMessage = message;
+        }
+
+        public final String getLastMessage() {
+            return lastMessage;
+        }
+    }
+
+    public static final class FinalMailService implements IMailService {
+        private String lastMessage;
+
+        @Override
+        public void sendEmail(User user, String message) {
+            lastMessage = message;
+        }
+    }
+
+    public static class FailingService {
+        public double load(long id, double factor) throws IOException {
+            if (id < 0) {
+                throw new IOException("negative id");
+            }
+            return id + factor;
+        }
+
+        String packageMethod() {
+            return "package";
+        }
+    }
+}
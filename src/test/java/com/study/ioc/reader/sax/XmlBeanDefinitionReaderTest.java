@@ -1,10 +1,27 @@
 package com.study.ioc.reader.sax;
 
 import com.study.ioc.entity.BeanDefinition;
+import com.study.ioc.entity.CollectionValue;
+import com.study.ioc.reader.ActiveProfiles;
+import com.study.ioc.reader.resource.ByteBufferResource;
+import com.study.ioc.reader.resource.ClassPathResource;
+import com.study.ioc.reader.resource.FileSystemResource;
+import com.study.ioc.reader.resource.InputStreamResource;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
 import static org.junit.Assert.*;
 
@@ -68,4 +85,132 @@ public class XmlBeanDefinitionReaderTest {
         assertEquals("IMAP", valueDependencies3.get("protocol"));
 
     }
+
+    @Test
+    public void testReadFromByteBufferAndInputStream() {
+        XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(List.of(
+                new ByteBufferResource(ByteBuffer.wrap(CONTEXT_XML.getBytes(StandardCharsets.UTF_8))),
+                new InputStreamResource(new ByteArrayInputStream(
+                        "<beans><bean id=\"user\" class=\"com.study.entity.User\"/></beans>".getBytes()))));
+
+        Map<String, BeanDefinition> beanDefinitionMap = reader.getBeanDefinition();
+        assertEquals(4, beanDefinitionMap.size());
+        assertEquals("com.study.entity.User", beanDefinitionMap.get("user").getClassName());
+    }
+
+    @Test
+    public void testReadFromLargeMappedFile() throws Exception {
+        Path file = Files.createTempFile("context", ".xml");
+        try {
+            StringBuilder padding = new StringBuilder();
+            while (padding.length() < FileSystemResource.MAPPING_THRESHOLD) {
+                padding.append("<!-- padding to force a memory mapped read -->\n");
+            }
+            Files.writeString(file, CONTEXT_XML.replace("<beans>", "<beans>" + padding));
+
+            Map<String, BeanDefinition> beanDefinitionMap =
+                    new XmlBeanDefinitionReader(new FileSystemResource(file)).getBeanDefinition();
+            assertEquals(3, beanDefinitionMap.size());
+            assertEquals("995", beanDefinitionMap.get("mailServicePOP").getValueDependencies().get("port"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testReadFromJarEntry() throws Exception {
+        Path jar = Files.createTempFile("context", ".jar");
+        try {
+            try (OutputStream outputStream = Files.newOutputStream(jar);
+                 JarOutputStream jarOutputStream = new JarOutputStream(outputStream)) {
+                jarOutputStream.putNextEntry(new JarEntry("config/context.xml"));
+                jarOutputStream.write(CONTEXT_XML.getBytes(StandardCharsets.UTF_8));
+                jarOutputStream.closeEntry();
+            }
+
+            try (URLClassLoader classLoader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, null)) {
+                Map<String, BeanDefinition> beanDefinitionMap =
+                        new XmlBeanDefinitionReader(new ClassPathResource("config/context.xml", classLoader)).getBeanDefinition();
+                assertEquals(3, beanDefinitionMap.size());
+            }
+        } finally {
+            Files.delete(jar);
+        }
+    }
+
+    @Test
+    public void testReadCollectionProperties() {
+        String xml = "<beans>\n" +
+                "    <bean id=\"routingService\" class=\"com.study.entity.RoutingService\">\n" +
+                "        <property name=\"ports\"><array type=\"int\"><value>110</value><value>143</value></array></property>\n" +
+                "        <property name=\"routes\"><map><entry key=\"pop\" ref=\"mailServicePOP\"/></map></property>\n" +
+                "        <property name=\"mailServices\"><list beans-of-type=\"com.study.entity.IMailService\"/></property>\n" +
+                "    </bean>\n" +
+                "</beans>";
+
+        BeanDefinition beanDefinition = new XmlBeanDefinitionReader(new ByteBufferResource(xml.getBytes(StandardCharsets.UTF_8)))
+                .getBeanDefinition().get("routingService");
+
+        Map<String, CollectionValue> collections = beanDefinition.getCollectionDependencies();
+        assertEquals(List.of("ports", "routes", "mailServices"), List.copyOf(collections.keySet()));
+        CollectionValue ports = collections.get("ports");
+        assertEquals(CollectionValue.Kind.ARRAY, ports.getKind());
+        assertEquals("int", ports.getElementType());
+        assertEquals(List.of(CollectionValue.Element.value("110"), CollectionValue.Element.value("143")), ports.getElements());
+        assertEquals(List.of(new CollectionValue.Element("pop", null, "mailServicePOP")),
+                collections.get("routes").getElements());
+        assertTrue(collections.get("mailServices").isAutowired());
+        assertTrue(beanDefinition.getValueDependencies().isEmpty());
+    }
+
+    @Test
+    public void testSkipsInactiveProfilesAndMissingClasses() {
+        String xml = "<beans>\n" +
+                "    <bean id=\"mailService\" class=\"com.study.entity.MailService\" profile=\"dev,test\">\n" +
+                "        <property name=\"port\" value=\"110\"/>\n" +
+                "    </bean>\n" +
+                "    <bean id=\"mailService\" class=\"com.study.entity.MailService\" profile=\"prod\">\n" +
+                "        <property name=\"port\" value=\"995\"/>\n" +
+                "    </bean>\n" +
+                "    <bean id=\"auditService\" class=\"com.study.entity.AuditService\" profile=\"!edge\"/>\n" +
+                "    <beans profile=\"edge\">\n" +
+                "        <bean id=\"edgeOnly\" class=\"com.study.entity.NoSuchClass\"/>\n" +
+                "        <bean id=\"broken\"><property><list><unknown/></list></property></bean>\n" +
+                "    </beans>\n" +
+                "    <if-class-present name=\"com.study.entity.MissingDriver\">\n" +
+                "        <bean id=\"driverService\" class=\"com.study.entity.MissingDriver\"/>\n" +
+                "    </if-class-present>\n" +
+                "    <if-class-present name=\"com.study.entity.DefaultUserService\">\n" +
+                "        <bean id=\"userService\" class=\"com.study.entity.DefaultUserService\">\n" +
+                "            <property name=\"mailService\" ref=\"mailService\"/>\n" +
+                "        </bean>\n" +
+                "    </if-class-present>\n" +
+                "</beans>";
+        XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(new ByteBufferResource(xml.getBytes(StandardCharsets.UTF_8)));
+
+        reader.setActiveProfiles(ActiveProfiles.of("prod"));
+        Map<String, BeanDefinition> prod = reader.getBeanDefinition();
+        assertEquals(Set.of("mailService", "auditService", "userService"), prod.keySet());
+        assertEquals("995", prod.get("mailService").getValueDependencies().get("port"));
+        assertTrue(prod.get("mailService").getAttributes().isEmpty());
+        assertEquals("mailService", prod.get("userService").getRefDependencies().get("mailService"));
+
+        reader.setActiveProfiles(ActiveProfiles.of("test"));
+        assertEquals("110", reader.getBeanDefinition().get("mailService").getValueDependencies().get("port"));
+
+        reader.setActiveProfiles(ActiveProfiles.of());
+        assertEquals(Set.of("auditService", "userService"), reader.getBeanDefinition().keySet());
+    }
+
+    @Test
+    public void testActiveProfilesAcceptExpressions() {
+        ActiveProfiles profiles = ActiveProfiles.of("dev, edge");
+
+        assertEquals(Set.of("dev", "edge"), profiles.getProfiles());
+        assertTrue(profiles.accepts("dev"));
+        assertTrue(profiles.accepts("prod, edge"));
+        assertTrue(profiles.accepts("!prod"));
+        assertFalse(profiles.accepts("!edge"));
+        assertFalse(profiles.accepts("prod"));
+    }
 }
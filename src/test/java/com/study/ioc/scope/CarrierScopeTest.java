@@ -0,0 +1,164 @@
+package com.study.ioc.scope;
+
+import com.study.ioc.exception.ScopeNotActiveException;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class CarrierScopeTest {
+
+    private final CarrierScope scope = new CarrierScope("session");
+
+    @Test
+    public void testCarrierKeepsInstancesBetweenTasks() throws Exception {
+        ScopeCarrier carrier = new ScopeCarrier();
+        Object first = scope.call(carrier, () -> scope.get(3, "bean", Object::new));
+        Object second = scope.call(carrier, () -> scope.get(3, "bean", Object::new));
+        Object other = scope.call(new ScopeCarrier(), () -> scope.get(3, "bean", Object::new));
+
+        assertSame(first, second);
+        assertNotSame(first, other);
+        assertSame(first, scope.call(carrier, () -> scope.remove(3, "bean")));
+    }
+
+    @Test
+    public void testNestedTaskRestoresOuterCarrier() throws Exception {
+        ScopeCarrier outer = new ScopeCarrier();
+        scope.call(outer, () -> {
+            Object outerBean = scope.get(0, "bean", Object::new);
+            scope.run(() -> assertNotSame(outerBean, scope.get(0, "bean", Object::new)));
+            assertSame(outerBean, scope.get(0, "bean", Object::new));
+            return null;
+        });
+    }
+
+    @Test
+    public void testSharedCarrierCreatesEachBeanOnce() throws Exception {
+        ScopeCarrier session = new ScopeCarrier();
+        AtomicInteger created = new AtomicInteger();
+        Set<Object> seen = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] requests = new Future<?>[8];
+            for (int i = 0; i < requests.length; i++) {
+                requests[i] = executor.submit(() -> scope.call(session, () -> {
+                    start.await();
+                    for (int slot = 0; slot < 64; slot++) {
+                        seen.add(scope.get(slot, "bean" + slot, () -> {
+                            created.incrementAndGet();
+                            return new Object();
+                        }));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> request : requests) {
+                request.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(64, created.get());
+        assertEquals(64, seen.size());
+    }
+
+    @Test(expected = ScopeNotActiveException.class)
+    public void testGetOutsideOfScope() {
+        scope.get(0, "bean", Object::new);
+    }
+
+    @Test
+    public void testThreadScopeClear() {
+        ThreadScope threadScope = new ThreadScope();
+        Object bean = threadScope.get(1, "bean", Object::new);
+        assertSame(bean, threadScope.get(1, "bean", Object::new));
+        threadScope.clear();
+        assertNotSame(bean, threadScope.get(1, "bean", Object::new));
+    }
+
+    @Test
+    public void testBeanFactoryRunsWithoutBlockingOtherSlots() throws Exception {
+        ScopeCarrier session = new ScopeCarrier();
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> slow = executor.submit(() -> scope.call(session, () -> scope.get(0, "slow", () -> {
+                creating.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return "slow";
+            })));
+            creating.await();
+            Future<Object> fast = executor.submit(() -> scope.call(session, () -> scope.get(1, "fast", () -> "fast")));
+
+            assertEquals("fast", fast.get(10, TimeUnit.SECONDS));
+            release.countDown();
+            assertEquals("slow", slow.get(10, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailedCreationFreesSlot() throws Exception {
+        ScopeCarrier carrier = new ScopeCarrier();
+        try {
+            scope.call(carrier, () -> scope.get(0, "bean", () -> {
+                throw new IllegalStateException("init failed");
+            }));
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("init failed", e.getMessage());
+        }
+        assertEquals("bean", scope.call(carrier, () -> scope.get(0, "bean", () -> "bean")));
+    }
+
+    @Test
+    public void testThreadScopeCloseReleasesInstancesOfAllThreads() throws Exception {
+        ThreadScope threadScope = new ThreadScope();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            WeakReference<Object> bean = executor.submit(() -> new WeakReference<>(
+                    threadScope.get(0, "bean", Object::new))).get();
+
+            threadScope.close();
+
+            for (int i = 0; i < 50 && bean.get() != null; i++) {
+                System.gc();
+                Thread.sleep(10);
+            }
+            assertNull(bean.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = ScopeNotActiveException.class)
+    public void testThreadScopeGetAfterClose() {
+        ThreadScope threadScope = new ThreadScope();
+        threadScope.close();
+        threadScope.get(0, "bean", Object::new);
+    }
+}